@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Compile the CLI into build/vcm.jar and record an AppCDS archive (build/vcm.jsa)
+# from a training run of typical commands. Launch with scripts/vcm.sh, which
+# uses the archive when present. Rebuild the archive whenever the jar or the
+# JDK changes; a stale archive is ignored by the JVM with a warning.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BUILD="$ROOT/build"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+JAVAC="${JAVA_HOME:+$JAVA_HOME/bin/}javac"
+JAR="${JAVA_HOME:+$JAVA_HOME/bin/}jar"
+
+rm -rf "$BUILD/classes"
+mkdir -p "$BUILD/classes"
+"$JAVAC" -encoding UTF-8 -d "$BUILD/classes" $(find "$ROOT/src" -name '*.java')
+"$JAR" --create --file "$BUILD/vcm.jar" --main-class com.virtualclassroom.Main -C "$BUILD/classes" .
+echo "Built $BUILD/vcm.jar"
+
+# The training run loads every class a typical session needs: one warm-up
+# round exercises the command handlers, the batch covers the remaining
+# listings and reports. Classes loaded before exit go into the archive.
+rm -f "$BUILD/vcm.jsa"
+"$JAVA" -XX:ArchiveClassesAtExit="$BUILD/vcm.jsa" \
+    -Dvcm.config= -Dvcm.log.level=WARN -Dvcm.warmup.iterations=1 \
+    -jar "$BUILD/vcm.jar" --batch "$ROOT/scripts/cds-training.txt" > /dev/null
+echo "Built $BUILD/vcm.jsa ($(du -h "$BUILD/vcm.jsa" | cut -f1))"
@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+# Launch the CLI from build/vcm.jar, with the AppCDS archive when one has been
+# built by scripts/build-cds.sh. Arguments are passed through, e.g.
+#   scripts/vcm.sh -c "list_classrooms"
+#   scripts/vcm.sh --batch commands.txt
+# Extra JVM options can be given in VCM_JAVA_OPTS.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+CDS=()
+if [[ -f "$ROOT/build/vcm.jsa" ]]; then
+    CDS=(-XX:SharedArchiveFile="$ROOT/build/vcm.jsa")
+fi
+exec "$JAVA" ${CDS[@]+"${CDS[@]}"} ${VCM_JAVA_OPTS:-} -jar "$ROOT/build/vcm.jar" "$@"
@@ -1,19 +1,90 @@
 package com.virtualclassroom;
 
+import com.virtualclassroom.admission.AdmissionController;
+import com.virtualclassroom.config.AppConfig;
+import com.virtualclassroom.config.WarmUp;
+import com.virtualclassroom.dataset.DatasetGenerator;
+import com.virtualclassroom.dataset.ManagerSink;
+import com.virtualclassroom.event.DomainEventStream;
 import com.virtualclassroom.manager.VirtualClassroomManager;
+import com.virtualclassroom.server.ConsoleServer;
+import com.virtualclassroom.storage.AuditLog;
+import com.virtualclassroom.storage.BlobStore;
+import com.virtualclassroom.storage.MappedStudentStore;
 import com.virtualclassroom.util.Logger;
+import com.virtualclassroom.workload.WorkloadRecorder;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point. Without arguments the interactive console starts; scripts can
+ * instead run a batch and exit with a non-zero status if any command failed:
+ *
+ *   java com.virtualclassroom.Main -c "add_classroom Math" -c list_classrooms
+ *   java com.virtualclassroom.Main --batch commands.txt   (or - for stdin)
+ */
 public class Main {
     
       public static void main(String[] args) {
         Logger logger = Logger.getInstance();
         
         try {
+            List<String> batch = parseBatch(args);
+            AppConfig config = AppConfig.load();
+            logger.setLogLevel(config.getLogLevel());
             logger.info("=== Virtual Classroom Manager Starting ===");
+            logger.info("Configuration: " + config);
+            DomainEventStream.configure(config.getEventBufferCapacity());
             
             // Initialize and start the Virtual Classroom Manager
-            VirtualClassroomManager manager = new VirtualClassroomManager();
+            VirtualClassroomManager manager = new VirtualClassroomManager(config);
+            if (config.getStudentStoreDirectory() != null) {
+                manager.attachStudentStore(MappedStudentStore.open(Paths.get(config.getStudentStoreDirectory()),
+                        config.getStudentStoreCapacity(), config.getStudentStoreClassrooms(), config.getStudentStoreArenaBytes()));
+            }
+            if (config.getBlobStoreDirectory() != null) {
+                manager.attachBlobStore(BlobStore.open(Paths.get(config.getBlobStoreDirectory())));
+            }
+            if (config.getAuditDirectory() != null) {
+                manager.attachAuditLog(AuditLog.open(Paths.get(config.getAuditDirectory())));
+            }
+            if (config.getDataset() != null) {
+                loadDataset(manager, config.getDataset(), logger);
+            }
+            if (config.getWarmUpIterations() > 0) {
+                warmUp(manager, config.getWarmUpIterations(), logger);
+            }
+            // attached after warm-up so that warm-up commands are not recorded
+            if (config.getWorkloadRecordingFile() != null) {
+                manager.setWorkloadRecorder(WorkloadRecorder.create(Paths.get(config.getWorkloadRecordingFile())));
+            }
+            if (batch != null) {
+                manager.markReady();
+                int failed = manager.runBatch(batch);
+                logger.info("=== Virtual Classroom Manager Shutting Down ===");
+                System.exit(failed == 0 ? 0 : 2);
+            }
+            ConsoleServer server = null;
+            if (config.getServerPort() != null) {
+                if (config.getAdmissionRate() > 0) {
+                    manager.attachAdmissionController(new AdmissionController(config.getAdmissionRate(),
+                            config.getAdmissionBurst(), config.getAdmissionReports(), config.getAdmissionOverload()));
+                }
+                server = new ConsoleServer(manager, config.getServerHost(), config.getServerPort(), config.getSessionThreads());
+                server.start();
+            }
+            manager.markReady();
             manager.start();
+            if (server != null) {
+                server.close();
+            }
             
             logger.info("=== Virtual Classroom Manager Shutting Down ===");
             
@@ -23,4 +94,67 @@ public class Main {
             System.exit(1);
         }
     }
+
+    /**
+     * Commands given with -c or --batch, or null to start the interactive console
+     */
+    private static List<String> parseBatch(String[] args) throws IOException {
+        if (args.length == 0) {
+            return null;
+        }
+        List<String> commands = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i] + " (usage: -c <command> | --batch <file|->)");
+            }
+            switch (args[i]) {
+                case "-c" -> commands.add(args[++i]);
+                case "--batch" -> {
+                    String file = args[++i];
+                    if (file.equals("-")) {
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                        reader.lines().forEach(commands::add);
+                    } else {
+                        commands.addAll(Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i] + " (usage: -c <command> | --batch <file|->)");
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Exercise the hot command paths so they are compiled before the first real command
+     */
+    private static void warmUp(VirtualClassroomManager manager, int iterations, Logger logger) {
+        long startTime = System.nanoTime();
+        long commands = new WarmUp(manager).run(iterations);
+        logger.info(String.format("Warm-up ran %,d commands in %d rounds in %.2f s",
+                commands, iterations, (System.nanoTime() - startTime) / 1e9));
+    }
+
+    /**
+     * Preload a synthetic dataset given as classrooms:students[:seed]
+     */
+    private static void loadDataset(VirtualClassroomManager manager, String spec, Logger logger) throws IOException {
+        String[] fields = spec.split(":");
+        DatasetGenerator generator = new DatasetGenerator.Builder()
+                .setClassroomCount(Integer.parseInt(fields[0]))
+                .setStudentCount(Integer.parseInt(fields[1]))
+                .setSeed(fields.length > 2 ? Long.parseLong(fields[2]) : 42)
+                .build();
+        Logger.LogLevel level = logger.getLogLevel();
+        logger.setLogLevel(Logger.LogLevel.WARN);
+        long startTime = System.nanoTime();
+        ManagerSink sink = new ManagerSink(manager);
+        try {
+            generator.generate(sink);
+        } finally {
+            sink.close();
+            logger.setLogLevel(level);
+        }
+        logger.info(String.format("Dataset loaded in %.2f s (%d commands failed): %s",
+                (System.nanoTime() - startTime) / 1e9, sink.getFailedCount(), generator.getSummary()));
+    }
 }
@@ -0,0 +1,147 @@
+/**
+ * Admission Controller
+ *
+ * Decides, before a remote command queues for the model lock, whether it may
+ * run at all. Commands are weighted by their {@link CommandCost}:
+ * - every session has its own token bucket, and a command spends its cost in tokens;
+ * - only a fixed number of reports run at once, further reports are turned away;
+ * - once too many commands are in flight, reads and reports are shed while
+ *   writes are still admitted, so the write path does not queue behind analytics.
+ * Control commands are always admitted. A rejected command is answered
+ * immediately with the reason instead of waiting.
+ */
+package com.virtualclassroom.admission;
+
+import com.virtualclassroom.enums.CommandCost;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AdmissionController {
+
+    private final int tokensPerSecond;
+    private final int burst;
+    private final int maxConcurrentReports;
+    private final int overloadThreshold;
+    private final Map<String, TokenBucket> buckets; // session name -> bucket
+    private final Semaphore reportSlots;
+    private final AtomicInteger inFlight;
+    private final EnumMap<CommandCost, LongAdder> admitted;
+    private final EnumMap<CommandCost, LongAdder> rejected;
+
+    /**
+     * @param tokensPerSecond      sustained per-session rate, in tokens
+     * @param burst                per-session bucket size; at least the cost of a report
+     * @param maxConcurrentReports reports allowed to run at the same time
+     * @param overloadThreshold    commands in flight from which reads and reports are shed
+     */
+    public AdmissionController(int tokensPerSecond, int burst, int maxConcurrentReports, int overloadThreshold) {
+        if (burst < CommandCost.REPORT.getTokens()) {
+            throw new IllegalArgumentException("Burst must be at least " + CommandCost.REPORT.getTokens() + " tokens");
+        }
+        this.tokensPerSecond = tokensPerSecond;
+        this.burst = burst;
+        this.maxConcurrentReports = maxConcurrentReports;
+        this.overloadThreshold = overloadThreshold;
+        this.buckets = new ConcurrentHashMap<>();
+        this.reportSlots = new Semaphore(maxConcurrentReports);
+        this.inFlight = new AtomicInteger();
+        this.admitted = new EnumMap<>(CommandCost.class);
+        this.rejected = new EnumMap<>(CommandCost.class);
+        for (CommandCost cost : CommandCost.values()) {
+            admitted.put(cost, new LongAdder());
+            rejected.put(cost, new LongAdder());
+        }
+    }
+
+    /**
+     * Admit or reject one command; an admitted ticket must be closed when the command has finished
+     */
+    public Ticket admit(String sessionName, CommandCost cost) {
+        if (cost == CommandCost.CONTROL) {
+            admitted.get(cost).increment();
+            return new Ticket(cost, null);
+        }
+        if (cost != CommandCost.WRITE && inFlight.get() >= overloadThreshold) {
+            return reject(cost, "Server busy: " + cost.name().toLowerCase() + " commands are paused while "
+                    + overloadThreshold + "+ commands are in flight, please retry shortly");
+        }
+        if (cost == CommandCost.REPORT && !reportSlots.tryAcquire()) {
+            return reject(cost, "Server busy: " + maxConcurrentReports + " report(s) already running, please retry shortly");
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(sessionName, name -> new TokenBucket(burst, tokensPerSecond));
+        if (!bucket.tryAcquire(cost.getTokens())) {
+            if (cost == CommandCost.REPORT) {
+                reportSlots.release();
+            }
+            return reject(cost, "Rate limit reached for this session, retry in "
+                    + bucket.millisUntilAvailable(cost.getTokens()) + " ms");
+        }
+        inFlight.incrementAndGet();
+        admitted.get(cost).increment();
+        return new Ticket(cost, null);
+    }
+
+    /**
+     * Drop the bucket of a session that has ended
+     */
+    public void forget(String sessionName) {
+        buckets.remove(sessionName);
+    }
+
+    public int getInFlight() { return inFlight.get(); }
+    public long getAdmitted(CommandCost cost) { return admitted.get(cost).sum(); }
+    public long getRejected(CommandCost cost) { return rejected.get(cost).sum(); }
+
+    public String getStatistics() {
+        StringBuilder stats = new StringBuilder(String.format(
+                "Admission: %d tokens/s per session (burst %d), %d concurrent report(s), shedding from %d in flight; now %d in flight, %d session(s)",
+                tokensPerSecond, burst, maxConcurrentReports, overloadThreshold, inFlight.get(), buckets.size()));
+        for (CommandCost cost : CommandCost.values()) {
+            stats.append(String.format("%n  %-8s admitted %d, rejected %d", cost, getAdmitted(cost), getRejected(cost)));
+        }
+        return stats.toString();
+    }
+
+    private Ticket reject(CommandCost cost, String reason) {
+        rejected.get(cost).increment();
+        return new Ticket(cost, reason);
+    }
+
+    /**
+     * Outcome of an admission decision; closing an admitted ticket returns its concurrency slot
+     */
+    public final class Ticket implements AutoCloseable {
+        private final CommandCost cost;
+        private final String rejection;
+        private boolean closed;
+
+        private Ticket(CommandCost cost, String rejection) {
+            this.cost = cost;
+            this.rejection = rejection;
+        }
+
+        public boolean isAdmitted() { return rejection == null; }
+
+        /**
+         * Why the command was turned away, null if it was admitted
+         */
+        public String getRejection() { return rejection; }
+
+        @Override
+        public void close() {
+            if (closed || rejection != null || cost == CommandCost.CONTROL) {
+                return;
+            }
+            closed = true;
+            inFlight.decrementAndGet();
+            if (cost == CommandCost.REPORT) {
+                reportSlots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Token Bucket
+ *
+ * Holds up to a fixed number of tokens and refills continuously at a fixed
+ * rate. A request is allowed when enough tokens are present, so a client can
+ * burst up to the capacity and is then held to the refill rate. Refill is
+ * computed lazily from the elapsed time on each call; there is no timer.
+ */
+package com.virtualclassroom.admission;
+
+import java.util.concurrent.TimeUnit;
+
+public final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * A full bucket
+     *
+     * @param capacity        largest burst, in tokens
+     * @param tokensPerSecond sustained refill rate
+     */
+    public TokenBucket(int capacity, double tokensPerSecond) {
+        if (capacity <= 0 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take the tokens if they are all available; nothing is taken otherwise
+     */
+    public synchronized boolean tryAcquire(int requested) {
+        refill();
+        if (tokens < requested) {
+            return false;
+        }
+        tokens -= requested;
+        return true;
+    }
+
+    /**
+     * Milliseconds until the requested tokens will have accumulated, 0 if available now
+     */
+    public synchronized long millisUntilAvailable(int requested) {
+        refill();
+        if (tokens >= requested) {
+            return 0;
+        }
+        return (long) Math.ceil((requested - tokens) / tokensPerNano / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Institution-Wide Analytics Engine
+ *
+ * Computes grade distribution, submission rates and at-risk students across
+ * every classroom using a parallel stream over the classroom partitions.
+ * Each worker builds an InstitutionReport partial which is merged at the end.
+ */
+package com.virtualclassroom.analytics;
+
+import com.virtualclassroom.entity.Classroom;
+import com.virtualclassroom.entity.Student;
+import com.virtualclassroom.exception.ReportCancelledException;
+import com.virtualclassroom.util.Logger;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+public class InstitutionAnalytics {
+
+    public static final double DEFAULT_ATTENDANCE_THRESHOLD = 75.0;
+    public static final double DEFAULT_GRADE_THRESHOLD = 60.0;
+
+    private final ForkJoinPool pool;
+    private final Logger logger;
+    private double attendanceThreshold = DEFAULT_ATTENDANCE_THRESHOLD;
+    private double gradeThreshold = DEFAULT_GRADE_THRESHOLD;
+
+    public InstitutionAnalytics() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public InstitutionAnalytics(ForkJoinPool pool) {
+        this.pool = pool;
+        this.logger = Logger.getInstance();
+    }
+
+    public void setAttendanceThreshold(double attendanceThreshold) { this.attendanceThreshold = attendanceThreshold; }
+    public void setGradeThreshold(double gradeThreshold) { this.gradeThreshold = gradeThreshold; }
+    public int getParallelism() { return pool.getParallelism(); }
+
+    /**
+     * Analyze all given classrooms; the caller must not mutate them while this runs
+     */
+    public InstitutionReport analyze(Collection<Classroom> classrooms) {
+        return analyze(classrooms, () -> {});
+    }
+
+    /**
+     * Analyze all given classrooms, running the checkpoint before each classroom and each evaluated student.
+     * An unchecked exception thrown by the checkpoint stops the analysis and is rethrown as is.
+     */
+    public InstitutionReport analyze(Collection<Classroom> classrooms, Runnable checkpoint) {
+        long start = System.nanoTime();
+        List<Classroom> partitions = new ArrayList<>(classrooms);
+        InstitutionReport report;
+        try {
+            report = pool.submit(() -> partitions.parallelStream()
+                    .collect(InstitutionReport::new, (partial, classroom) -> {
+                        checkpoint.run();
+                        partial.addClassroom(classroom);
+                    }, InstitutionReport::merge)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Institution analytics interrupted", e);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        }
+
+        InstitutionReport merged = report;
+        List<InstitutionReport.AtRiskStudent> atRisk;
+        try {
+            atRisk = pool.submit(() -> merged.getStudents().parallelStream()
+                    .map(student -> {
+                        checkpoint.run();
+                        return evaluate(student, merged.getGradeAverage(student.getStudentId()));
+                    })
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparingDouble(InstitutionReport.AtRiskStudent::getAttendancePercentage)
+                            .thenComparing(InstitutionReport.AtRiskStudent::getStudentId))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Institution analytics interrupted", e);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        merged.complete(atRisk, durationMs);
+        logger.logPerformance("Institution analytics over " + partitions.size() + " classrooms", durationMs);
+        return merged;
+    }
+
+    private static RuntimeException failure(ExecutionException e) {
+        if (e.getCause() instanceof ReportCancelledException cancelled) {
+            return cancelled;
+        }
+        return new IllegalStateException("Institution analytics failed: " + e.getCause().getMessage(), e.getCause());
+    }
+
+    private InstitutionReport.AtRiskStudent evaluate(Student student, double gradeAverage) {
+        boolean lowAttendance = student.hasAttendanceRecords() && student.getAttendancePercentage() < attendanceThreshold;
+        boolean lowGrade = gradeAverage >= 0 && gradeAverage < gradeThreshold;
+        if (!lowAttendance && !lowGrade) {
+            return null;
+        }
+        return new InstitutionReport.AtRiskStudent(student.getStudentId(), student.getName(),
+                student.getAttendancePercentage(), gradeAverage);
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Institution Report (Mergeable Partial Aggregate)
+ *
+ * Accumulates grade distribution, per-assignment submission rates and
+ * per-student grade totals for a partition of classrooms. Partials built on
+ * different threads are combined with {@link #merge(InstitutionReport)}.
+ */
+package com.virtualclassroom.analytics;
+
+import com.virtualclassroom.entity.Assignment;
+import com.virtualclassroom.entity.Classroom;
+import com.virtualclassroom.entity.Student;
+
+import java.util.*;
+
+public class InstitutionReport {
+
+    private static final String[] LETTERS = {"A", "B", "C", "D", "F"};
+
+    private final long[] letterCounts;
+    private final Map<String, long[]> submissionsByAssignment; // className/title -> {submitted, enrolled}
+    private final Map<String, double[]> gradesByStudent; // studentId -> {percentage sum, graded count}
+    private final Map<String, Student> students;
+    private int classroomCount;
+    private int assignmentCount;
+    private long submissionCount;
+    private long enrollmentCount;
+
+    // Populated by InstitutionAnalytics once all partials are merged
+    private List<AtRiskStudent> atRiskStudents;
+    private long computeTimeMs;
+
+    public InstitutionReport() {
+        this.letterCounts = new long[LETTERS.length];
+        this.submissionsByAssignment = new HashMap<>();
+        this.gradesByStudent = new HashMap<>();
+        this.students = new HashMap<>();
+        this.atRiskStudents = new ArrayList<>();
+    }
+
+    /**
+     * Fold one classroom into this partial
+     */
+    public void addClassroom(Classroom classroom) {
+        classroomCount++;
+        int enrolled = classroom.getEnrolledStudentCount();
+        enrollmentCount += enrolled;
+        for (Student student : classroom.getAllStudents()) {
+            students.putIfAbsent(student.getStudentId(), student);
+        }
+        for (Assignment assignment : classroom.getAllAssignments()) {
+            assignmentCount++;
+            int submitted = assignment.getSubmissionCount();
+            submissionCount += submitted;
+            submissionsByAssignment.put(classroom.getName() + "/" + assignment.getTitle(), new long[]{submitted, enrolled});
+            int maxPoints = assignment.getMaxPoints();
+            assignment.forEachGrade((studentId, points) -> {
+                double percentage = points / maxPoints * 100;
+                letterCounts[letterIndex(Assignment.toLetterGrade(percentage))]++;
+                double[] totals = gradesByStudent.computeIfAbsent(studentId, k -> new double[2]);
+                totals[0] += percentage;
+                totals[1]++;
+            });
+        }
+    }
+
+    /**
+     * Combine another partial into this one
+     */
+    public void merge(InstitutionReport other) {
+        for (int i = 0; i < letterCounts.length; i++) {
+            letterCounts[i] += other.letterCounts[i];
+        }
+        submissionsByAssignment.putAll(other.submissionsByAssignment);
+        other.gradesByStudent.forEach((studentId, totals) -> gradesByStudent.merge(studentId, totals, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            return a;
+        }));
+        other.students.forEach(students::putIfAbsent);
+        classroomCount += other.classroomCount;
+        assignmentCount += other.assignmentCount;
+        submissionCount += other.submissionCount;
+        enrollmentCount += other.enrollmentCount;
+    }
+
+    // --- Getters ---
+    public int getClassroomCount() { return classroomCount; }
+    public int getAssignmentCount() { return assignmentCount; }
+    public long getSubmissionCount() { return submissionCount; }
+    public long getEnrollmentCount() { return enrollmentCount; }
+    public int getStudentCount() { return students.size(); }
+    public List<AtRiskStudent> getAtRiskStudents() { return atRiskStudents; }
+    public long getComputeTimeMs() { return computeTimeMs; }
+
+    public Map<String, Long> getGradeDistribution() {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < LETTERS.length; i++) {
+            distribution.put(LETTERS[i], letterCounts[i]);
+        }
+        return distribution;
+    }
+
+    public double getSubmissionRate(String assignmentKey) {
+        long[] counts = submissionsByAssignment.get(assignmentKey);
+        if (counts == null || counts[1] == 0) return 0.0;
+        return (double) counts[0] / counts[1] * 100;
+    }
+
+    public double getOverallSubmissionRate() {
+        long expected = submissionsByAssignment.values().stream().mapToLong(c -> c[1]).sum();
+        return expected == 0 ? 0.0 : (double) submissionCount / expected * 100;
+    }
+
+    /**
+     * Assignments with the lowest submission rate, at most limit entries
+     */
+    public List<String> getLowestSubmissionAssignments(int limit) {
+        return submissionsByAssignment.keySet().stream()
+                .filter(key -> submissionsByAssignment.get(key)[1] > 0)
+                .sorted(Comparator.comparingDouble(this::getSubmissionRate).thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    Collection<Student> getStudents() {
+        return students.values();
+    }
+
+    double getGradeAverage(String studentId) {
+        double[] totals = gradesByStudent.get(studentId);
+        return totals == null ? -1.0 : totals[0] / totals[1];
+    }
+
+    void complete(List<AtRiskStudent> atRiskStudents, long computeTimeMs) {
+        this.atRiskStudents = atRiskStudents;
+        this.computeTimeMs = computeTimeMs;
+    }
+
+    public String getReport(int listLimit) {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Institution Analytics ===\n");
+        report.append("Classrooms: ").append(classroomCount).append("\n");
+        report.append("Students: ").append(students.size()).append(" (").append(enrollmentCount).append(" enrollments)\n");
+        report.append("Assignments: ").append(assignmentCount).append("\n");
+        report.append("Submissions: ").append(submissionCount)
+                .append(String.format(" (%.1f%% submission rate)", getOverallSubmissionRate())).append("\n");
+        report.append("\nGrade Distribution:\n");
+        getGradeDistribution().forEach((letter, count) ->
+                report.append("  Grade ").append(letter).append(": ").append(count).append("\n"));
+        List<String> lowest = getLowestSubmissionAssignments(listLimit);
+        if (!lowest.isEmpty()) {
+            report.append("\nLowest Submission Rates:\n");
+            for (String key : lowest) {
+                report.append(String.format("  %-40s %5.1f%%%n", key, getSubmissionRate(key)));
+            }
+        }
+        report.append("\nAt-Risk Students: ").append(atRiskStudents.size()).append("\n");
+        atRiskStudents.stream().limit(listLimit).forEach(s -> report.append("  ").append(s).append("\n"));
+        if (atRiskStudents.size() > listLimit) {
+            report.append("  ... and ").append(atRiskStudents.size() - listLimit).append(" more\n");
+        }
+        report.append("\nComputed in ").append(computeTimeMs).append(" ms\n");
+        return report.toString();
+    }
+
+    private static int letterIndex(String letter) {
+        return switch (letter) {
+            case "A" -> 0;
+            case "B" -> 1;
+            case "C" -> 2;
+            case "D" -> 3;
+            default -> 4;
+        };
+    }
+
+    /**
+     * A student flagged by attendance or grade thresholds
+     */
+    public static class AtRiskStudent {
+        private final String studentId;
+        private final String name;
+        private final double attendancePercentage;
+        private final double gradeAverage;
+
+        AtRiskStudent(String studentId, String name, double attendancePercentage, double gradeAverage) {
+            this.studentId = studentId;
+            this.name = name;
+            this.attendancePercentage = attendancePercentage;
+            this.gradeAverage = gradeAverage;
+        }
+
+        public String getStudentId() { return studentId; }
+        public String getName() { return name; }
+        public double getAttendancePercentage() { return attendancePercentage; }
+        public double getGradeAverage() { return gradeAverage; }
+
+        @Override
+        public String toString() {
+            String grade = gradeAverage < 0 ? "  n/a" : String.format("%5.1f%%", gradeAverage);
+            return String.format("%-12s %-20s attendance %5.1f%% | grade %s", studentId, name, attendancePercentage, grade);
+        }
+    }
+}
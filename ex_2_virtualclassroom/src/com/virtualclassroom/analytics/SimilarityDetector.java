@@ -0,0 +1,274 @@
+/**
+ * Submission Similarity Detector (MinHash + LSH)
+ *
+ * Finds near-duplicate submissions without comparing every pair:
+ *   1. each submission is reduced to its set of word k-shingles,
+ *   2. a MinHash signature estimates Jaccard similarity between sets,
+ *   3. LSH banding buckets signatures so only submissions sharing a band
+ *      become candidate pairs,
+ *   4. candidates are verified with the exact Jaccard similarity.
+ *
+ * Shingling, signatures, banding and verification each run in parallel on a
+ * fork-join pool.
+ */
+package com.virtualclassroom.analytics;
+
+import com.virtualclassroom.exception.ReportCancelledException;
+import com.virtualclassroom.util.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class SimilarityDetector {
+
+    public static final int DEFAULT_SHINGLE_SIZE = 5;
+    public static final int DEFAULT_BANDS = 16;
+    public static final int DEFAULT_ROWS_PER_BAND = 8;
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    /**
+     * Supplies the stored content of a submitted file
+     */
+    @FunctionalInterface
+    public interface ContentSource {
+        byte[] read(String blobId) throws IOException;
+    }
+
+    private final ForkJoinPool pool;
+    private final int shingleSize;
+    private final int bands;
+    private final int rowsPerBand;
+    private final long[] hashSeeds;
+    private final Logger logger;
+
+    public SimilarityDetector() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SHINGLE_SIZE, DEFAULT_BANDS, DEFAULT_ROWS_PER_BAND);
+    }
+
+    public SimilarityDetector(ForkJoinPool pool, int shingleSize, int bands, int rowsPerBand) {
+        if (shingleSize <= 0 || bands <= 0 || rowsPerBand <= 0) {
+            throw new IllegalArgumentException("Shingle size, bands and rows per band must be greater than 0");
+        }
+        this.pool = pool;
+        this.shingleSize = shingleSize;
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+        this.hashSeeds = new long[bands * rowsPerBand];
+        SplittableRandom random = new SplittableRandom(0x51AA11L);
+        for (int i = 0; i < hashSeeds.length; i++) {
+            hashSeeds[i] = random.nextLong();
+        }
+        this.logger = Logger.getInstance();
+    }
+
+    public int getParallelism() { return pool.getParallelism(); }
+
+    /**
+     * Similarity at which a pair has a 50% chance of becoming an LSH candidate
+     */
+    public double getCandidateThreshold() {
+        return Math.pow(1.0 / bands, 1.0 / rowsPerBand);
+    }
+
+    /**
+     * Find submission pairs whose similarity is at least threshold.
+     *
+     * @param blobIdsByStudent stored files of each student; a student's files are treated as one document
+     */
+    public SimilarityReport analyze(String assignmentTitle, Map<String, List<String>> blobIdsByStudent,
+                                    ContentSource contents, double threshold) {
+        return analyze(assignmentTitle, blobIdsByStudent, contents, threshold, () -> {});
+    }
+
+    /**
+     * As above, running the checkpoint before each document, band and candidate pair.
+     * An unchecked exception thrown by the checkpoint stops the analysis and is rethrown as is.
+     */
+    public SimilarityReport analyze(String assignmentTitle, Map<String, List<String>> blobIdsByStudent,
+                                    ContentSource contents, double threshold, Runnable checkpoint) {
+        long start = System.nanoTime();
+        List<String> studentIds = new ArrayList<>();
+        List<String> withoutContent = new ArrayList<>();
+        blobIdsByStudent.forEach((studentId, blobIds) -> (blobIds.isEmpty() ? withoutContent : studentIds).add(studentId));
+        Collections.sort(studentIds);
+        Collections.sort(withoutContent);
+        int count = studentIds.size();
+
+        long[][] shingles = new long[count][];
+        long[][] signatures = new long[count][];
+        Set<Long> candidates = ConcurrentHashMap.newKeySet();
+        List<SimilarityReport.SimilarPair> pairs = run(() -> {
+            IntStream.range(0, count).parallel().forEach(i -> {
+                checkpoint.run();
+                shingles[i] = shingle(load(blobIdsByStudent.get(studentIds.get(i)), contents));
+                signatures[i] = signature(shingles[i]);
+            });
+            IntStream.range(0, bands).parallel().forEach(band -> {
+                checkpoint.run();
+                collectCandidates(band, signatures, candidates);
+            });
+            return candidates.parallelStream()
+                    .map(key -> {
+                        checkpoint.run();
+                        return verify(key, studentIds, shingles, signatures, threshold);
+                    })
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparingDouble(SimilarityReport.SimilarPair::getJaccard).reversed()
+                            .thenComparing(SimilarityReport.SimilarPair::getFirstStudentId)
+                            .thenComparing(SimilarityReport.SimilarPair::getSecondStudentId))
+                    .toList();
+        });
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        logger.logPerformance("Similarity detection over " + count + " submissions of " + assignmentTitle, durationMs);
+        return new SimilarityReport(assignmentTitle, count, withoutContent, candidates.size(), pairs, threshold, durationMs);
+    }
+
+    // --- Pipeline stages ---
+
+    private static byte[] load(List<String> blobIds, ContentSource contents) {
+        try {
+            if (blobIds.size() == 1) return contents.read(blobIds.get(0));
+            ByteArrayOutputStream document = new ByteArrayOutputStream();
+            for (String blobId : blobIds) {
+                document.write(contents.read(blobId));
+                document.write('\n');
+            }
+            return document.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read submission content", e);
+        }
+    }
+
+    /**
+     * Sorted, distinct hashes of the document's word k-shingles. Tokens are
+     * lower-cased alphanumeric runs, so whitespace and punctuation changes do
+     * not hide a copy.
+     */
+    long[] shingle(byte[] content) {
+        String text = new String(content, StandardCharsets.UTF_8);
+        long[] tokens = new long[16];
+        int tokenCount = 0;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i >= length) break;
+            long hash = 0xCBF29CE484222325L; // FNV-1a over the lower-cased token
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                hash = (hash ^ Character.toLowerCase(text.charAt(i))) * 0x100000001B3L;
+                i++;
+            }
+            if (tokenCount == tokens.length) tokens = Arrays.copyOf(tokens, tokenCount * 2);
+            tokens[tokenCount++] = hash;
+        }
+        if (tokenCount == 0) return new long[0];
+        int k = Math.min(shingleSize, tokenCount);
+        long[] shingles = new long[tokenCount - k + 1];
+        for (int s = 0; s < shingles.length; s++) {
+            long hash = 0;
+            for (int t = 0; t < k; t++) {
+                hash = hash * 0x9E3779B97F4A7C15L + tokens[s + t];
+            }
+            shingles[s] = mix(hash);
+        }
+        Arrays.sort(shingles);
+        int distinct = 0;
+        for (int s = 0; s < shingles.length; s++) {
+            if (s == 0 || shingles[s] != shingles[s - 1]) shingles[distinct++] = shingles[s];
+        }
+        return Arrays.copyOf(shingles, distinct);
+    }
+
+    long[] signature(long[] shingles) {
+        long[] signature = new long[hashSeeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int h = 0; h < hashSeeds.length; h++) {
+                long value = mix(shingle ^ hashSeeds[h]);
+                if (value < signature[h]) signature[h] = value;
+            }
+        }
+        return signature;
+    }
+
+    private void collectCandidates(int band, long[][] signatures, Set<Long> candidates) {
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        int from = band * rowsPerBand;
+        for (int doc = 0; doc < signatures.length; doc++) {
+            if (signatures[doc][0] == Long.MAX_VALUE) continue; // empty document
+            long key = band;
+            for (int r = 0; r < rowsPerBand; r++) {
+                key = mix(key * 31 + signatures[doc][from + r]);
+            }
+            buckets.computeIfAbsent(key, k -> new ArrayList<>(2)).add(doc);
+        }
+        for (List<Integer> bucket : buckets.values()) {
+            for (int a = 0; a < bucket.size(); a++) {
+                for (int b = a + 1; b < bucket.size(); b++) {
+                    candidates.add((long) bucket.get(a) << 32 | bucket.get(b));
+                }
+            }
+        }
+    }
+
+    private SimilarityReport.SimilarPair verify(long key, List<String> studentIds, long[][] shingles,
+                                                long[][] signatures, double threshold) {
+        int a = (int) (key >>> 32);
+        int b = (int) key;
+        double jaccard = jaccard(shingles[a], shingles[b]);
+        if (jaccard < threshold) return null;
+        int equal = 0;
+        for (int h = 0; h < hashSeeds.length; h++) {
+            if (signatures[a][h] == signatures[b][h]) equal++;
+        }
+        return new SimilarityReport.SimilarPair(studentIds.get(a), studentIds.get(b), jaccard, (double) equal / hashSeeds.length);
+    }
+
+    static double jaccard(long[] first, long[] second) {
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (first[i] < second[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = first.length + second.length - shared;
+        return union == 0 ? 0.0 : (double) shared / union;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    private <T> T run(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Similarity detection interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ReportCancelledException cancelled) {
+                throw cancelled;
+            }
+            throw new IllegalStateException("Similarity detection failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
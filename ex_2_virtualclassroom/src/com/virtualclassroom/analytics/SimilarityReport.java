@@ -0,0 +1,84 @@
+/**
+ * Similarity Report
+ *
+ * Near-duplicate submission pairs found for one assignment, with the exact
+ * Jaccard similarity of their shingle sets and the MinHash estimate that
+ * made them candidates.
+ */
+package com.virtualclassroom.analytics;
+
+import java.util.*;
+
+public class SimilarityReport {
+
+    private final String assignmentTitle;
+    private final int documentCount;
+    private final List<String> studentsWithoutContent;
+    private final long candidatePairCount;
+    private final List<SimilarPair> pairs;
+    private final double threshold;
+    private final long computeTimeMs;
+
+    SimilarityReport(String assignmentTitle, int documentCount, List<String> studentsWithoutContent,
+                     long candidatePairCount, List<SimilarPair> pairs, double threshold, long computeTimeMs) {
+        this.assignmentTitle = assignmentTitle;
+        this.documentCount = documentCount;
+        this.studentsWithoutContent = studentsWithoutContent;
+        this.candidatePairCount = candidatePairCount;
+        this.pairs = pairs;
+        this.threshold = threshold;
+        this.computeTimeMs = computeTimeMs;
+    }
+
+    public int getDocumentCount() { return documentCount; }
+    public long getCandidatePairCount() { return candidatePairCount; }
+    public List<SimilarPair> getPairs() { return pairs; }
+    public List<String> getStudentsWithoutContent() { return studentsWithoutContent; }
+    public long getComputeTimeMs() { return computeTimeMs; }
+
+    public String getReport(int listLimit) {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Similarity Report: ").append(assignmentTitle).append(" ===\n");
+        report.append("Submissions analyzed: ").append(documentCount).append("\n");
+        if (!studentsWithoutContent.isEmpty()) {
+            report.append("Without stored content: ").append(studentsWithoutContent.size()).append("\n");
+        }
+        long allPairs = (long) documentCount * (documentCount - 1) / 2;
+        report.append("Candidate pairs: ").append(candidatePairCount).append(" of ").append(allPairs).append(" possible\n");
+        report.append(String.format("Pairs at or above %.0f%% similarity: %d%n", threshold * 100, pairs.size()));
+        pairs.stream().limit(listLimit).forEach(pair -> report.append("  ").append(pair).append("\n"));
+        if (pairs.size() > listLimit) {
+            report.append("  ... and ").append(pairs.size() - listLimit).append(" more\n");
+        }
+        report.append("\nComputed in ").append(computeTimeMs).append(" ms\n");
+        return report.toString();
+    }
+
+    /**
+     * Two students whose submissions are near-duplicates
+     */
+    public static class SimilarPair {
+        private final String firstStudentId;
+        private final String secondStudentId;
+        private final double jaccard;
+        private final double estimate;
+
+        SimilarPair(String firstStudentId, String secondStudentId, double jaccard, double estimate) {
+            this.firstStudentId = firstStudentId;
+            this.secondStudentId = secondStudentId;
+            this.jaccard = jaccard;
+            this.estimate = estimate;
+        }
+
+        public String getFirstStudentId() { return firstStudentId; }
+        public String getSecondStudentId() { return secondStudentId; }
+        public double getJaccard() { return jaccard; }
+        public double getEstimate() { return estimate; }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s <-> %-12s %5.1f%% similar (MinHash estimate %5.1f%%)",
+                    firstStudentId, secondStudentId, jaccard * 100, estimate * 100);
+        }
+    }
+}
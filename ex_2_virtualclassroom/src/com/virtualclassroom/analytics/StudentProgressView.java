@@ -0,0 +1,238 @@
+/**
+ * Student Progress View (Materialized)
+ *
+ * Per-student, per-classroom progress counters (submissions, graded count and
+ * percentage sum, latest attendance mark, last activity) kept up to date from
+ * the domain event stream, so a progress dashboard costs O(classrooms)
+ * instead of a walk over every submitted assignment.
+ *
+ * Students are materialized lazily from the entities the first time their
+ * progress is requested and maintained incrementally afterwards. Enrollment
+ * marks a student for re-materialization (a returning student brings back
+ * earlier submissions); if the subscription is overrun, every student is.
+ * The entities keep no activity times, so last activity is recorded from the
+ * events for every student, materialized or not, and survives re-materialization.
+ */
+package com.virtualclassroom.analytics;
+
+import com.virtualclassroom.entity.Assignment;
+import com.virtualclassroom.entity.Student;
+import com.virtualclassroom.event.*;
+
+import java.util.*;
+
+public class StudentProgressView {
+
+    private final EventSubscription subscription;
+    private final Map<String, Entry> entries; // studentId -> materialized progress
+    private final Map<String, Map<String, Long>> lastActivity; // studentId -> classroomId -> epoch millis
+    private long knownOverruns;
+    private long materializations;
+
+    public StudentProgressView() {
+        this.subscription = DomainEventStream.getInstance().subscribe("student-progress");
+        this.entries = new HashMap<>();
+        this.lastActivity = new HashMap<>();
+    }
+
+    /**
+     * Current progress of a student in every enrolled classroom.
+     *
+     * @param cacheable false while uncommitted changes may be visible on the
+     *                  entities (an open command group); the progress is then
+     *                  computed from the entities without being kept
+     */
+    public StudentProgress get(Student student, boolean cacheable) {
+        catchUp();
+        String studentId = student.getStudentId();
+        Map<String, Long> activity = lastActivity.getOrDefault(studentId, Map.of());
+        if (!cacheable) {
+            return materialize(student).toProgress(studentId, activity);
+        }
+        Entry entry = entries.get(studentId);
+        if (entry == null || entry.stale) {
+            entry = materialize(student);
+            entries.put(studentId, entry);
+        }
+        return entry.toProgress(studentId, activity);
+    }
+
+    public int size() { return entries.size(); }
+    public long getMaterializationCount() { return materializations; }
+
+    // --- Maintenance ---
+
+    private void catchUp() {
+        subscription.poll(Integer.MAX_VALUE, this::apply);
+        if (subscription.getOverruns() != knownOverruns) {
+            knownOverruns = subscription.getOverruns();
+            for (Entry entry : entries.values()) {
+                entry.stale = true;
+            }
+        }
+    }
+
+    private void apply(DomainEvent event) {
+        if (event instanceof AssignmentSubmitted submitted) {
+            Counters counters = counters(submitted.getStudentId(), submitted.getClassroomId(), event);
+            if (counters != null) counters.submitted++;
+        } else if (event instanceof AssignmentGraded graded) {
+            Counters counters = counters(graded.getStudentId(), graded.getClassroomId(), event);
+            if (counters != null) {
+                double percentage = percentage(graded.getPoints(), graded.getMaxPoints());
+                if (graded.isRegrade()) {
+                    counters.percentageSum += percentage - percentage(graded.getPreviousPoints(), graded.getMaxPoints());
+                } else {
+                    counters.graded++;
+                    counters.percentageSum += percentage;
+                }
+            }
+        } else if (event instanceof AttendanceMarked attendance) {
+            Counters counters = counters(attendance.getStudentId(), attendance.getClassroomId(), event);
+            if (counters != null) counters.present = attendance.isPresent();
+        } else if (event instanceof StudentEnrolled enrolled) {
+            recordActivity(enrolled.getStudentId(), enrolled.getClassroomId(), event);
+            Entry entry = entries.get(enrolled.getStudentId());
+            if (entry != null) {
+                entry.stale = true;
+            }
+        } else if (event instanceof StudentUnenrolled unenrolled) {
+            Map<String, Long> activity = lastActivity.get(unenrolled.getStudentId());
+            if (activity != null) {
+                activity.remove(unenrolled.getClassroomId());
+                if (activity.isEmpty()) lastActivity.remove(unenrolled.getStudentId());
+            }
+            Entry entry = entries.get(unenrolled.getStudentId());
+            if (entry != null) {
+                entry.classrooms.remove(unenrolled.getClassroomId());
+            }
+        }
+    }
+
+    /**
+     * Record the event as the student's last activity in the classroom, then return the counters
+     * to update, or null when the student is not materialized (or about to be rebuilt)
+     */
+    private Counters counters(String studentId, String classroomId, DomainEvent event) {
+        recordActivity(studentId, classroomId, event);
+        Entry entry = entries.get(studentId);
+        if (entry == null || entry.stale) {
+            return null;
+        }
+        return entry.classrooms.computeIfAbsent(classroomId, id -> new Counters());
+    }
+
+    private void recordActivity(String studentId, String classroomId, DomainEvent event) {
+        lastActivity.computeIfAbsent(studentId, id -> new HashMap<>()).merge(classroomId, event.getTimestamp(), Math::max);
+    }
+
+    private Entry materialize(Student student) {
+        String studentId = student.getStudentId();
+        Entry entry = new Entry();
+        Map<String, Boolean> attendance = student.getAttendanceRecord();
+        for (String classroomId : student.getEnrolledClassroomIds()) {
+            Counters counters = new Counters();
+            List<Assignment> submitted = student.getSubmittedAssignments(classroomId);
+            counters.submitted = submitted.size();
+            for (Assignment assignment : submitted) {
+                if (assignment.isGraded(studentId)) {
+                    counters.graded++;
+                    counters.percentageSum += assignment.getGradePercentage(studentId);
+                }
+            }
+            counters.present = attendance.get(classroomId);
+            entry.classrooms.put(classroomId, counters);
+        }
+        materializations++;
+        return entry;
+    }
+
+    private static double percentage(double points, int maxPoints) {
+        return maxPoints == 0 ? 0.0 : points / maxPoints * 100;
+    }
+
+    private static final class Counters {
+        private int submitted;
+        private int graded;
+        private double percentageSum;
+        private Boolean present;
+    }
+
+    private static final class Entry {
+        private final Map<String, Counters> classrooms = new HashMap<>();
+        private boolean stale;
+
+        private StudentProgress toProgress(String studentId, Map<String, Long> lastActivity) {
+            List<ClassroomProgress> progress = new ArrayList<>(classrooms.size());
+            for (Map.Entry<String, Counters> classroom : classrooms.entrySet()) {
+                Counters counters = classroom.getValue();
+                progress.add(new ClassroomProgress(classroom.getKey(), counters.submitted, counters.graded,
+                        counters.percentageSum, counters.present, lastActivity.getOrDefault(classroom.getKey(), 0L)));
+            }
+            return new StudentProgress(studentId, progress);
+        }
+    }
+
+    /**
+     * A student's progress across classrooms at the time it was requested
+     */
+    public static final class StudentProgress {
+        private final String studentId;
+        private final List<ClassroomProgress> classrooms;
+
+        StudentProgress(String studentId, List<ClassroomProgress> classrooms) {
+            this.studentId = studentId;
+            this.classrooms = Collections.unmodifiableList(classrooms);
+        }
+
+        public String getStudentId() { return studentId; }
+        public List<ClassroomProgress> getClassrooms() { return classrooms; }
+
+        /**
+         * Average percentage over every graded submission in the enrolled classrooms
+         */
+        public double getGradeAverage() {
+            double percentageSum = 0;
+            int graded = 0;
+            for (ClassroomProgress classroom : classrooms) {
+                percentageSum += classroom.percentageSum;
+                graded += classroom.gradedCount;
+            }
+            return graded == 0 ? 0.0 : percentageSum / graded;
+        }
+    }
+
+    public static final class ClassroomProgress {
+        private final String classroomId;
+        private final int submittedCount;
+        private final int gradedCount;
+        private final double percentageSum;
+        private final Boolean present;
+        private final long lastActivity;
+
+        ClassroomProgress(String classroomId, int submittedCount, int gradedCount, double percentageSum,
+                          Boolean present, long lastActivity) {
+            this.classroomId = classroomId;
+            this.submittedCount = submittedCount;
+            this.gradedCount = gradedCount;
+            this.percentageSum = percentageSum;
+            this.present = present;
+            this.lastActivity = lastActivity;
+        }
+
+        public String getClassroomId() { return classroomId; }
+        public int getSubmittedCount() { return submittedCount; }
+        public int getGradedCount() { return gradedCount; }
+        public double getAveragePercentage() { return gradedCount == 0 ? 0.0 : percentageSum / gradedCount; }
+
+        /**
+         * Latest attendance mark in the classroom, null if never marked
+         */
+        public Boolean getPresent() { return present; }
+
+        /**
+         * Epoch millis of the last event for this classroom, 0 if none since the manager started
+         */
+        public long getLastActivity() { return lastActivity; }
+    }
+}
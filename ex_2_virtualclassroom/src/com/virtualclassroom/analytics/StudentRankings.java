@@ -0,0 +1,216 @@
+/**
+ * Student Rankings (Maintained Order Statistics)
+ *
+ * Keeps every student ordered by attendance, grade average and submission
+ * count in sorted sets, so "top K" and "bottom K" queries walk K entries
+ * instead of sorting the whole institution. The sets follow the domain event
+ * stream: before each query the pending events are consumed and only the
+ * students they touched are re-scored. If the subscription falls so far
+ * behind that events were overwritten, the rankings are rebuilt from scratch.
+ * While a command group is open the entities may hold uncommitted changes, so
+ * queries then scan the students directly and leave the sets untouched.
+ */
+package com.virtualclassroom.analytics;
+
+import com.virtualclassroom.entity.Student;
+import com.virtualclassroom.event.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class StudentRankings {
+
+    public enum Metric {
+        ATTENDANCE("Attendance", "%"),
+        GRADE_AVERAGE("Grade Average", "%"),
+        SUBMISSIONS("Submissions", "");
+
+        private final String label;
+        private final String unit;
+
+        Metric(String label, String unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+
+        public String getLabel() { return label; }
+        public String getUnit() { return unit; }
+
+        double score(Student student) {
+            return switch (this) {
+                case ATTENDANCE -> student.getAttendancePercentage();
+                case GRADE_AVERAGE -> student.getGradeAverage();
+                case SUBMISSIONS -> student.getTotalAssignments();
+            };
+        }
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+    private static final Comparator<RankedStudent> ORDER =
+            Comparator.comparingDouble(RankedStudent::getScore).thenComparing(RankedStudent::getStudentId);
+
+    private final Function<String, Student> studentLookup;
+    private final Supplier<Collection<Student>> allStudents;
+    private final EventSubscription subscription;
+    private final Map<String, RankedStudent[]> entries; // studentId -> current entry per metric
+    private final EnumMap<Metric, TreeSet<RankedStudent>> rankings;
+    private final Set<String> touched;
+    private boolean built;
+    private long knownOverruns;
+    private long rebuilds;
+
+    public StudentRankings(Function<String, Student> studentLookup, Supplier<Collection<Student>> allStudents) {
+        this.studentLookup = studentLookup;
+        this.allStudents = allStudents;
+        this.subscription = DomainEventStream.getInstance().subscribe("student-rankings");
+        this.entries = new HashMap<>();
+        this.rankings = new EnumMap<>(Metric.class);
+        for (Metric metric : METRICS) {
+            rankings.put(metric, new TreeSet<>(ORDER));
+        }
+        this.touched = new HashSet<>();
+    }
+
+    /**
+     * Best k students by the metric, best first
+     *
+     * @param cacheable false while uncommitted changes may be visible on the
+     *                  entities (an open command group); the ranking is then
+     *                  computed from the entities without updating the sets
+     */
+    public List<RankedStudent> top(Metric metric, int k, boolean cacheable) {
+        if (!cacheable) {
+            return scan(metric, ORDER.reversed(), k);
+        }
+        catchUp();
+        return take(rankings.get(metric).descendingIterator(), k);
+    }
+
+    /**
+     * Worst k students by the metric, worst first
+     *
+     * @param cacheable as for {@link #top}
+     */
+    public List<RankedStudent> bottom(Metric metric, int k, boolean cacheable) {
+        if (!cacheable) {
+            return scan(metric, ORDER, k);
+        }
+        catchUp();
+        return take(rankings.get(metric).iterator(), k);
+    }
+
+    public int size(boolean cacheable) {
+        if (!cacheable) {
+            return allStudents.get().size();
+        }
+        catchUp();
+        return entries.size();
+    }
+
+    public long getRebuildCount() { return rebuilds; }
+
+    // --- Maintenance ---
+
+    private void catchUp() {
+        if (!built) {
+            rebuild();
+            return;
+        }
+        subscription.poll(Integer.MAX_VALUE, this::collectTouchedStudent);
+        if (subscription.getOverruns() != knownOverruns) {
+            rebuild();
+            return;
+        }
+        for (String studentId : touched) {
+            rescore(studentId);
+        }
+        touched.clear();
+    }
+
+    private void collectTouchedStudent(DomainEvent event) {
+        if (event instanceof AttendanceMarked attendance) {
+            touched.add(attendance.getStudentId());
+        } else if (event instanceof AssignmentGraded graded) {
+            touched.add(graded.getStudentId());
+        } else if (event instanceof AssignmentSubmitted submitted) {
+            touched.add(submitted.getStudentId());
+        } else if (event instanceof StudentEnrolled enrolled) {
+            touched.add(enrolled.getStudentId());
+        } else if (event instanceof StudentUnenrolled unenrolled) {
+            // drops students the manager no longer keeps on the heap
+            touched.add(unenrolled.getStudentId());
+        }
+    }
+
+    private void rebuild() {
+        // skip everything already published: the full scan below covers it
+        subscription.seek(DomainEventStream.getInstance().getLatestOffset() + 1);
+        knownOverruns = subscription.getOverruns();
+        touched.clear();
+        entries.clear();
+        for (TreeSet<RankedStudent> ranking : rankings.values()) {
+            ranking.clear();
+        }
+        for (Student student : allStudents.get()) {
+            insert(student);
+        }
+        built = true;
+        rebuilds++;
+    }
+
+    private void rescore(String studentId) {
+        RankedStudent[] previous = entries.remove(studentId);
+        if (previous != null) {
+            for (Metric metric : METRICS) {
+                rankings.get(metric).remove(previous[metric.ordinal()]);
+            }
+        }
+        Student student = studentLookup.apply(studentId);
+        if (student != null) {
+            insert(student);
+        }
+    }
+
+    private void insert(Student student) {
+        RankedStudent[] current = new RankedStudent[METRICS.length];
+        for (Metric metric : METRICS) {
+            RankedStudent entry = new RankedStudent(student.getStudentId(), metric.score(student));
+            current[metric.ordinal()] = entry;
+            rankings.get(metric).add(entry);
+        }
+        entries.put(student.getStudentId(), current);
+    }
+
+    private List<RankedStudent> scan(Metric metric, Comparator<RankedStudent> order, int k) {
+        return allStudents.get().stream()
+                .map(student -> new RankedStudent(student.getStudentId(), metric.score(student)))
+                .sorted(order)
+                .limit(Math.max(0, k))
+                .toList();
+    }
+
+    private static List<RankedStudent> take(Iterator<RankedStudent> iterator, int k) {
+        List<RankedStudent> result = new ArrayList<>(Math.max(0, Math.min(k, 1024)));
+        while (result.size() < k && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    /**
+     * A student's score on one metric at the time it was last re-scored
+     */
+    public static final class RankedStudent {
+        private final String studentId;
+        private final double score;
+
+        RankedStudent(String studentId, double score) {
+            this.studentId = studentId;
+            this.score = score;
+        }
+
+        public String getStudentId() { return studentId; }
+        public double getScore() { return score; }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Report Cache
+ *
+ * Caches rendered report strings keyed by entity and report type. Each entry
+ * remembers the entity version it was rendered from, so a report is served
+ * from cache until a mutator on the entity bumps its version.
+ */
+package com.virtualclassroom.cache;
+
+import com.virtualclassroom.entity.ClassroomSnapshot;
+import com.virtualclassroom.entity.Student;
+import com.virtualclassroom.enums.ReportType;
+import com.virtualclassroom.util.Logger;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+public class ReportCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+    private final Logger logger;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ReportCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public ReportCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Report cache size must be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        // access-ordered map gives LRU iteration order for eviction
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ReportCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.logger = Logger.getInstance();
+    }
+
+    // --- Typed accessors for the reports rendered by the entities ---
+
+    public String getClassroomStatistics(ClassroomSnapshot snapshot) {
+        return get(snapshot.getClassroomId(), ReportType.CLASSROOM_STATISTICS,
+                snapshot.getVersion(), snapshot::getClassroomStatistics);
+    }
+
+    public String getSubmissionAnalytics(ClassroomSnapshot snapshot) {
+        return get(snapshot.getClassroomId(), ReportType.SUBMISSION_ANALYTICS,
+                snapshot.getVersion(), snapshot::getSubmissionAnalytics);
+    }
+
+    /**
+     * As above; a render interrupted by an exception from the checkpoint is not cached
+     */
+    public String getSubmissionAnalytics(ClassroomSnapshot snapshot, IntConsumer checkpoint) {
+        return get(snapshot.getClassroomId(), ReportType.SUBMISSION_ANALYTICS,
+                snapshot.getVersion(), () -> snapshot.getSubmissionAnalytics(checkpoint));
+    }
+
+    public String getStudentProfile(Student student) {
+        return get(student.getStudentId(), ReportType.STUDENT_PROFILE,
+                student.getVersion(), student::getStudentProfile);
+    }
+
+    /**
+     * Return the cached report if it was rendered from the given version, otherwise render and cache it.
+     * Rendering runs outside the cache lock so a long report does not hold up other lookups.
+     */
+    public String get(String entityId, ReportType type, long version, Supplier<String> renderer) {
+        Key key = new Key(entityId, type);
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null && cached.version == version) {
+                hits++;
+                return cached.report;
+            }
+            misses++;
+        }
+        String report = renderer.get();
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            // never replace a report rendered from a newer version by a concurrent reader
+            if (cached == null || cached.version < version) {
+                entries.put(key, new Entry(version, report));
+            }
+        }
+        logger.debug("Report cache miss: " + type + " for " + entityId + " (version " + version + ")");
+        return report;
+    }
+
+    /**
+     * Drop every cached report of an entity, e.g. when the entity is removed
+     */
+    public synchronized void invalidate(String entityId) {
+        entries.keySet().removeIf(key -> key.entityId.equals(entityId));
+    }
+
+    /**
+     * Drop every cached report and reset the hit statistics
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public int getMaxEntries() { return maxEntries; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total * 100;
+    }
+
+    public synchronized String getStatistics() {
+        return String.format("Report cache: %d/%d entries | hits: %d | misses: %d | evictions: %d | hit rate: %.1f%%",
+                entries.size(), maxEntries, hits, misses, evictions, getHitRate());
+    }
+
+    private static final class Key {
+        private final String entityId;
+        private final ReportType type;
+
+        private Key(String entityId, ReportType type) {
+            this.entityId = entityId;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return type == other.type && entityId.equals(other.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityId, type);
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final String report;
+
+        private Entry(long version, String report) {
+            this.version = version;
+            this.report = report;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * Application Configuration
+ *
+ * Startup settings read once from an optional properties file and then from
+ * system properties, which win over the file. The file is named by
+ * -Dvcm.config=<path> and defaults to vcm.properties in the working
+ * directory; it is skipped when absent, and -Dvcm.config= (empty) skips it
+ * explicitly. Keys are the same in both sources
+ * (vcm.page.size=20 in the file, -Dvcm.page.size=20 on the command line).
+ */
+package com.virtualclassroom.config;
+
+import com.virtualclassroom.enums.CommandCost;
+import com.virtualclassroom.exception.ValidationException;
+import com.virtualclassroom.util.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+public final class AppConfig {
+
+    public static final String CONFIG_FILE_PROPERTY = "vcm.config";
+    public static final String DEFAULT_CONFIG_FILE = "vcm.properties";
+
+    private final Path source;
+    private final Logger.LogLevel logLevel;
+    private final int defaultClassroomCapacity;
+    private final int defaultPageSize;
+    private final int reportCacheEntries;
+    private final int eventBufferCapacity;
+    private final int sessionThreads;
+    private final int studentStoreCapacity;
+    private final int studentStoreClassrooms;
+    private final int studentStoreArenaMb;
+    private final String studentStoreDirectory;
+    private final String blobStoreDirectory;
+    private final String uploadDirectory;
+    private final String workloadRecordingFile;
+    private final String auditDirectory;
+    private final String dataset;
+    private final Integer serverPort;
+    private final String serverHost;
+    private final int warmUpIterations;
+    private final long reportTimeoutMillis;
+    private final int admissionRate;
+    private final int admissionBurst;
+    private final int admissionReports;
+    private final int admissionOverload;
+
+    private AppConfig(Properties properties, Path source) throws ValidationException {
+        this.source = source;
+        this.logLevel = parseLogLevel(getString(properties, "vcm.log.level", "INFO"));
+        this.defaultClassroomCapacity = getInt(properties, "vcm.classroom.capacity", 50, 1);
+        this.defaultPageSize = getInt(properties, "vcm.page.size", 10, 1);
+        this.reportCacheEntries = getInt(properties, "vcm.report.cache.entries", 1024, 1);
+        this.eventBufferCapacity = getInt(properties, "vcm.event.buffer.capacity", 1 << 16, 1);
+        if (Integer.bitCount(eventBufferCapacity) != 1) {
+            throw new ValidationException("vcm.event.buffer.capacity", String.valueOf(eventBufferCapacity), "must be a power of two");
+        }
+        this.sessionThreads = getInt(properties, "vcm.server.session.threads", 0, 0);
+        this.studentStoreCapacity = getInt(properties, "vcm.student.store.capacity", 1 << 22, 1);
+        this.studentStoreClassrooms = getInt(properties, "vcm.student.store.classrooms", 256, 1);
+        this.studentStoreArenaMb = getInt(properties, "vcm.student.store.arena.mb", 256, 1);
+        if (studentStoreArenaMb > 2047) {
+            throw new ValidationException("vcm.student.store.arena.mb", String.valueOf(studentStoreArenaMb), "must be below 2048");
+        }
+        this.studentStoreDirectory = getString(properties, "vcm.student.store", null);
+        this.blobStoreDirectory = getString(properties, "vcm.blob.store", null);
+        this.uploadDirectory = getString(properties, "vcm.upload.dir", null);
+        this.workloadRecordingFile = getString(properties, "vcm.workload.record", null);
+        this.auditDirectory = getString(properties, "vcm.audit.dir", null);
+        this.dataset = getString(properties, "vcm.dataset", null);
+        this.serverPort = getString(properties, "vcm.server.port", null) != null
+                ? getInt(properties, "vcm.server.port", 0, 0) : null;
+        this.serverHost = getString(properties, "vcm.server.host", null);
+        this.warmUpIterations = getInt(properties, "vcm.warmup.iterations", 0, 0);
+        this.reportTimeoutMillis = getInt(properties, "vcm.report.timeout.ms", 120_000, 0);
+        this.admissionRate = getInt(properties, "vcm.admission.rate", 0, 0);
+        this.admissionBurst = getInt(properties, "vcm.admission.burst", 40, CommandCost.REPORT.getTokens());
+        this.admissionReports = getInt(properties, "vcm.admission.reports", 2, 1);
+        this.admissionOverload = getInt(properties, "vcm.admission.overload", 32, 1);
+    }
+
+    /**
+     * Built-in defaults only; nothing is read from disk or system properties
+     */
+    public static AppConfig defaults() {
+        try {
+            return new AppConfig(new Properties(), null);
+        } catch (ValidationException e) {
+            throw new IllegalStateException("Built-in defaults are invalid", e);
+        }
+    }
+
+    /**
+     * Read the configuration file (if any) and overlay the vcm.* system properties
+     */
+    public static AppConfig load() throws ValidationException {
+        Properties properties = new Properties();
+        String configured = System.getProperty(CONFIG_FILE_PROPERTY);
+        Path file = Paths.get(configured != null ? configured : DEFAULT_CONFIG_FILE);
+        Path source = null;
+        if (configured != null && configured.isBlank()) {
+            file = null;
+        } else if (Files.isRegularFile(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+                source = file;
+            } catch (IOException e) {
+                throw new ValidationException("Could not read configuration file " + file + ": " + e.getMessage(), e);
+            }
+        } else if (configured != null) {
+            throw new ValidationException("Configuration file not found: " + file);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("vcm.")) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+        return new AppConfig(properties, source);
+    }
+
+    /**
+     * File the settings were read from, or null when only system properties applied
+     */
+    public Path getSource() { return source; }
+
+    public Logger.LogLevel getLogLevel() { return logLevel; }
+
+    // Command defaults
+    public int getDefaultClassroomCapacity() { return defaultClassroomCapacity; }
+    public int getDefaultPageSize() { return defaultPageSize; }
+
+    // Pools and caches
+    public int getReportCacheEntries() { return reportCacheEntries; }
+    public int getEventBufferCapacity() { return eventBufferCapacity; }
+    public int getStudentStoreCapacity() { return studentStoreCapacity; }
+
+    /**
+     * Sizing of a newly created student store; an existing store keeps the sizing it was created with
+     */
+    public int getStudentStoreClassrooms() { return studentStoreClassrooms; }
+    public int getStudentStoreArenaBytes() { return studentStoreArenaMb * 1024 * 1024; }
+
+    /**
+     * Upper bound on concurrently served console connections; 0 gives every connection its own thread
+     */
+    public int getSessionThreads() { return sessionThreads; }
+
+    // Persistence and integrations; null when disabled
+    public String getStudentStoreDirectory() { return studentStoreDirectory; }
+    public String getBlobStoreDirectory() { return blobStoreDirectory; }
+
+    /**
+     * Only directory submitted files are read from; when unset, only local sessions may submit files
+     */
+    public String getUploadDirectory() { return uploadDirectory; }
+    public String getWorkloadRecordingFile() { return workloadRecordingFile; }
+    public String getAuditDirectory() { return auditDirectory; }
+    public String getDataset() { return dataset; }
+    public Integer getServerPort() { return serverPort; }
+
+    /**
+     * Address the console server listens on; null for loopback only, since clients are not authenticated
+     */
+    public String getServerHost() { return serverHost; }
+
+    /**
+     * Rounds of representative commands run before accepting traffic; 0 skips warm-up
+     */
+    public int getWarmUpIterations() { return warmUpIterations; }
+
+    /**
+     * Deadline after which a running report stops at its next checkpoint; 0 lets reports run to completion
+     */
+    public long getReportTimeoutMillis() { return reportTimeoutMillis; }
+
+    /**
+     * Per-session command budget for console server clients, in tokens per second; 0 disables admission control
+     */
+    public int getAdmissionRate() { return admissionRate; }
+    public int getAdmissionBurst() { return admissionBurst; }
+    public int getAdmissionReports() { return admissionReports; }
+    public int getAdmissionOverload() { return admissionOverload; }
+
+    private static Logger.LogLevel parseLogLevel(String level) throws ValidationException {
+        try {
+            return Logger.LogLevel.valueOf(level.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("vcm.log.level", level, "expected DEBUG, INFO, WARN or ERROR");
+        }
+    }
+
+    private static String getString(Properties properties, String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue, int min) throws ValidationException {
+        String value = getString(properties, key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < min) {
+                throw new ValidationException(key, value, "must be at least " + min);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new ValidationException(key, value, "not a whole number");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AppConfig{source=%s, logLevel=%s, capacity=%d, pageSize=%d, reportCache=%d, eventBuffer=%d, sessionThreads=%d, warmUp=%d, admissionRate=%d}",
+                source != null ? source : "system properties", logLevel, defaultClassroomCapacity, defaultPageSize,
+                reportCacheEntries, eventBufferCapacity, sessionThreads, warmUpIterations, admissionRate);
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Startup Benchmark
+ *
+ * Launches the CLI repeatedly in fresh JVMs and measures, with and without an
+ * AppCDS archive, the time until the interactive prompt appears and the wall
+ * time of a single batch command. Child JVMs log at WARN so log output does
+ * not dominate short runs.
+ *
+ * Usage:
+ *   java com.virtualclassroom.config.StartupBenchmark <vcm.jar> [archive.jsa] [runs]
+ *
+ * Build the jar and archive with scripts/build-cds.sh first.
+ */
+package com.virtualclassroom.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class StartupBenchmark {
+
+    private static final byte[] PROMPT = "VCM > ".getBytes(StandardCharsets.UTF_8);
+    private static final String BATCH_COMMAND = "list_classrooms";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: StartupBenchmark <vcm.jar> [archive.jsa] [runs]");
+            return;
+        }
+        Path jar = Paths.get(args[0]);
+        Path archive = args.length > 1 ? Paths.get(args[1]) : null;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        if (archive != null && !Files.isRegularFile(archive)) {
+            throw new IllegalArgumentException("Archive not found: " + archive);
+        }
+
+        System.out.printf("Startup benchmark: %d runs per mode, %s%n%n", runs, Runtime.version());
+        System.out.printf("%-22s %14s %14s %14s%n", "mode", "median ms", "min ms", "max ms");
+        report("prompt, default CDS", measure(runs, () -> timeToPrompt(command(jar, null))));
+        report("batch, default CDS", measure(runs, () -> timeToExit(command(jar, null, "-c", BATCH_COMMAND))));
+        if (archive != null) {
+            report("prompt, AppCDS", measure(runs, () -> timeToPrompt(command(jar, archive))));
+            report("batch, AppCDS", measure(runs, () -> timeToExit(command(jar, archive, "-c", BATCH_COMMAND))));
+        }
+    }
+
+    private interface Run {
+        long nanos() throws IOException, InterruptedException;
+    }
+
+    private static long[] measure(int runs, Run run) throws IOException, InterruptedException {
+        run.nanos(); // discard the first launch: it warms the OS page cache for the JDK and jar
+        long[] samples = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            samples[i] = run.nanos();
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static void report(String mode, long[] sorted) {
+        System.out.printf("%-22s %14.1f %14.1f %14.1f%n", mode,
+                sorted[sorted.length / 2] / 1e6, sorted[0] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static List<String> command(Path jar, Path archive, String... appArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (archive != null) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.add("-Dvcm.log.level=WARN");
+        command.add("-Dvcm.config="); // a vcm.properties in the working directory must not change what is measured
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(Arrays.asList(appArgs));
+        return command;
+    }
+
+    /**
+     * Time from launch until the first prompt is written; the session is then exited
+     */
+    private static long timeToPrompt(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long elapsed;
+        try (InputStream out = process.getInputStream(); OutputStream in = process.getOutputStream()) {
+            if (!awaitPrompt(out)) {
+                throw new IOException("CLI exited before showing a prompt (exit " + process.waitFor() + ")");
+            }
+            elapsed = System.nanoTime() - start;
+            in.write("exit\n".getBytes(StandardCharsets.UTF_8));
+            in.flush();
+            out.transferTo(OutputStream.nullOutputStream());
+        }
+        process.waitFor();
+        return elapsed;
+    }
+
+    /**
+     * Wall time of a whole batch invocation, launch to exit
+     */
+    private static long timeToExit(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exit = process.waitFor();
+        long elapsed = System.nanoTime() - start;
+        if (exit != 0) {
+            throw new IOException("Batch command failed with exit status " + exit);
+        }
+        return elapsed;
+    }
+
+    private static boolean awaitPrompt(InputStream out) throws IOException {
+        int matched = 0;
+        int b;
+        while ((b = out.read()) != -1) {
+            matched = b == PROMPT[matched] ? matched + 1 : (b == PROMPT[0] ? 1 : 0);
+            if (matched == PROMPT.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Warm-Up
+ *
+ * Runs rounds of representative commands (enrollment, scheduling,
+ * submission, grading, attendance and the large listings) against a scratch
+ * classroom before the manager accepts traffic, so the hot command paths are
+ * JIT-compiled by the time the first real command arrives. Each round runs
+ * inside a command group that is rolled back, so the model, event stream,
+ * notifications and persistent stores are left exactly as they were; the
+ * reports cached from the scratch entities are dropped afterwards.
+ */
+package com.virtualclassroom.config;
+
+import com.virtualclassroom.manager.CommandSession;
+import com.virtualclassroom.manager.VirtualClassroomManager;
+import com.virtualclassroom.util.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class WarmUp {
+
+    private static final String CLASSROOM = "WarmUp-Scratch";
+    private static final int STUDENTS = 24;
+
+    private final VirtualClassroomManager manager;
+
+    public WarmUp(VirtualClassroomManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Run the given number of rounds
+     *
+     * @return the number of commands executed
+     */
+    public long run(int iterations) {
+        CommandSession session = CommandSession.discarding("warm-up");
+        Logger logger = Logger.getInstance();
+        Logger.LogLevel level = logger.getLogLevel();
+        logger.setLogLevel(Logger.LogLevel.WARN);
+        List<String> round = buildRound(scratchClassroom());
+        long executed = 0;
+        try {
+            for (int i = 0; i < iterations; i++) {
+                manager.executeCommand(session, "begin");
+                for (String command : round) {
+                    manager.executeCommand(session, command);
+                }
+                manager.executeCommand(session, "rollback");
+                executed += round.size() + 2;
+            }
+        } finally {
+            manager.endSession(session);
+            manager.clearReportCache();
+            logger.setLogLevel(level);
+        }
+        return executed;
+    }
+
+    /**
+     * A classroom name not taken by a preloaded classroom, so no warm-up command touches real data
+     */
+    private String scratchClassroom() {
+        String name = CLASSROOM;
+        for (int suffix = 2; manager.hasClassroom(name); suffix++) {
+            name = CLASSROOM + "-" + suffix;
+        }
+        return name;
+    }
+
+    private static List<String> buildRound(String classroom) {
+        List<String> commands = new ArrayList<>();
+        commands.add("add_classroom " + classroom + " Warmup " + STUDENTS);
+        commands.add("grading_policy " + classroom + " plus_minus shift:2");
+        commands.add("schedule_assignment " + classroom + " Essay Warmup 100 2099-12-31 Homework 2");
+        commands.add("schedule_assignment " + classroom + " Quiz Warmup 50 - Exams 1");
+        StringBuilder attendance = new StringBuilder("mark_attendance " + classroom);
+        for (int i = 1; i <= STUDENTS; i++) {
+            String studentId = String.format("WU%04d", i);
+            commands.add("add_student " + studentId + " Warm warm" + i + "@warmup.local " + classroom);
+            commands.add("submit_assignment " + studentId + " " + classroom + " Essay");
+            commands.add("grade_assignment " + classroom + " Essay " + studentId + " " + (50 + i * 2));
+            attendance.append(' ').append(studentId).append(i % 4 == 0 ? ":absent" : ":present");
+        }
+        commands.add(attendance.toString());
+        commands.add("list_students " + classroom);
+        commands.add("list_assignments " + classroom);
+        commands.add("view_attendance " + classroom);
+        commands.add("attendance_report " + classroom);
+        commands.add("final_grades " + classroom + " 10");
+        commands.add("classroom_details " + classroom);
+        commands.add("classroom_analytics " + classroom);
+        commands.add("student_profile WU0001");
+        commands.add("remove_student WU0002 " + classroom);
+        commands.add("list_classrooms");
+        return commands;
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Command File Sink
+ *
+ * Streams generated commands to a text file, one per line. The file can be
+ * piped into the console or replayed through the workload tools.
+ */
+package com.virtualclassroom.dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class CommandFileSink extends CommandSink {
+
+    private final BufferedWriter writer;
+
+    public CommandFileSink(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void emit(CharSequence command) throws IOException {
+        writer.append(command).append('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Command Sink
+ *
+ * Renders generated records as manager commands. Subclasses decide whether a
+ * command is written to a file or executed directly.
+ */
+package com.virtualclassroom.dataset;
+
+import java.io.IOException;
+
+public abstract class CommandSink implements DatasetSink {
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    protected abstract void emit(CharSequence command) throws IOException;
+
+    @Override
+    public void classroom(String name, String description, int capacity) throws IOException {
+        line.setLength(0);
+        line.append("add_classroom ").append(name).append(' ').append(description).append(' ').append(capacity);
+        emit(line);
+    }
+
+    @Override
+    public void enrollment(String studentId, String name, String email, String classroomName, boolean newStudent) throws IOException {
+        line.setLength(0);
+        line.append("add_student ").append(studentId).append(' ').append(name).append(' ').append(email)
+                .append(' ').append(classroomName);
+        emit(line);
+    }
+
+    @Override
+    public void assignment(String classroomName, String title, String description, int maxPoints) throws IOException {
+        line.setLength(0);
+        line.append("schedule_assignment ").append(classroomName).append(' ').append(title).append(' ')
+                .append(description).append(' ').append(maxPoints);
+        emit(line);
+    }
+
+    @Override
+    public void submission(String studentId, String classroomName, String title, String fileName) throws IOException {
+        line.setLength(0);
+        line.append("submit_assignment ").append(studentId).append(' ').append(classroomName).append(' ')
+                .append(title).append(' ').append(fileName);
+        emit(line);
+    }
+
+    @Override
+    public void grade(String classroomName, String title, String studentId, int points) throws IOException {
+        line.setLength(0);
+        line.append("grade_assignment ").append(classroomName).append(' ').append(title).append(' ')
+                .append(studentId).append(' ').append(points);
+        emit(line);
+    }
+
+    @Override
+    public void attendance(String classroomName, int session, String[] studentIds, boolean[] present, int count) throws IOException {
+        // absent is the default for every enrolled student, so only list who was present
+        line.setLength(0);
+        line.append("mark_attendance ").append(classroomName);
+        int listed = 0;
+        for (int i = 0; i < count; i++) {
+            if (present[i]) {
+                line.append(' ').append(studentIds[i]).append(":present");
+                listed++;
+            }
+        }
+        if (listed == 0 && count > 0) {
+            line.append(' ').append(studentIds[0]).append(":absent");
+        }
+        emit(line);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * CSV Sink
+ *
+ * Streams generated records into one CSV file per record type inside a
+ * directory: classrooms, students, enrollments, assignments, submissions,
+ * grades and attendance.
+ */
+package com.virtualclassroom.dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class CsvSink implements DatasetSink {
+
+    private final BufferedWriter classrooms;
+    private final BufferedWriter students;
+    private final BufferedWriter enrollments;
+    private final BufferedWriter assignments;
+    private final BufferedWriter submissions;
+    private final BufferedWriter grades;
+    private final BufferedWriter attendance;
+
+    public CsvSink(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.classrooms = open(directory, "classrooms.csv", "name,description,capacity");
+        this.students = open(directory, "students.csv", "student_id,name,email");
+        this.enrollments = open(directory, "enrollments.csv", "student_id,classroom");
+        this.assignments = open(directory, "assignments.csv", "classroom,title,description,max_points");
+        this.submissions = open(directory, "submissions.csv", "student_id,classroom,title,file_name");
+        this.grades = open(directory, "grades.csv", "classroom,title,student_id,points");
+        this.attendance = open(directory, "attendance.csv", "classroom,session,student_id,present");
+    }
+
+    private static BufferedWriter open(Path directory, String fileName, String header) throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(directory.resolve(fileName), StandardCharsets.UTF_8);
+        writer.write(header);
+        writer.write('\n');
+        return writer;
+    }
+
+    // Generated values never contain commas, quotes or line breaks, so no quoting is needed
+    @Override
+    public void classroom(String name, String description, int capacity) throws IOException {
+        classrooms.append(name).append(',').append(description).append(',').append(Integer.toString(capacity)).append('\n');
+    }
+
+    @Override
+    public void enrollment(String studentId, String name, String email, String classroomName, boolean newStudent) throws IOException {
+        if (newStudent) {
+            students.append(studentId).append(',').append(name).append(',').append(email).append('\n');
+        }
+        enrollments.append(studentId).append(',').append(classroomName).append('\n');
+    }
+
+    @Override
+    public void assignment(String classroomName, String title, String description, int maxPoints) throws IOException {
+        assignments.append(classroomName).append(',').append(title).append(',').append(description).append(',')
+                .append(Integer.toString(maxPoints)).append('\n');
+    }
+
+    @Override
+    public void submission(String studentId, String classroomName, String title, String fileName) throws IOException {
+        submissions.append(studentId).append(',').append(classroomName).append(',').append(title).append(',')
+                .append(fileName).append('\n');
+    }
+
+    @Override
+    public void grade(String classroomName, String title, String studentId, int points) throws IOException {
+        grades.append(classroomName).append(',').append(title).append(',').append(studentId).append(',')
+                .append(Integer.toString(points)).append('\n');
+    }
+
+    @Override
+    public void attendance(String classroomName, int session, String[] studentIds, boolean[] present, int count) throws IOException {
+        String sessionNumber = Integer.toString(session);
+        for (int i = 0; i < count; i++) {
+            attendance.append(classroomName).append(',').append(sessionNumber).append(',').append(studentIds[i])
+                    .append(',').append(present[i] ? "1" : "0").append('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (BufferedWriter writer : new BufferedWriter[]{classrooms, students, enrollments, assignments, submissions, grades, attendance}) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Dataset Generator
+ *
+ * Deterministic, seeded generator for large synthetic institutions: classrooms
+ * with varied capacities, students with valid IDs and emails, enrollments that
+ * never exceed a classroom's capacity, assignments, submissions, grades and
+ * attendance sessions.
+ *
+ * Records are streamed classroom by classroom into a {@link DatasetSink}.
+ * Per-student attributes are pure functions of the seed and the student
+ * index, so the generator holds only one classroom's roster plus one bit per
+ * student and scales to tens of millions of records.
+ *
+ * Usage:
+ *   java com.virtualclassroom.dataset.DatasetGenerator <commands|csv> <output> [classrooms] [students] [seed]
+ */
+package com.virtualclassroom.dataset;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.Random;
+
+public class DatasetGenerator {
+
+    private static final int MAX_STUDENTS = 26 * 26 * 1_000_000; // two letters + six digits
+    private static final int ID_LETTER_OFFSET = ('S' - 'A') * 26 + ('T' - 'A'); // first IDs start at ST000000
+
+    private static final String[] SUBJECTS = {
+            "Math", "Physics", "Chemistry", "Biology", "History", "Literature", "Economics", "Art"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Bruno", "Chen", "Divya", "Elena", "Farid", "Grace", "Hiro",
+            "Ines", "Jonas", "Kofi", "Lena", "Mateo", "Nora", "Omar", "Priya"
+    };
+    private static final String[] LAST_NAMES = {
+            "Adams", "Baker", "Costa", "Dubois", "Evans", "Fischer", "Garcia", "Hansen",
+            "Ito", "Jensen", "Kim", "Lopez", "Muller", "Nowak", "Okafor", "Patel"
+    };
+
+    private final long seed;
+    private final int classroomCount;
+    private final int studentCount;
+    private final int minCapacity;
+    private final int maxCapacity;
+    private final double minFillRatio;
+    private final int assignmentsPerClassroom;
+    private final double submissionRate;
+    private final double gradedRate;
+    private final int attendanceSessions;
+
+    // Counters of the last generate() run
+    private long classroomRecords;
+    private long studentRecords;
+    private long enrollmentRecords;
+    private long assignmentRecords;
+    private long submissionRecords;
+    private long gradeRecords;
+    private long attendanceRecords;
+
+    private DatasetGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.classroomCount = builder.classroomCount;
+        this.studentCount = builder.studentCount;
+        this.minCapacity = builder.minCapacity;
+        this.maxCapacity = builder.maxCapacity;
+        this.minFillRatio = builder.minFillRatio;
+        this.assignmentsPerClassroom = builder.assignmentsPerClassroom;
+        this.submissionRate = builder.submissionRate;
+        this.gradedRate = builder.gradedRate;
+        this.attendanceSessions = builder.attendanceSessions;
+    }
+
+    /**
+     * Stream the whole dataset into the sink; the sink is not closed
+     */
+    public void generate(DatasetSink sink) throws IOException {
+        classroomRecords = studentRecords = enrollmentRecords = assignmentRecords = 0;
+        submissionRecords = gradeRecords = attendanceRecords = 0;
+
+        BitSet created = new BitSet(studentCount);
+        long step = coprimeStep(studentCount);
+        String[] roster = new String[maxCapacity];
+        int[] rosterIndex = new int[maxCapacity];
+        boolean[] present = new boolean[maxCapacity];
+
+        for (int c = 0; c < classroomCount; c++) {
+            Random random = new Random(mix(seed, c));
+            String classroomName = classroomName(c);
+            int capacity = minCapacity + random.nextInt(maxCapacity - minCapacity + 1);
+            sink.classroom(classroomName, SUBJECTS[c % SUBJECTS.length] + "Course", capacity);
+            classroomRecords++;
+
+            // walk the student index space with a stride coprime to its size: distinct students, no lookup table
+            double fill = minFillRatio + (1 - minFillRatio) * random.nextDouble();
+            int enrolled = (int) Math.min(studentCount, Math.max(1, Math.round(capacity * fill)));
+            long start = (long) (random.nextDouble() * studentCount);
+            for (int s = 0; s < enrolled; s++) {
+                int index = (int) ((start + s * step) % studentCount);
+                String studentId = studentId(index);
+                boolean newStudent = !created.get(index);
+                created.set(index);
+                String first = FIRST_NAMES[(int) (mix(seed, index) & 15)];
+                String last = LAST_NAMES[(int) (mix(seed, index) >>> 4 & 15)];
+                sink.enrollment(studentId, first + last, first.toLowerCase() + "." + studentId.toLowerCase() + "@school.edu",
+                        classroomName, newStudent);
+                if (newStudent) studentRecords++;
+                enrollmentRecords++;
+                roster[s] = studentId;
+                rosterIndex[s] = index;
+            }
+
+            for (int a = 0; a < assignmentsPerClassroom; a++) {
+                String title = "HW" + (a + 1);
+                sink.assignment(classroomName, title, "Synthetic", 100);
+                assignmentRecords++;
+                for (int s = 0; s < enrolled; s++) {
+                    if (random.nextDouble() >= submissionRate) continue;
+                    sink.submission(roster[s], classroomName, title, roster[s] + "_" + title + ".pdf");
+                    submissionRecords++;
+                    if (random.nextDouble() < gradedRate) {
+                        double mean = ability(rosterIndex[s]);
+                        int points = (int) Math.max(0, Math.min(100, Math.round(mean + random.nextGaussian() * 10)));
+                        sink.grade(classroomName, title, roster[s], points);
+                        gradeRecords++;
+                    }
+                }
+            }
+
+            for (int session = 1; session <= attendanceSessions; session++) {
+                for (int s = 0; s < enrolled; s++) {
+                    present[s] = random.nextDouble() < attendancePropensity(rosterIndex[s]);
+                }
+                sink.attendance(classroomName, session, roster, present, enrolled);
+                attendanceRecords += enrolled;
+            }
+        }
+    }
+
+    public long getRecordCount() {
+        return classroomRecords + studentRecords + enrollmentRecords + assignmentRecords
+                + submissionRecords + gradeRecords + attendanceRecords;
+    }
+
+    public String getSummary() {
+        return String.format("Classrooms: %,d | Students: %,d | Enrollments: %,d | Assignments: %,d | " +
+                        "Submissions: %,d | Grades: %,d | Attendance: %,d | Total: %,d records",
+                classroomRecords, studentRecords, enrollmentRecords, assignmentRecords,
+                submissionRecords, gradeRecords, attendanceRecords, getRecordCount());
+    }
+
+    // --- Deterministic per-entity attributes ---
+
+    static String classroomName(int classroom) {
+        return SUBJECTS[classroom % SUBJECTS.length] + String.format("%06d", classroom);
+    }
+
+    static String studentId(int index) {
+        int letters = (ID_LETTER_OFFSET + index / 1_000_000) % (26 * 26);
+        char[] id = new char[8];
+        id[0] = (char) ('A' + letters / 26);
+        id[1] = (char) ('A' + letters % 26);
+        int digits = index % 1_000_000;
+        for (int i = 7; i >= 2; i--) {
+            id[i] = (char) ('0' + digits % 10);
+            digits /= 10;
+        }
+        return new String(id);
+    }
+
+    private double ability(int index) {
+        return 55 + (mix(seed + 1, index) >>> 11) * 0x1.0p-53 * 40;
+    }
+
+    private double attendancePropensity(int index) {
+        return 0.55 + (mix(seed + 2, index) >>> 11) * 0x1.0p-53 * 0.45;
+    }
+
+    private static long mix(long seed, long value) {
+        long h = seed * 0x9E3779B97F4A7C15L + value;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    private static long coprimeStep(int size) {
+        long step = Math.max(1, (long) (size * 0.6180339887)) | 1;
+        while (gcd(step, size) != 1) {
+            step += 2;
+        }
+        return step;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    public static class Builder {
+        private long seed = 42;
+        private int classroomCount = 100;
+        private int studentCount = 2_000;
+        private int minCapacity = 20;
+        private int maxCapacity = 60;
+        private double minFillRatio = 0.7;
+        private int assignmentsPerClassroom = 5;
+        private double submissionRate = 0.9;
+        private double gradedRate = 0.85;
+        private int attendanceSessions = 10;
+
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder setClassroomCount(int classroomCount) {
+            this.classroomCount = classroomCount;
+            return this;
+        }
+
+        public Builder setStudentCount(int studentCount) {
+            this.studentCount = studentCount;
+            return this;
+        }
+
+        public Builder setCapacityRange(int minCapacity, int maxCapacity) {
+            this.minCapacity = minCapacity;
+            this.maxCapacity = maxCapacity;
+            return this;
+        }
+
+        public Builder setMinFillRatio(double minFillRatio) {
+            this.minFillRatio = minFillRatio;
+            return this;
+        }
+
+        public Builder setAssignmentsPerClassroom(int assignmentsPerClassroom) {
+            this.assignmentsPerClassroom = assignmentsPerClassroom;
+            return this;
+        }
+
+        public Builder setSubmissionRate(double submissionRate) {
+            this.submissionRate = submissionRate;
+            return this;
+        }
+
+        public Builder setGradedRate(double gradedRate) {
+            this.gradedRate = gradedRate;
+            return this;
+        }
+
+        public Builder setAttendanceSessions(int attendanceSessions) {
+            this.attendanceSessions = attendanceSessions;
+            return this;
+        }
+
+        public DatasetGenerator build() {
+            if (classroomCount <= 0 || studentCount <= 0) {
+                throw new IllegalArgumentException("Classroom and student counts must be greater than 0");
+            }
+            if (studentCount > MAX_STUDENTS) {
+                throw new IllegalArgumentException("At most " + MAX_STUDENTS + " students fit the student ID format");
+            }
+            if (minCapacity <= 0 || maxCapacity < minCapacity) {
+                throw new IllegalArgumentException("Invalid capacity range: " + minCapacity + "-" + maxCapacity);
+            }
+            if (minFillRatio < 0 || minFillRatio > 1) {
+                throw new IllegalArgumentException("Fill ratio must be between 0 and 1");
+            }
+            return new DatasetGenerator(this);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: DatasetGenerator <commands|csv> <output> [classrooms] [students] [seed]");
+            return;
+        }
+        DatasetGenerator generator = new Builder()
+                .setClassroomCount(args.length > 2 ? Integer.parseInt(args[2]) : 100)
+                .setStudentCount(args.length > 3 ? Integer.parseInt(args[3]) : 2_000)
+                .setSeed(args.length > 4 ? Long.parseLong(args[4]) : 42)
+                .build();
+        long startTime = System.nanoTime();
+        try (DatasetSink sink = switch (args[0].toLowerCase()) {
+            case "commands" -> new CommandFileSink(Paths.get(args[1]));
+            case "csv" -> new CsvSink(Paths.get(args[1]));
+            default -> throw new IllegalArgumentException("Unknown output format: " + args[0]);
+        }) {
+            generator.generate(sink);
+        }
+        System.out.println(generator.getSummary());
+        System.out.printf("Generated in %.2f s%n", (System.nanoTime() - startTime) / 1e9);
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Dataset Sink
+ *
+ * Receives generated records one at a time, in dependency order (a classroom
+ * before its enrollments, an assignment before its submissions). Sinks must
+ * not buffer whole datasets so generation scales with disk, not heap.
+ */
+package com.virtualclassroom.dataset;
+
+import java.io.IOException;
+
+public interface DatasetSink extends AutoCloseable {
+
+    void classroom(String name, String description, int capacity) throws IOException;
+
+    /**
+     * @param newStudent true on the student's first enrollment in the dataset
+     */
+    void enrollment(String studentId, String name, String email, String classroomName, boolean newStudent) throws IOException;
+
+    void assignment(String classroomName, String title, String description, int maxPoints) throws IOException;
+
+    void submission(String studentId, String classroomName, String title, String fileName) throws IOException;
+
+    void grade(String classroomName, String title, String studentId, int points) throws IOException;
+
+    /**
+     * One attendance session; only the first count entries of the arrays are valid
+     */
+    void attendance(String classroomName, int session, String[] studentIds, boolean[] present, int count) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
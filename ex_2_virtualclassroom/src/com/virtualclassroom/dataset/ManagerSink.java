@@ -0,0 +1,54 @@
+/**
+ * Manager Sink
+ *
+ * Loads generated records straight into a running manager through a headless
+ * command session, so the in-memory model goes through the same validation
+ * as typed commands. Records are applied in command groups of BATCH_SIZE so
+ * the persistence layer syncs once per group rather than once per record.
+ */
+package com.virtualclassroom.dataset;
+
+import com.virtualclassroom.manager.CommandSession;
+import com.virtualclassroom.manager.VirtualClassroomManager;
+
+public class ManagerSink extends CommandSink {
+
+    private static final int BATCH_SIZE = 4096;
+
+    private final VirtualClassroomManager manager;
+    private final CommandSession session;
+    private long failedCount;
+    private int batched;
+
+    public ManagerSink(VirtualClassroomManager manager) {
+        this.manager = manager;
+        this.session = CommandSession.discarding("dataset-loader");
+    }
+
+    public long getFailedCount() { return failedCount; }
+
+    @Override
+    protected void emit(CharSequence command) {
+        if (batched == 0) {
+            manager.executeCommand(session, "begin");
+        }
+        if (!manager.executeCommand(session, command.toString())) {
+            failedCount++;
+        }
+        if (++batched == BATCH_SIZE) {
+            commitBatch();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (batched > 0) {
+            commitBatch();
+        }
+    }
+
+    private void commitBatch() {
+        manager.executeCommand(session, "commit");
+        batched = 0;
+    }
+}
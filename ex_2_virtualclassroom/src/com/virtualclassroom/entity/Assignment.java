@@ -10,23 +10,53 @@ import com.virtualclassroom.util.Logger;
 import com.virtualclassroom.util.ValidationHelper;
 import com.virtualclassroom.exception.ValidationException;
 import com.virtualclassroom.enums.AssignmentStatus;
+import com.virtualclassroom.event.AssignmentGraded;
+import com.virtualclassroom.event.AssignmentOverdue;
+import com.virtualclassroom.event.AssignmentSubmitted;
+import com.virtualclassroom.event.DomainEventStream;
+import com.virtualclassroom.grading.FinalGradeEngine;
+import com.virtualclassroom.grading.GradingPolicy;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjDoubleConsumer;
 
 public class Assignment {
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    public static final String DEFAULT_CATEGORY = "General";
+
     private final String assignmentId;
     private final String title;
     private final String description;
     private final int maxPoints;
     private final String gradingRubric;
+    private final LocalDateTime dueDate;
+    private final String category;
+    private final double weight;
 
     // Submission related fields (multi-student)
     private final Set<String> submittedStudentIds;
     private final Map<String, List<String>> submittedFiles;
+    private final Map<String, List<String>> submittedBlobIds; // studentId -> content hashes in the blob store
     private final Map<String, Double> grades;
     private final Map<String, String> feedbacks;
-    private AssignmentStatus status;
+    private long version;
+
+    // Per-student status: one byte per classroom student slot holding (status ordinal + 1), 0 = not tracked
+    private static final AssignmentStatus[] STATUSES = AssignmentStatus.values();
+    private String classroomId;
+    private StudentSlotIndex studentSlots;
+    private byte[] studentStatus;
+    private final int[] statusCounts;
+    private int trackedStudents;
 
+    // Letter earned per student slot under the classroom's grading policy: (letter index + 1), 0 = not graded
+    private GradingPolicy gradingPolicy;
+    private byte[] letterCodes;
+    private FinalGradeEngine finalGrades;
+
+    private AssignmentSnapshot snapshot; // latest snapshot, reused until the version changes
     private final Logger logger;
 
     private Assignment(Builder builder) {
@@ -35,11 +65,18 @@ public class Assignment {
         this.description = builder.description;
         this.maxPoints = builder.maxPoints;
         this.gradingRubric = builder.gradingRubric;
-        this.status = AssignmentStatus.SCHEDULED;
+        this.dueDate = builder.dueDate;
+        this.category = builder.category;
+        this.weight = builder.weight;
         this.submittedStudentIds = new HashSet<>();
         this.submittedFiles = new HashMap<>();
+        this.submittedBlobIds = new HashMap<>();
         this.grades = new HashMap<>();
         this.feedbacks = new HashMap<>();
+        this.studentStatus = new byte[0];
+        this.gradingPolicy = GradingPolicy.standard();
+        this.letterCodes = new byte[0];
+        this.statusCounts = new int[STATUSES.length];
         this.logger = Logger.getInstance();
         logger.info("Assignment created: " + assignmentId + " - " + title);
     }
@@ -49,11 +86,17 @@ public class Assignment {
         private String description;
         private int maxPoints = 100;
         private String gradingRubric = "Standard grading rubric";
+        private LocalDateTime dueDate;
+        private String category = DEFAULT_CATEGORY;
+        private double weight = 1.0;
 
         public Builder setTitle(String title) { this.title = title; return this; }
         public Builder setDescription(String description) { this.description = description; return this; }
         public Builder setMaxPoints(int maxPoints) { this.maxPoints = maxPoints; return this; }
         public Builder setGradingRubric(String gradingRubric) { this.gradingRubric = gradingRubric; return this; }
+        public Builder setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; return this; }
+        public Builder setCategory(String category) { this.category = category; return this; }
+        public Builder setWeight(double weight) { this.weight = weight; return this; }
 
         public Assignment build() throws ValidationException {
             validateBuilder();
@@ -64,6 +107,9 @@ public class Assignment {
             if (!ValidationHelper.isValidTitle(title)) throw new ValidationException("Invalid assignment title: " + title);
             if (ValidationHelper.isNullOrEmpty(description)) throw new ValidationException("Assignment description cannot be empty");
             if (maxPoints <= 0) throw new ValidationException("Max points must be greater than 0");
+            if (dueDate != null && dueDate.isBefore(LocalDateTime.now())) throw new ValidationException("Due date must be in the future: " + dueDate);
+            if (ValidationHelper.isNullOrEmpty(category)) throw new ValidationException("Assignment category cannot be empty");
+            if (!(weight > 0) || Double.isInfinite(weight)) throw new ValidationException("Assignment weight must be greater than 0: " + weight);
         }
     }
 
@@ -73,12 +119,181 @@ public class Assignment {
     public String getDescription() { return description; }
     public int getMaxPoints() { return maxPoints; }
     public String getGradingRubric() { return gradingRubric; }
-    public AssignmentStatus getStatus() { return status; }
+    public LocalDateTime getDueDate() { return dueDate; }
+    public boolean hasDueDate() { return dueDate != null; }
+    public String getCategory() { return category; }
+    public double getWeight() { return weight; }
+    public long getVersion() { return version; }
     public Set<String> getSubmittedStudentIds() { return new HashSet<>(submittedStudentIds); }
     public Map<String, List<String>> getSubmittedFiles() { return new HashMap<>(submittedFiles); }
+    public Map<String, List<String>> getSubmittedBlobIds() { return new HashMap<>(submittedBlobIds); }
     public Map<String, Double> getGrades() { return new HashMap<>(grades); }
     public Map<String, String> getFeedbacks() { return new HashMap<>(feedbacks); }
 
+    // --- Per-Student Status ---
+
+    /**
+     * Overall status derived from the per-student counts: GRADED once every
+     * tracked student is graded, SUBMITTED while any work is in, otherwise
+     * OVERDUE or SCHEDULED.
+     */
+    public AssignmentStatus getStatus() {
+        return deriveStatus(statusCounts, trackedStudents);
+    }
+
+    static AssignmentStatus deriveStatus(int[] statusCounts, int trackedStudents) {
+        if (trackedStudents > 0 && statusCounts[AssignmentStatus.GRADED.ordinal()] == trackedStudents) {
+            return AssignmentStatus.GRADED;
+        }
+        if (statusCounts[AssignmentStatus.SUBMITTED.ordinal()] + statusCounts[AssignmentStatus.GRADED.ordinal()] > 0) {
+            return AssignmentStatus.SUBMITTED;
+        }
+        if (statusCounts[AssignmentStatus.OVERDUE.ordinal()] > 0) {
+            return AssignmentStatus.OVERDUE;
+        }
+        return AssignmentStatus.SCHEDULED;
+    }
+
+    /**
+     * Status of one student, or null if the student is not enrolled in the assignment's classroom
+     */
+    public AssignmentStatus getStatus(String studentId) {
+        int slot = studentSlots == null ? -1 : studentSlots.slotOf(studentId);
+        if (slot < 0 || slot >= studentStatus.length || studentStatus[slot] == 0) return null;
+        return STATUSES[studentStatus[slot] - 1];
+    }
+
+    public int getStatusCount(AssignmentStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    public int getTrackedStudentCount() {
+        return trackedStudents;
+    }
+
+    /**
+     * Students currently in the given status, found with one pass over the status array
+     */
+    public List<String> getStudentIdsWithStatus(AssignmentStatus status) {
+        List<String> studentIds = new ArrayList<>(statusCounts[status.ordinal()]);
+        if (studentSlots == null) return studentIds;
+        byte code = (byte) (status.ordinal() + 1);
+        for (int slot = 0; slot < studentStatus.length; slot++) {
+            if (studentStatus[slot] == code) {
+                studentIds.add(studentSlots.studentAt(slot));
+            }
+        }
+        return studentIds;
+    }
+
+    void attach(String classroomId, StudentSlotIndex slots, GradingPolicy policy, FinalGradeEngine engine) throws ValidationException {
+        if (studentSlots != null && studentSlots != slots) {
+            throw new ValidationException("Assignment already scheduled in another classroom: " + title);
+        }
+        this.classroomId = classroomId;
+        this.studentSlots = slots;
+        this.gradingPolicy = policy;
+        this.finalGrades = engine;
+    }
+
+    /**
+     * Undo of attach: forget the classroom and every per-student status
+     */
+    void detach() {
+        untrackAll();
+        this.classroomId = null;
+        this.studentSlots = null;
+        this.gradingPolicy = GradingPolicy.standard();
+        this.finalGrades = null;
+    }
+
+    /**
+     * Switch to a new grading policy and re-letter every graded student in one pass
+     */
+    void applyGradingPolicy(GradingPolicy policy) {
+        this.gradingPolicy = policy;
+        for (int slot = 0; slot < letterCodes.length; slot++) {
+            if (letterCodes[slot] != 0) {
+                letterCodes[slot] = letterCode(studentSlots.studentAt(slot));
+            }
+        }
+        version++;
+    }
+
+    public GradingPolicy getGradingPolicy() { return gradingPolicy; }
+
+    private byte letterCode(String studentId) {
+        return (byte) (gradingPolicy.letterIndex(getGradePercentage(studentId)) + 1);
+    }
+
+    /**
+     * ID of the classroom the assignment is scheduled in, or null before scheduling
+     */
+    public String getClassroomId() { return classroomId; }
+
+    void trackStudent(int slot, String studentId) {
+        if (slot >= studentStatus.length) {
+            int capacity = Math.max(slot + 1, studentStatus.length * 2);
+            studentStatus = Arrays.copyOf(studentStatus, capacity);
+            letterCodes = Arrays.copyOf(letterCodes, capacity);
+        }
+        if (studentStatus[slot] != 0) return;
+        letterCodes[slot] = 0;
+        if (grades.containsKey(studentId)) {
+            letterCodes[slot] = letterCode(studentId);
+            finalGrades.recordGrade(studentId, category, weight, Double.NaN, getGradePercentage(studentId));
+        }
+        AssignmentStatus initial = grades.containsKey(studentId) ? AssignmentStatus.GRADED
+                : submittedStudentIds.contains(studentId) ? AssignmentStatus.SUBMITTED
+                : AssignmentStatus.SCHEDULED;
+        studentStatus[slot] = (byte) (initial.ordinal() + 1);
+        statusCounts[initial.ordinal()]++;
+        trackedStudents++;
+        version++;
+    }
+
+    void untrackStudent(int slot) {
+        if (slot < 0 || slot >= studentStatus.length || studentStatus[slot] == 0) return;
+        statusCounts[studentStatus[slot] - 1]--;
+        studentStatus[slot] = 0;
+        letterCodes[slot] = 0;
+        trackedStudents--;
+        version++;
+    }
+
+    void untrackAll() {
+        Arrays.fill(studentStatus, (byte) 0);
+        Arrays.fill(letterCodes, (byte) 0);
+        Arrays.fill(statusCounts, 0);
+        trackedStudents = 0;
+        version++;
+    }
+
+    private int requireSlot(String studentId) throws ValidationException {
+        if (studentSlots == null) throw new ValidationException("Assignment is not scheduled in a classroom: " + title);
+        int slot = studentSlots.slotOf(studentId);
+        if (slot < 0 || slot >= studentStatus.length || studentStatus[slot] == 0) {
+            throw new ValidationException("Student is not enrolled for this assignment: " + studentId);
+        }
+        return slot;
+    }
+
+    private void transition(int slot, AssignmentStatus next) {
+        statusCounts[studentStatus[slot] - 1]--;
+        studentStatus[slot] = (byte) (next.ordinal() + 1);
+        statusCounts[next.ordinal()]++;
+    }
+
+    /**
+     * Put a tracked student back into an earlier status; used when undoing
+     */
+    void restoreStatus(String studentId, AssignmentStatus status) {
+        int slot = studentSlots == null ? -1 : studentSlots.slotOf(studentId);
+        if (status == null || slot < 0 || slot >= studentStatus.length || studentStatus[slot] == 0) return;
+        transition(slot, status);
+        version++;
+    }
+
     // --- Core Logic Methods ---
 
     /**
@@ -86,8 +301,18 @@ public class Assignment {
      */
     public void markAsSubmitted(String studentId) throws ValidationException {
         ValidationHelper.validateNotNullOrEmpty(studentId, "Student ID");
-        submittedStudentIds.add(studentId);
-        status = AssignmentStatus.SUBMITTED;
+        int slot = requireSlot(studentId);
+        AssignmentStatus previousStatus = STATUSES[studentStatus[slot] - 1];
+        boolean added = submittedStudentIds.add(studentId);
+        if (!grades.containsKey(studentId)) {
+            transition(slot, AssignmentStatus.SUBMITTED);
+        }
+        version++;
+        UndoLog.record(() -> {
+            if (added) submittedStudentIds.remove(studentId);
+            restoreStatus(studentId, previousStatus);
+        });
+        DomainEventStream.getInstance().publish(new AssignmentSubmitted(classroomId, assignmentId, studentId));
         logger.info("Assignment " + assignmentId + " marked as submitted by " + studentId);
     }
 
@@ -99,9 +324,60 @@ public class Assignment {
             throw new ValidationException("File already submitted: " + fileName);
         }
         submittedFiles.get(studentId).add(fileName);
+        version++;
+        UndoLog.record(() -> {
+            List<String> files = submittedFiles.get(studentId);
+            files.remove(files.size() - 1);
+            if (files.isEmpty()) submittedFiles.remove(studentId);
+            version++;
+        });
         logger.info("File added to assignment " + assignmentId + ": " + fileName + " by " + studentId);
     }
 
+    /**
+     * Adds a submitted file whose content is kept in the blob store under blobId
+     */
+    public void addSubmittedFile(String studentId, String fileName, String blobId) throws ValidationException {
+        ValidationHelper.validateNotNullOrEmpty(blobId, "Blob ID");
+        addSubmittedFile(studentId, fileName);
+        List<String> blobIds = submittedBlobIds.computeIfAbsent(studentId, k -> new ArrayList<>());
+        blobIds.add(blobId);
+        UndoLog.record(() -> {
+            blobIds.remove(blobIds.size() - 1);
+            if (blobIds.isEmpty()) submittedBlobIds.remove(studentId);
+        });
+    }
+
+    public int getSubmissionCount() {
+        return submittedStudentIds.size();
+    }
+
+    /**
+     * Visit every recorded grade without copying the grade map
+     */
+    public void forEachGrade(ObjDoubleConsumer<String> visitor) {
+        grades.forEach(visitor::accept);
+    }
+
+    /**
+     * Records that a student missed the due date; called by the deadline scheduler.
+     */
+    public void markOverdue(String studentId) throws ValidationException {
+        ValidationHelper.validateNotNullOrEmpty(studentId, "Student ID");
+        if (hasSubmitted(studentId)) throw new ValidationException("Student already submitted: " + studentId);
+        int slot = requireSlot(studentId);
+        AssignmentStatus previousStatus = STATUSES[studentStatus[slot] - 1];
+        transition(slot, AssignmentStatus.OVERDUE);
+        version++;
+        UndoLog.record(() -> restoreStatus(studentId, previousStatus));
+        DomainEventStream.getInstance().publish(new AssignmentOverdue(classroomId, assignmentId, studentId));
+        logger.info("Assignment " + assignmentId + " overdue for " + studentId);
+    }
+
+    public boolean isOverdue(String studentId) {
+        return getStatus(studentId) == AssignmentStatus.OVERDUE;
+    }
+
     public boolean hasSubmitted(String studentId) {
         return submittedStudentIds.contains(studentId);
     }
@@ -109,20 +385,62 @@ public class Assignment {
     public void gradeAssignment(String studentId, double points, String feedback) throws ValidationException {
         if (!hasSubmitted(studentId)) throw new ValidationException("Student has not submitted this assignment");
         if (points < 0 || points > maxPoints) throw new ValidationException("Grade must be between 0 and " + maxPoints);
-        grades.put(studentId, points);
-        feedbacks.put(studentId, feedback != null ? feedback : "No feedback provided");
-        status = AssignmentStatus.GRADED;
+        int slot = requireSlot(studentId);
+        double previousPercentage = grades.containsKey(studentId) ? getGradePercentage(studentId) : Double.NaN;
+        AssignmentStatus previousStatus = STATUSES[studentStatus[slot] - 1];
+        Double previousPoints = grades.put(studentId, points);
+        String previousFeedback = feedbacks.put(studentId, feedback != null ? feedback : "No feedback provided");
+        transition(slot, AssignmentStatus.GRADED);
+        letterCodes[slot] = letterCode(studentId);
+        double percentage = getGradePercentage(studentId);
+        finalGrades.recordGrade(studentId, category, weight, previousPercentage, percentage);
+        version++;
+        UndoLog.record(() -> undoGrade(studentId, previousPoints, previousFeedback, previousStatus, percentage));
+        DomainEventStream.getInstance().publish(new AssignmentGraded(classroomId, assignmentId, studentId, points, maxPoints,
+                previousPoints != null ? previousPoints : Double.NaN));
         logger.info("Assignment " + assignmentId + " graded for " + studentId + ": " + points + "/" + maxPoints);
     }
 
+    private void undoGrade(String studentId, Double previousPoints, String previousFeedback,
+                           AssignmentStatus previousStatus, double gradedPercentage) {
+        int slot = studentSlots.slotOf(studentId);
+        if (previousPoints == null) {
+            grades.remove(studentId);
+            feedbacks.remove(studentId);
+            finalGrades.removeGrade(studentId, category, weight, gradedPercentage);
+        } else {
+            grades.put(studentId, previousPoints);
+            feedbacks.put(studentId, previousFeedback);
+            finalGrades.recordGrade(studentId, category, weight, gradedPercentage, getGradePercentage(studentId));
+        }
+        if (slot >= 0 && slot < letterCodes.length) {
+            letterCodes[slot] = previousPoints == null ? 0 : letterCode(studentId);
+        }
+        restoreStatus(studentId, previousStatus);
+        version++;
+    }
+
     public double getGradePercentage(String studentId) {
         Double grade = grades.get(studentId);
         if (grade == null || maxPoints == 0) return 0.0;
         return (grade / maxPoints) * 100;
     }
 
+    /**
+     * Letter stored when the student was graded, under the classroom's grading policy
+     */
     public String getLetterGrade(String studentId) {
-        double percentage = getGradePercentage(studentId);
+        int slot = studentSlots == null ? -1 : studentSlots.slotOf(studentId);
+        if (slot >= 0 && slot < letterCodes.length && letterCodes[slot] != 0) {
+            return gradingPolicy.letterAt(letterCodes[slot] - 1);
+        }
+        return gradingPolicy.letterGrade(getGradePercentage(studentId));
+    }
+
+    /**
+     * Letter on the standard 90/80/70/60 scale, used where classrooms are compared with each other
+     */
+    public static String toLetterGrade(double percentage) {
         if (percentage >= 90) return "A";
         if (percentage >= 80) return "B";
         if (percentage >= 70) return "C";
@@ -130,6 +448,10 @@ public class Assignment {
         return "F";
     }
 
+    public boolean isGraded(String studentId) {
+        return grades.containsKey(studentId);
+    }
+
     public List<String> getGradedStudentIds() {
         return new ArrayList<>(grades.keySet());
     }
@@ -145,21 +467,61 @@ public class Assignment {
         details.append("Title: ").append(title).append("\n");
         details.append("Description: ").append(description).append("\n");
         details.append("Max Points: ").append(maxPoints).append("\n");
-        details.append("Status: ").append(status).append("\n");
+        details.append("Category: ").append(category).append(" (weight ").append(weight).append(")\n");
+        if (dueDate != null) {
+            details.append("Due Date: ").append(dueDate).append("\n");
+        }
+        details.append("Status: ").append(getStatus()).append("\n");
+        details.append("Progress: ").append(getStatusSummary()).append("\n");
         details.append("Submitted By: ").append(String.join(", ", submittedStudentIds)).append("\n");
         details.append("Files Submitted: ").append(submittedFiles.size()).append("\n");
         if (!grades.isEmpty()) {
             details.append("Grades:\n");
-            for (String studentId : grades.keySet()) {
-                details.append("  ").append(studentId).append(": ").append(grades.get(studentId)).append("/").append(maxPoints)
+            for (Map.Entry<String, Double> grade : grades.entrySet()) {
+                String studentId = grade.getKey();
+                details.append("  ").append(studentId).append(": ").append(grade.getValue()).append("/").append(maxPoints)
                         .append(" (").append(getLetterGrade(studentId)).append(")\n");
             }
         }
         return details.toString();
     }
 
+    /**
+     * Per-status student counts, e.g. "SCHEDULED: 3, SUBMITTED: 1, GRADED: 2, OVERDUE: 0"
+     */
+    public String getStatusSummary() {
+        return formatStatusSummary(statusCounts);
+    }
+
+    static String formatStatusSummary(int[] statusCounts) {
+        StringBuilder summary = new StringBuilder();
+        for (AssignmentStatus status : STATUSES) {
+            if (status == AssignmentStatus.CANCELLED) continue;
+            if (summary.length() > 0) summary.append(", ");
+            summary.append(status.name()).append(": ").append(statusCounts[status.ordinal()]);
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Immutable view of the current state; must be taken while no writer is mutating the assignment
+     */
+    public AssignmentSnapshot snapshot() {
+        AssignmentSnapshot current = snapshot;
+        if (current == null || current.getVersion() != version) {
+            Map<String, String> letters = new HashMap<>(grades.size() * 2);
+            for (String studentId : grades.keySet()) {
+                letters.put(studentId, getLetterGrade(studentId));
+            }
+            current = new AssignmentSnapshot(assignmentId, title, maxPoints, dueDate, version,
+                    statusCounts, trackedStudents, submittedStudentIds, grades, letters);
+            snapshot = current;
+        }
+        return current;
+    }
+
     private String generateAssignmentId() {
-        return "ASG-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+        return "ASG-" + System.currentTimeMillis() + "-" + ID_SEQUENCE.incrementAndGet();
     }
 
     @Override
@@ -177,6 +539,6 @@ public class Assignment {
 
     @Override
     public String toString() {
-        return String.format("Assignment{id='%s', title='%s', status=%s}", assignmentId, title, status);
+        return String.format("Assignment{id='%s', title='%s', status=%s}", assignmentId, title, getStatus());
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+/**
+ * Assignment Snapshot
+ *
+ * Immutable copy of an assignment's reportable state at one version. An
+ * assignment hands out the same snapshot until it changes, so classroom
+ * snapshots taken between changes share it instead of copying it again.
+ */
+package com.virtualclassroom.entity;
+
+import com.virtualclassroom.enums.AssignmentStatus;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+public final class AssignmentSnapshot {
+    private final String assignmentId;
+    private final String title;
+    private final int maxPoints;
+    private final LocalDateTime dueDate;
+    private final long version;
+    private final int[] statusCounts;
+    private final int trackedStudents;
+    private final List<String> submittedStudentIds;
+    private final Map<String, Double> grades;
+    private final Map<String, String> letterGrades;
+
+    AssignmentSnapshot(String assignmentId, String title, int maxPoints, LocalDateTime dueDate, long version,
+                       int[] statusCounts, int trackedStudents, Collection<String> submittedStudentIds,
+                       Map<String, Double> grades, Map<String, String> letterGrades) {
+        this.assignmentId = assignmentId;
+        this.title = title;
+        this.maxPoints = maxPoints;
+        this.dueDate = dueDate;
+        this.version = version;
+        this.statusCounts = statusCounts.clone();
+        this.trackedStudents = trackedStudents;
+        this.submittedStudentIds = List.copyOf(submittedStudentIds);
+        this.grades = Collections.unmodifiableMap(new LinkedHashMap<>(grades));
+        this.letterGrades = Collections.unmodifiableMap(letterGrades);
+    }
+
+    public String getAssignmentId() { return assignmentId; }
+    public String getTitle() { return title; }
+    public int getMaxPoints() { return maxPoints; }
+    public LocalDateTime getDueDate() { return dueDate; }
+    public long getVersion() { return version; }
+    public List<String> getSubmittedStudentIds() { return submittedStudentIds; }
+    public Map<String, Double> getGrades() { return grades; }
+    public int getSubmissionCount() { return submittedStudentIds.size(); }
+    public boolean hasAnyGraded() { return !grades.isEmpty(); }
+    public int getTrackedStudentCount() { return trackedStudents; }
+
+    public int getStatusCount(AssignmentStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    public AssignmentStatus getStatus() {
+        return Assignment.deriveStatus(statusCounts, trackedStudents);
+    }
+
+    public String getStatusSummary() {
+        return Assignment.formatStatusSummary(statusCounts);
+    }
+
+    public double getGradePercentage(String studentId) {
+        Double grade = grades.get(studentId);
+        if (grade == null || maxPoints == 0) return 0.0;
+        return (grade / maxPoints) * 100;
+    }
+
+    public String getLetterGrade(String studentId) {
+        String letter = letterGrades.get(studentId);
+        return letter != null ? letter : Assignment.toLetterGrade(getGradePercentage(studentId));
+    }
+}
@@ -6,19 +6,37 @@ package com.virtualclassroom.entity;
 import com.virtualclassroom.util.Logger;
 import com.virtualclassroom.util.ValidationHelper;
 import com.virtualclassroom.exception.ValidationException;
+import com.virtualclassroom.enums.AssignmentStatus;
+import com.virtualclassroom.enums.WaitlistMode;
+import com.virtualclassroom.event.AssignmentScheduled;
+import com.virtualclassroom.event.DomainEventStream;
+import com.virtualclassroom.event.StudentEnrolled;
+import com.virtualclassroom.event.StudentUnenrolled;
+import com.virtualclassroom.grading.FinalGradeEngine;
+import com.virtualclassroom.grading.GradingPolicy;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class Classroom {
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
     private final String classroomId;
     private String name;
     private String description;
     private final Map<String, Student> enrolledStudents;
+    private final StudentSlotIndex studentSlots;
     private final List<Assignment> assignments;
-    private final Map<String, Map<String, Boolean>> attendanceRecord; // className -> studentId -> present
+    private final Map<String, Map<String, Boolean>> attendanceRecord; // classroomId -> studentId -> present
     private int maxCapacity;
+    private final SeatCounter seats;
+    private final Waitlist waitlist;
     private boolean isActive;
+    private GradingPolicy gradingPolicy;
+    private final FinalGradeEngine finalGrades;
+    private long version;
+    private ClassroomSnapshot snapshot;
     private final Logger logger;
 
     public Classroom(String name) throws ValidationException {
@@ -35,9 +53,14 @@ public class Classroom {
         this.description = description != null ? description.trim() : "";
         this.maxCapacity = maxCapacity > 0 ? maxCapacity : 50;
         this.enrolledStudents = new HashMap<>();
+        this.studentSlots = new StudentSlotIndex();
         this.assignments = new ArrayList<>();
         this.attendanceRecord = new HashMap<>();
+        this.seats = new SeatCounter();
+        this.waitlist = new Waitlist();
         this.isActive = true;
+        this.gradingPolicy = GradingPolicy.standard();
+        this.finalGrades = new FinalGradeEngine(studentSlots);
         this.logger = Logger.getInstance();
         logger.info("Classroom created: " + classroomId + " - " + name);
     }
@@ -50,14 +73,79 @@ public class Classroom {
     public boolean isActive() { return isActive; }
     public int getEnrolledStudentCount() { return enrolledStudents.size(); }
     public int getAssignmentCount() { return assignments.size(); }
+    public long getVersion() { return version; }
+    public GradingPolicy getGradingPolicy() { return gradingPolicy; }
+    public int getAvailableSeats() { return seats.available(maxCapacity); }
+    public WaitlistMode getWaitlistMode() { return waitlist.getMode(); }
+    public int getWaitlistLimit() { return waitlist.getLimit(); }
+    public int getWaitlistSize() { return waitlist.size(); }
+    public boolean isWaitlisted(String studentId) { return waitlist.contains(studentId); }
+    public int getWaitlistPosition(String studentId) { return waitlist.positionOf(studentId); }
+
+    /**
+     * Waiting students in admission order, each with its priority
+     */
+    public List<Map.Entry<Student, Integer>> getWaitlist() {
+        return waitlist.entries();
+    }
+
+    /**
+     * Every graded student's weighted final grade under the current grading policy, best first
+     */
+    public List<FinalGradeEngine.FinalGrade> getFinalGrades() {
+        return finalGrades.getRankedGrades(gradingPolicy);
+    }
+
+    public List<String> getGradeCategories() {
+        return finalGrades.getCategories();
+    }
+
+    /**
+     * Grade this classroom with a new policy; every stored letter grade is recomputed
+     */
+    public void setGradingPolicy(GradingPolicy policy) throws ValidationException {
+        ValidationHelper.validateNotNull(policy, "Grading policy");
+        GradingPolicy previous = this.gradingPolicy;
+        applyGradingPolicy(policy);
+        UndoLog.record(() -> applyGradingPolicy(previous));
+        logger.info("Grading policy of " + name + " set to " + policy);
+    }
+
+    private void applyGradingPolicy(GradingPolicy policy) {
+        this.gradingPolicy = policy;
+        for (Assignment assignment : assignments) {
+            assignment.applyGradingPolicy(policy);
+        }
+        version++;
+    }
+
+    /**
+     * Version covering this classroom and all of its assignments; changes whenever
+     * anything rendered by the classroom reports changes.
+     */
+    public long getContentVersion() {
+        long contentVersion = version;
+        for (Assignment assignment : assignments) {
+            contentVersion += assignment.getVersion();
+        }
+        return contentVersion;
+    }
 
     public void addStudent(Student student) throws ValidationException {
         ValidationHelper.validateNotNull(student, "Student");
         if (!isActive) throw new ValidationException("Cannot add student to inactive classroom");
-        if (enrolledStudents.size() >= maxCapacity) throw new ValidationException("Classroom has reached maximum capacity: " + maxCapacity);
         if (enrolledStudents.containsKey(student.getStudentId())) throw new ValidationException("Student already enrolled: " + student.getStudentId());
+        if (!seats.tryAcquire(maxCapacity)) throw new ValidationException("Classroom has reached maximum capacity: " + maxCapacity);
         enrolledStudents.put(student.getStudentId(), student);
-        student.enrollInClassroom(this.name);
+        UndoLog.record(() -> detachStudent(student.getStudentId()));
+        waitlist.remove(student.getStudentId());
+        student.enrollInClassroom(this.classroomId);
+        int slot = studentSlots.assign(student.getStudentId());
+        for (Assignment assignment : assignments) {
+            assignment.trackStudent(slot, student.getStudentId());
+        }
+        version++;
+        DomainEventStream.getInstance().publish(new StudentEnrolled(classroomId, student.getStudentId()));
         logger.info("Student " + student.getStudentId() + " enrolled in classroom " + name);
     }
 
@@ -65,11 +153,149 @@ public class Classroom {
         ValidationHelper.validateNotNull(studentId, "Student ID");
         Student student = enrolledStudents.get(studentId);
         if (student == null) throw new ValidationException("Student not found in classroom: " + studentId);
+        AssignmentStatus[] statuses = UndoLog.isRecording() ? statusesOf(studentId) : null;
         enrolledStudents.remove(studentId);
-        student.unenrollFromClassroom(this.name);
+        seats.release();
+        UndoLog.record(() -> reattachStudent(student, statuses));
+        student.unenrollFromClassroom(this.classroomId);
+        int slot = studentSlots.release(studentId);
+        for (Assignment assignment : assignments) {
+            assignment.untrackStudent(slot);
+        }
+        finalGrades.clearSlot(slot);
+        version++;
+        DomainEventStream.getInstance().publish(new StudentUnenrolled(classroomId, studentId));
         logger.info("Student " + studentId + " removed from classroom " + name);
     }
 
+    /**
+     * Cascade-unenroll every student in a single pass over the enrollment index.
+     *
+     * @return the students that were enrolled
+     */
+    public List<Student> removeAllStudents() {
+        List<Student> removed = new ArrayList<>(enrolledStudents.values());
+        if (UndoLog.isRecording()) {
+            List<AssignmentStatus[]> statuses = new ArrayList<>(removed.size());
+            for (Student student : removed) {
+                statuses.add(statusesOf(student.getStudentId()));
+            }
+            UndoLog.record(() -> {
+                for (int i = 0; i < removed.size(); i++) {
+                    reattachStudent(removed.get(i), statuses.get(i));
+                }
+            });
+        }
+        DomainEventStream events = DomainEventStream.getInstance();
+        for (Student student : removed) {
+            student.detachClassroom(classroomId);
+            events.publish(new StudentUnenrolled(classroomId, student.getStudentId()));
+        }
+        enrolledStudents.clear();
+        seats.releaseAll();
+        studentSlots.clear();
+        for (Assignment assignment : assignments) {
+            assignment.untrackAll();
+        }
+        finalGrades.clear();
+        version++;
+        logger.info("Removed all " + removed.size() + " students from classroom " + name);
+        return removed;
+    }
+
+    // --- Waitlist ---
+
+    /**
+     * Set how a full classroom queues students; limit 0 means unbounded.
+     * Turning the waitlist off drops everyone still waiting.
+     *
+     * @return the students dropped from the waitlist
+     */
+    public List<Student> configureWaitlist(WaitlistMode mode, int limit) throws ValidationException {
+        ValidationHelper.validateNotNull(mode, "Waitlist mode");
+        if (limit < 0) throw new ValidationException("Waitlist limit cannot be negative: " + limit);
+        List<Student> dropped = waitlist.configure(mode, limit);
+        logger.info("Waitlist of " + name + " set to " + mode + (limit > 0 ? " (limit " + limit + ")" : ""));
+        return dropped;
+    }
+
+    /**
+     * Queue a student for the next free seat
+     *
+     * @return the student's 1-based position in the waitlist
+     */
+    public int joinWaitlist(Student student, int priority) throws ValidationException {
+        ValidationHelper.validateNotNull(student, "Student");
+        String studentId = student.getStudentId();
+        if (waitlist.getMode() == WaitlistMode.OFF) throw new ValidationException("Classroom has reached maximum capacity: " + maxCapacity);
+        if (!isActive) throw new ValidationException("Cannot waitlist a student for an inactive classroom");
+        if (enrolledStudents.containsKey(studentId)) throw new ValidationException("Student already enrolled: " + studentId);
+        if (waitlist.contains(studentId)) throw new ValidationException("Student already on the waitlist: " + studentId);
+        if (waitlist.isFull()) throw new ValidationException("Waitlist is full: " + waitlist.getLimit());
+        int position = waitlist.add(student, priority);
+        logger.info("Student " + studentId + " waitlisted for " + name + " at position " + position);
+        return position;
+    }
+
+    public void leaveWaitlist(String studentId) throws ValidationException {
+        ValidationHelper.validateNotNull(studentId, "Student ID");
+        if (!waitlist.remove(studentId)) throw new ValidationException("Student not on the waitlist: " + studentId);
+        logger.info("Student " + studentId + " left the waitlist of " + name);
+    }
+
+    /**
+     * Fill every open seat from the waitlist in admission order
+     *
+     * @return the students promoted into the classroom
+     */
+    public List<Student> admitFromWaitlist() throws ValidationException {
+        List<Student> admitted = new ArrayList<>();
+        if (!isActive) return admitted;
+        while (seats.available(maxCapacity) > 0) {
+            Student next = waitlist.poll();
+            if (next == null) break;
+            addStudent(next);
+            admitted.add(next);
+        }
+        return admitted;
+    }
+
+    // --- Undo support: inverses replayed by UndoLog, newest first ---
+
+    private AssignmentStatus[] statusesOf(String studentId) {
+        AssignmentStatus[] statuses = new AssignmentStatus[assignments.size()];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = assignments.get(i).getStatus(studentId);
+        }
+        return statuses;
+    }
+
+    private void detachStudent(String studentId) {
+        enrolledStudents.remove(studentId);
+        seats.release();
+        int slot = studentSlots.release(studentId);
+        for (Assignment assignment : assignments) {
+            assignment.untrackStudent(slot);
+        }
+        finalGrades.clearSlot(slot);
+        version++;
+    }
+
+    private void reattachStudent(Student student, AssignmentStatus[] statuses) {
+        String studentId = student.getStudentId();
+        enrolledStudents.put(studentId, student);
+        seats.reacquire();
+        int slot = studentSlots.assign(studentId);
+        for (int i = 0; i < assignments.size(); i++) {
+            Assignment assignment = assignments.get(i);
+            assignment.trackStudent(slot, studentId);
+            if (i < statuses.length && statuses[i] != assignment.getStatus(studentId)) {
+                assignment.restoreStatus(studentId, statuses[i]);
+            }
+        }
+        version++;
+    }
+
     public List<Student> getStudents(int page, int pageSize, String filter) {
         List<Student> students = new ArrayList<>(enrolledStudents.values());
         if (filter != null && !filter.trim().isEmpty()) {
@@ -102,7 +328,19 @@ public class Classroom {
         if (!isActive) throw new ValidationException("Cannot schedule assignment in inactive classroom");
         boolean duplicateTitle = assignments.stream().anyMatch(a -> a.getTitle().equalsIgnoreCase(assignment.getTitle()));
         if (duplicateTitle) throw new ValidationException("Assignment with title already exists: " + assignment.getTitle());
+        assignment.attach(classroomId, studentSlots, gradingPolicy, finalGrades);
+        UndoLog.record(() -> {
+            assignments.remove(assignment);
+            // keep the content version moving forward even though the assignment's versions drop out of it
+            version += assignment.getVersion() + 1;
+            assignment.detach();
+        });
+        for (String studentId : enrolledStudents.keySet()) {
+            assignment.trackStudent(studentSlots.slotOf(studentId), studentId);
+        }
         assignments.add(assignment);
+        version++;
+        DomainEventStream.getInstance().publish(new AssignmentScheduled(classroomId, assignment.getAssignmentId(), assignment.getTitle()));
         logger.info("Assignment scheduled in " + name + ": " + assignment.getTitle());
     }
 
@@ -110,6 +348,15 @@ public class Classroom {
         return assignments.stream().collect(Collectors.toList());
     }
 
+    /**
+     * Assignments with at least one student in the given status
+     */
+    public List<Assignment> getAssignmentsWithStudentStatus(AssignmentStatus status) {
+        return assignments.stream()
+                .filter(a -> a.getStatusCount(status) > 0)
+                .collect(Collectors.toList());
+    }
+
     public List<Assignment> getAllAssignments() {
         return new ArrayList<>(assignments);
     }
@@ -124,21 +371,31 @@ public class Classroom {
     // Attendance: mark for all students in class (no date)
     public void markAttendance(Map<String, Boolean> studentAttendance) throws ValidationException {
     ValidationHelper.validateNotNull(studentAttendance, "Student attendance");
+    Map<String, Boolean> previousAttendance = attendanceRecord.get(classroomId);
+    UndoLog.record(() -> {
+        if (previousAttendance == null) {
+            attendanceRecord.remove(classroomId);
+        } else {
+            attendanceRecord.put(classroomId, previousAttendance);
+        }
+        version++;
+    });
     Map<String, Boolean> attendanceMap = new HashMap<>();
     for (String studentId : enrolledStudents.keySet()) {
         boolean isPresent = studentAttendance.getOrDefault(studentId, false); // default absent
         attendanceMap.put(studentId, isPresent);
         Student student = enrolledStudents.get(studentId);
         if (student != null) {
-            student.markAttendance(name, isPresent);
+            student.markAttendance(classroomId, isPresent);
         }
     }
-    attendanceRecord.put(name, attendanceMap);
+    attendanceRecord.put(classroomId, attendanceMap);
+    version++;
     logger.info("Attendance marked for " + name);
 }
     // Get attendance for class (no date)
     public Map<String, Boolean> getAttendance() {
-        return attendanceRecord.getOrDefault(name, new HashMap<>());
+        return attendanceRecord.getOrDefault(classroomId, Collections.emptyMap());
     }
 
     public double getOverallAttendancePercentage() {
@@ -149,69 +406,70 @@ public class Classroom {
     }
 
     public String getClassroomStatistics() {
-        StringBuilder stats = new StringBuilder();
-        stats.append("=== Classroom Statistics ===\n");
-        stats.append("Name: ").append(name).append("\n");
-        stats.append("ID: ").append(classroomId).append("\n");
-        stats.append("Status: ").append(isActive ? "Active" : "Inactive").append("\n");
-        stats.append("Students Enrolled: ").append(enrolledStudents.size()).append("/").append(maxCapacity).append("\n");
-        stats.append("Total Assignments: ").append(assignments.size()).append("\n");
-        stats.append("Overall Attendance: ").append(String.format("%.2f%%", getOverallAttendancePercentage())).append("\n");
-        long completedAssignments = assignments.stream().filter(a -> a.getStatus().toString().equals("GRADED")).count();
-        stats.append("Completed Assignments: ").append(completedAssignments).append("/").append(assignments.size()).append("\n");
-        double avgGrade = assignments.stream()
-                .filter(a -> a.hasAnyGraded())
-                .flatMap(a -> a.getGrades().values().stream())
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0.0);
-        stats.append("Average Grade: ").append(String.format("%.2f%%", avgGrade)).append("\n");
-        return stats.toString();
+        return snapshot().getClassroomStatistics();
     }
 
     public String getSubmissionAnalytics() {
-        StringBuilder analytics = new StringBuilder();
-        analytics.append("=== Assignment Submission Analytics ===\n");
-        for (Assignment assignment : assignments) {
-            analytics.append("Assignment: ").append(assignment.getTitle()).append("\n");
-            analytics.append("  Status: ").append(assignment.getStatus()).append("\n");
-            Set<String> submittedIds = assignment.getSubmittedStudentIds();
-            if (!submittedIds.isEmpty()) {
-                analytics.append("  Submitted By: ").append(String.join(", ", submittedIds)).append("\n");
-                if (assignment.hasAnyGraded()) {
-                    for (String studentId : assignment.getGradedStudentIds()) {
-                        analytics.append("    ").append(studentId).append(": Grade ").append(assignment.getGrades().get(studentId)).append("/").append(assignment.getMaxPoints()).append("\n");
-                    }
-                }
-            } else {
-                analytics.append("  Status: Not submitted\n");
+        return snapshot().getSubmissionAnalytics();
+    }
+
+    /**
+     * Immutable view of the classroom at its current content version. Must be
+     * taken while holding the model lock; the result may be read without it.
+     */
+    public ClassroomSnapshot snapshot() {
+        long contentVersion = getContentVersion();
+        ClassroomSnapshot current = snapshot;
+        if (current == null || current.getVersion() != contentVersion) {
+            List<AssignmentSnapshot> assignmentSnapshots = new ArrayList<>(assignments.size());
+            for (Assignment assignment : assignments) {
+                assignmentSnapshots.add(assignment.snapshot());
             }
-            analytics.append("\n");
+            // attendance maps are replaced, never mutated, once recorded
+            current = new ClassroomSnapshot(classroomId, name, isActive, maxCapacity, enrolledStudents.size(),
+                    contentVersion, assignmentSnapshots, Collections.unmodifiableMap(getAttendance()));
+            snapshot = current;
         }
-        return analytics.toString();
+        return current;
     }
 
     public void deactivate() {
+        boolean wasActive = isActive;
         this.isActive = false;
+        version++;
+        UndoLog.record(() -> { this.isActive = wasActive; version++; });
         logger.info("Classroom deactivated: " + name);
     }
 
     public void activate() {
+        boolean wasActive = isActive;
         this.isActive = true;
+        version++;
+        UndoLog.record(() -> { this.isActive = wasActive; version++; });
         logger.info("Classroom activated: " + name);
     }
 
     public void updateClassroomInfo(String newName, String newDescription, int newMaxCapacity) throws ValidationException {
         if (newName != null && !ValidationHelper.isValidClassroomName(newName)) throw new ValidationException("Invalid classroom name: " + newName);
         if (newMaxCapacity > 0 && newMaxCapacity < enrolledStudents.size()) throw new ValidationException("Cannot reduce capacity below current enrollment");
+        String previousName = this.name;
+        String previousDescription = this.description;
+        int previousCapacity = this.maxCapacity;
+        UndoLog.record(() -> {
+            this.name = previousName;
+            this.description = previousDescription;
+            this.maxCapacity = previousCapacity;
+            version++;
+        });
         if (newName != null) this.name = newName.trim();
         if (newDescription != null) this.description = newDescription.trim();
         if (newMaxCapacity > 0) this.maxCapacity = newMaxCapacity;
+        version++;
         logger.info("Classroom information updated: " + classroomId);
     }
 
     private String generateClassroomId() {
-        return "CLS-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+        return "CLS-" + System.currentTimeMillis() + "-" + ID_SEQUENCE.incrementAndGet();
     }
 
     @Override
@@ -0,0 +1,134 @@
+/**
+ * Classroom Snapshot
+ *
+ * Immutable, consistent view of a classroom and its assignments, taken while
+ * the model lock is held and rendered after it is released. Snapshots are
+ * cached per content version and unchanged assignment snapshots are shared
+ * between versions, so taking one is cheap and long reports never block
+ * enrollments or submissions.
+ */
+package com.virtualclassroom.entity;
+
+import com.virtualclassroom.enums.AssignmentStatus;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+public final class ClassroomSnapshot {
+    private final String classroomId;
+    private final String name;
+    private final boolean isActive;
+    private final int maxCapacity;
+    private final int enrolledStudentCount;
+    private final long version;
+    private final List<AssignmentSnapshot> assignments;
+    private final Map<String, Boolean> attendance;
+
+    ClassroomSnapshot(String classroomId, String name, boolean isActive, int maxCapacity, int enrolledStudentCount,
+                      long version, List<AssignmentSnapshot> assignments, Map<String, Boolean> attendance) {
+        this.classroomId = classroomId;
+        this.name = name;
+        this.isActive = isActive;
+        this.maxCapacity = maxCapacity;
+        this.enrolledStudentCount = enrolledStudentCount;
+        this.version = version;
+        this.assignments = List.copyOf(assignments);
+        this.attendance = attendance;
+    }
+
+    public String getClassroomId() { return classroomId; }
+    public String getName() { return name; }
+    public boolean isActive() { return isActive; }
+    public int getMaxCapacity() { return maxCapacity; }
+    public int getEnrolledStudentCount() { return enrolledStudentCount; }
+    public List<AssignmentSnapshot> getAssignments() { return assignments; }
+    public Map<String, Boolean> getAttendance() { return attendance; }
+
+    /**
+     * Content version of the classroom this snapshot was taken at
+     */
+    public long getVersion() { return version; }
+
+    public double getOverallAttendancePercentage() {
+        if (attendance.isEmpty() || enrolledStudentCount == 0) return 0.0;
+        long presentCount = attendance.values().stream().filter(present -> present).count();
+        return (double) presentCount / enrolledStudentCount * 100;
+    }
+
+    /**
+     * Letter grade -> number of graded submissions, across all assignments
+     */
+    public Map<String, Long> getGradeDistribution() {
+        return getGradeDistribution(index -> {});
+    }
+
+    /**
+     * Grade distribution, calling the checkpoint with each assignment's index before counting its grades
+     */
+    public Map<String, Long> getGradeDistribution(IntConsumer checkpoint) {
+        Map<String, Long> distribution = new TreeMap<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            checkpoint.accept(i);
+            AssignmentSnapshot assignment = assignments.get(i);
+            for (String studentId : assignment.getGrades().keySet()) {
+                distribution.merge(assignment.getLetterGrade(studentId), 1L, Long::sum);
+            }
+        }
+        return distribution;
+    }
+
+    public String getClassroomStatistics() {
+        StringBuilder stats = new StringBuilder();
+        stats.append("=== Classroom Statistics ===\n");
+        stats.append("Name: ").append(name).append("\n");
+        stats.append("ID: ").append(classroomId).append("\n");
+        stats.append("Status: ").append(isActive ? "Active" : "Inactive").append("\n");
+        stats.append("Students Enrolled: ").append(enrolledStudentCount).append("/").append(maxCapacity).append("\n");
+        stats.append("Total Assignments: ").append(assignments.size()).append("\n");
+        stats.append("Overall Attendance: ").append(String.format("%.2f%%", getOverallAttendancePercentage())).append("\n");
+        long completedAssignments = assignments.stream().filter(a -> a.getStatus() == AssignmentStatus.GRADED).count();
+        stats.append("Completed Assignments: ").append(completedAssignments).append("/").append(assignments.size()).append("\n");
+        long gradedSubmissions = assignments.stream().mapToLong(a -> a.getStatusCount(AssignmentStatus.GRADED)).sum();
+        long expectedSubmissions = assignments.stream().mapToLong(AssignmentSnapshot::getTrackedStudentCount).sum();
+        stats.append("Graded Submissions: ").append(gradedSubmissions).append("/").append(expectedSubmissions).append("\n");
+        double avgGrade = assignments.stream()
+                .filter(AssignmentSnapshot::hasAnyGraded)
+                .flatMap(a -> a.getGrades().values().stream())
+                .mapToDouble(Double::doubleValue)
+                .average()
+                .orElse(0.0);
+        stats.append("Average Grade: ").append(String.format("%.2f%%", avgGrade)).append("\n");
+        return stats.toString();
+    }
+
+    public String getSubmissionAnalytics() {
+        return getSubmissionAnalytics(index -> {});
+    }
+
+    /**
+     * Submission analytics, calling the checkpoint with each assignment's index before rendering it
+     */
+    public String getSubmissionAnalytics(IntConsumer checkpoint) {
+        StringBuilder analytics = new StringBuilder();
+        analytics.append("=== Assignment Submission Analytics ===\n");
+        for (int i = 0; i < assignments.size(); i++) {
+            checkpoint.accept(i);
+            AssignmentSnapshot assignment = assignments.get(i);
+            analytics.append("Assignment: ").append(assignment.getTitle()).append("\n");
+            analytics.append("  Status: ").append(assignment.getStatus()).append("\n");
+            analytics.append("  Progress: ").append(assignment.getStatusSummary()).append("\n");
+            List<String> submittedIds = assignment.getSubmittedStudentIds();
+            if (!submittedIds.isEmpty()) {
+                analytics.append("  Submitted By: ").append(String.join(", ", submittedIds)).append("\n");
+                for (Map.Entry<String, Double> grade : assignment.getGrades().entrySet()) {
+                    analytics.append("    ").append(grade.getKey()).append(": Grade ").append(grade.getValue())
+                            .append("/").append(assignment.getMaxPoints()).append("\n");
+                }
+            } else {
+                analytics.append("  Status: Not submitted\n");
+            }
+            analytics.append("\n");
+        }
+        return analytics.toString();
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Seat Counter
+ *
+ * Occupied seats of a classroom, reserved with a compare-and-set loop so two
+ * enrollment attempts racing for the last seat can never both win. Readers
+ * (listings, waitlist checks) see the current count without taking any lock.
+ */
+package com.virtualclassroom.entity;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class SeatCounter {
+    private final AtomicInteger occupied = new AtomicInteger();
+
+    /**
+     * Reserve one seat if fewer than capacity are taken
+     *
+     * @return false when the classroom is full
+     */
+    boolean tryAcquire(int capacity) {
+        int current;
+        do {
+            current = occupied.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!occupied.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Take back a seat regardless of capacity; used when undo restores an enrollment
+     */
+    void reacquire() {
+        occupied.incrementAndGet();
+    }
+
+    void release() {
+        occupied.decrementAndGet();
+    }
+
+    void releaseAll() {
+        occupied.set(0);
+    }
+
+    int occupied() {
+        return occupied.get();
+    }
+
+    int available(int capacity) {
+        return Math.max(0, capacity - occupied.get());
+    }
+}
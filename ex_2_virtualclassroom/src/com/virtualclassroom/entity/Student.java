@@ -6,6 +6,8 @@ package com.virtualclassroom.entity;
 import com.virtualclassroom.util.Logger;
 import com.virtualclassroom.util.ValidationHelper;
 import com.virtualclassroom.exception.ValidationException;
+import com.virtualclassroom.event.AttendanceMarked;
+import com.virtualclassroom.event.DomainEventStream;
 
 import java.util.*;
 
@@ -13,11 +15,12 @@ public class Student {
     private final String studentId;
     private String name;
     private String email;
-    private final Map<String, List<Assignment>> submittedAssignments; // className -> assignments
-    private final Map<String, Boolean> attendanceRecord; // className -> present/absent
-    private final Set<String> enrolledClassrooms;
-    private double totalGrade;
+    private final Map<String, List<Assignment>> submittedAssignments; // classroomId -> assignments
+    private final Map<String, Boolean> attendanceRecord; // classroomId -> present/absent
+    private final Set<String> enrolledClassroomIds;
     private int totalAssignments;
+    private int presentCount; // classrooms in attendanceRecord marked present
+    private long version;
     private final Logger logger;
 
     private Student(Builder builder) {
@@ -26,8 +29,7 @@ public class Student {
         this.email = builder.email;
         this.submittedAssignments = new HashMap<>();
         this.attendanceRecord = new HashMap<>();
-        this.enrolledClassrooms = new HashSet<>();
-        this.totalGrade = 0.0;
+        this.enrolledClassroomIds = new HashSet<>();
         this.totalAssignments = 0;
         this.logger = Logger.getInstance();
         logger.info("Student created: " + studentId + " - " + name);
@@ -57,22 +59,30 @@ public class Student {
     public String getStudentId() { return studentId; }
     public String getName() { return name; }
     public String getEmail() { return email; }
-    public Set<String> getEnrolledClassrooms() { return new HashSet<>(enrolledClassrooms); }
+    public Set<String> getEnrolledClassroomIds() { return new HashSet<>(enrolledClassroomIds); }
+    public int getEnrolledClassroomCount() { return enrolledClassroomIds.size(); }
+    public int getTotalAssignments() { return totalAssignments; }
+    public long getVersion() { return version; }
 
-    public void submitAssignment(String className, Assignment assignment) throws ValidationException {
-        ValidationHelper.validateNotNull(className, "Classroom name");
+    public void submitAssignment(String classroomId, Assignment assignment) throws ValidationException {
+        ValidationHelper.validateNotNull(classroomId, "Classroom ID");
         ValidationHelper.validateNotNull(assignment, "Assignment");
-        if (!enrolledClassrooms.contains(className)) throw new ValidationException("Student is not enrolled in classroom: " + className);
-        submittedAssignments.computeIfAbsent(className, k -> new ArrayList<>()).add(assignment);
+        if (!enrolledClassroomIds.contains(classroomId)) throw new ValidationException("Student is not enrolled in classroom: " + classroomId);
+        List<Assignment> submitted = submittedAssignments.computeIfAbsent(classroomId, k -> new ArrayList<>());
+        submitted.add(assignment);
         totalAssignments++;
-        if (assignment.getGrades().containsKey(studentId)) {
-            totalGrade += assignment.getGrades().get(studentId);
-        }
-        logger.info("Assignment submitted by " + studentId + " in " + className + ": " + assignment.getTitle());
+        version++;
+        UndoLog.record(() -> {
+            submitted.remove(submitted.size() - 1);
+            if (submitted.isEmpty()) submittedAssignments.remove(classroomId);
+            totalAssignments--;
+            version++;
+        });
+        logger.info("Assignment submitted by " + studentId + " in " + classroomId + ": " + assignment.getTitle());
     }
 
-    public List<Assignment> getSubmittedAssignments(String className) {
-        return submittedAssignments.getOrDefault(className, new ArrayList<>());
+    public List<Assignment> getSubmittedAssignments(String classroomId) {
+        return submittedAssignments.getOrDefault(classroomId, new ArrayList<>());
     }
 
     public Map<String, List<Assignment>> getAllSubmittedAssignments() {
@@ -80,38 +90,100 @@ public class Student {
     }
 
     // Attendance: mark for class (no date)
-    public void markAttendance(String className, boolean isPresent) {
-        attendanceRecord.put(className, isPresent);
-        logger.info("Attendance marked for " + studentId + " in " + className + ": " + (isPresent ? "Present" : "Absent"));
+    public void markAttendance(String classroomId, boolean isPresent) {
+        Boolean previous = attendanceRecord.put(classroomId, isPresent);
+        if (Boolean.TRUE.equals(previous)) presentCount--;
+        if (isPresent) presentCount++;
+        version++;
+        UndoLog.record(() -> {
+            if (isPresent) presentCount--;
+            if (previous == null) {
+                attendanceRecord.remove(classroomId);
+            } else {
+                attendanceRecord.put(classroomId, previous);
+                if (previous) presentCount++;
+            }
+            version++;
+        });
+        DomainEventStream.getInstance().publish(new AttendanceMarked(classroomId, studentId, isPresent));
+        logger.info("Attendance marked for " + studentId + " in " + classroomId + ": " + (isPresent ? "Present" : "Absent"));
     }
 
     public Map<String, Boolean> getAttendanceRecord() {
         return new HashMap<>(attendanceRecord);
     }
 
+    public boolean hasAttendanceRecords() {
+        return !attendanceRecord.isEmpty();
+    }
+
     public double getAttendancePercentage() {
         if (attendanceRecord.isEmpty()) return 0.0;
-        long presentCount = attendanceRecord.values().stream().mapToLong(present -> present ? 1 : 0).sum();
         return (double) presentCount / attendanceRecord.size() * 100;
     }
 
-    public void enrollInClassroom(String className) throws ValidationException {
-        ValidationHelper.validateNotNull(className, "Classroom name");
-        if (enrolledClassrooms.contains(className)) throw new ValidationException("Student already enrolled in: " + className);
-        enrolledClassrooms.add(className);
-        logger.info("Student " + studentId + " enrolled in classroom: " + className);
+    public boolean isEnrolledIn(String classroomId) {
+        return enrolledClassroomIds.contains(classroomId);
+    }
+
+    public void enrollInClassroom(String classroomId) throws ValidationException {
+        ValidationHelper.validateNotNull(classroomId, "Classroom ID");
+        if (enrolledClassroomIds.contains(classroomId)) throw new ValidationException("Student already enrolled in: " + classroomId);
+        enrolledClassroomIds.add(classroomId);
+        version++;
+        UndoLog.record(() -> detachClassroom(classroomId));
+        logger.info("Student " + studentId + " enrolled in classroom: " + classroomId);
+    }
+
+    public void unenrollFromClassroom(String classroomId) throws ValidationException {
+        ValidationHelper.validateNotNull(classroomId, "Classroom ID");
+        if (!enrolledClassroomIds.contains(classroomId)) throw new ValidationException("Student not enrolled in: " + classroomId);
+        enrolledClassroomIds.remove(classroomId);
+        version++;
+        UndoLog.record(() -> attachClassroom(classroomId));
+        logger.info("Student " + studentId + " unenrolled from classroom: " + classroomId);
     }
 
-    public void unenrollFromClassroom(String className) throws ValidationException {
-        ValidationHelper.validateNotNull(className, "Classroom name");
-        if (!enrolledClassrooms.contains(className)) throw new ValidationException("Student not enrolled in: " + className);
-        enrolledClassrooms.remove(className);
-        logger.info("Student " + studentId + " unenrolled from classroom: " + className);
+    /**
+     * Drop the classroom reference without validation or logging; used by bulk cascade unenrollment
+     */
+    void detachClassroom(String classroomId) {
+        if (enrolledClassroomIds.remove(classroomId)) {
+            version++;
+            UndoLog.record(() -> attachClassroom(classroomId));
+        }
+    }
+
+    private void attachClassroom(String classroomId) {
+        if (enrolledClassroomIds.add(classroomId)) {
+            version++;
+        }
     }
 
+    /**
+     * Mark that one of this student's submissions was graded or regraded. Grades live on the
+     * assignments, so without this the cached profile (which shows the grade average) would go stale.
+     */
+    public void recordGradeChange() {
+        version++;
+        UndoLog.record(() -> version++);
+    }
+
+    /**
+     * Average percentage over the submitted assignments that have been graded
+     */
     public double getGradeAverage() {
-        if (totalAssignments == 0) return 0.0;
-        return totalGrade / totalAssignments;
+        double percentageSum = 0;
+        int graded = 0;
+        for (List<Assignment> assignments : submittedAssignments.values()) {
+            for (Assignment assignment : assignments) {
+                if (assignment.isGraded(studentId)) {
+                    percentageSum += assignment.getGradePercentage(studentId);
+                    graded++;
+                }
+            }
+        }
+        return graded == 0 ? 0.0 : percentageSum / graded;
     }
 
     public String getStudentProfile() {
@@ -120,7 +192,7 @@ public class Student {
         profile.append("ID: ").append(studentId).append("\n");
         profile.append("Name: ").append(name).append("\n");
         profile.append("Email: ").append(email).append("\n");
-        profile.append("Enrolled Classrooms: ").append(enrolledClassrooms.size()).append("\n");
+        profile.append("Enrolled Classrooms: ").append(enrolledClassroomIds.size()).append("\n");
         profile.append("Total Assignments: ").append(totalAssignments).append("\n");
         profile.append("Grade Average: ").append(String.format("%.2f", getGradeAverage())).append("\n");
         profile.append("Attendance Percentage: ").append(String.format("%.2f%%", getAttendancePercentage())).append("\n");
@@ -129,13 +201,19 @@ public class Student {
 
     public void updateName(String newName) throws ValidationException {
         if (!ValidationHelper.isValidName(newName)) throw new ValidationException("Invalid name format: " + newName);
+        String previous = this.name;
         this.name = newName;
+        version++;
+        UndoLog.record(() -> { this.name = previous; version++; });
         logger.info("Updated name for student " + studentId + " to: " + newName);
     }
 
     public void updateEmail(String newEmail) throws ValidationException {
         if (!ValidationHelper.isValidEmail(newEmail)) throw new ValidationException("Invalid email format: " + newEmail);
+        String previous = this.email;
         this.email = newEmail;
+        version++;
+        UndoLog.record(() -> { this.email = previous; version++; });
         logger.info("Updated email for student " + studentId + " to: " + newEmail);
     }
 
@@ -155,6 +233,6 @@ public class Student {
     @Override
     public String toString() {
         return String.format("Student{id='%s', name='%s', classrooms=%d, assignments=%d}",
-                studentId, name, enrolledClassrooms.size(), totalAssignments);
+                studentId, name, enrolledClassroomIds.size(), totalAssignments);
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+/**
+ * Student Slot Index
+ *
+ * Assigns each student enrolled in a classroom a small, dense integer slot.
+ * Assignments use the slot to index their compact per-student status arrays.
+ * Slots of removed students are recycled.
+ */
+package com.virtualclassroom.entity;
+
+import java.util.*;
+
+public class StudentSlotIndex {
+    private final Map<String, Integer> slotsById;
+    private String[] idsBySlot;
+    private int[] freeSlots;
+    private int freeCount;
+    private int highWaterMark;
+
+    StudentSlotIndex() {
+        this.slotsById = new HashMap<>();
+        this.idsBySlot = new String[16];
+        this.freeSlots = new int[16];
+    }
+
+    /**
+     * Slot of the student, or -1 if the student holds no slot
+     */
+    public int slotOf(String studentId) {
+        Integer slot = slotsById.get(studentId);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Student holding the slot, or null if the slot is free
+     */
+    public String studentAt(int slot) {
+        return slot >= 0 && slot < highWaterMark ? idsBySlot[slot] : null;
+    }
+
+    public int size() { return slotsById.size(); }
+
+    /**
+     * Upper bound (exclusive) of every slot handed out so far
+     */
+    public int getHighWaterMark() { return highWaterMark; }
+
+    int assign(String studentId) {
+        Integer existing = slotsById.get(studentId);
+        if (existing != null) return existing;
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = highWaterMark++;
+            if (slot == idsBySlot.length) {
+                idsBySlot = Arrays.copyOf(idsBySlot, slot * 2);
+            }
+        }
+        idsBySlot[slot] = studentId;
+        slotsById.put(studentId, slot);
+        return slot;
+    }
+
+    void clear() {
+        slotsById.clear();
+        Arrays.fill(idsBySlot, 0, highWaterMark, null);
+        freeCount = 0;
+        highWaterMark = 0;
+    }
+
+    int release(String studentId) {
+        Integer slot = slotsById.remove(studentId);
+        if (slot == null) return -1;
+        idsBySlot[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return slot;
+    }
+}
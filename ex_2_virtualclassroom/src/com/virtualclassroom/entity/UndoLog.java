@@ -0,0 +1,85 @@
+/**
+ * Undo Log
+ *
+ * Inverse operations recorded by model mutators while a command or command
+ * group runs, replayed newest first to roll the model back to an earlier
+ * mark. A log is bound to the thread executing the command; mutations on a
+ * thread without a bound log record nothing, and nothing is recorded while a
+ * rollback is replaying.
+ */
+package com.virtualclassroom.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class UndoLog {
+    private static final ThreadLocal<UndoLog> CURRENT = new ThreadLocal<>();
+
+    private final List<Runnable> entries;
+
+    public UndoLog() {
+        this.entries = new ArrayList<>();
+    }
+
+    /**
+     * Record how to revert a mutation that has just been applied
+     */
+    public static void record(Runnable undo) {
+        UndoLog log = CURRENT.get();
+        if (log != null) {
+            log.entries.add(undo);
+        }
+    }
+
+    /**
+     * Whether mutations on this thread are being recorded; lets mutators skip capturing prior state
+     */
+    public static boolean isRecording() {
+        return CURRENT.get() != null;
+    }
+
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    public int mark() {
+        return entries.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Undo every mutation recorded after the mark, newest first
+     *
+     * @return the number of entries replayed
+     */
+    public int rollbackTo(int mark) {
+        UndoLog bound = CURRENT.get();
+        CURRENT.remove();
+        int replayed = 0;
+        try {
+            for (int i = entries.size() - 1; i >= mark; i--) {
+                entries.remove(i).run();
+                replayed++;
+            }
+        } finally {
+            if (bound != null) {
+                CURRENT.set(bound);
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Forget all entries once their changes are committed
+     */
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Waitlist
+ *
+ * Students queued for a full classroom. Entries are ordered by the admission
+ * mode (arrival order for FIFO, priority then arrival for PRIORITY) in a sorted
+ * set, with a by-student index so leaving the queue is as cheap as joining it.
+ * Every change is recorded in the undo log.
+ */
+package com.virtualclassroom.entity;
+
+import com.virtualclassroom.enums.WaitlistMode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+final class Waitlist {
+
+    static final class Entry {
+        private final Student student;
+        private final int priority;
+        private final long sequence;
+
+        private Entry(Student student, int priority, long sequence) {
+            this.student = student;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final Comparator<Entry> BY_ARRIVAL = Comparator.comparingLong(e -> e.sequence);
+    private static final Comparator<Entry> BY_PRIORITY =
+            Comparator.<Entry>comparingInt(e -> -e.priority).thenComparingLong(e -> e.sequence);
+
+    private WaitlistMode mode;
+    private int limit;
+    private TreeSet<Entry> queue;
+    private final Map<String, Entry> byStudent;
+    private long nextSequence;
+
+    Waitlist() {
+        this.mode = WaitlistMode.OFF;
+        this.queue = new TreeSet<>(BY_ARRIVAL);
+        this.byStudent = new HashMap<>();
+    }
+
+    WaitlistMode getMode() { return mode; }
+    int getLimit() { return limit; }
+    int size() { return byStudent.size(); }
+    boolean contains(String studentId) { return byStudent.containsKey(studentId); }
+    boolean isFull() { return limit > 0 && byStudent.size() >= limit; }
+
+    /**
+     * Switch admission mode and limit (0 for unlimited); turning the waitlist off empties it
+     *
+     * @return the students dropped from the queue
+     */
+    List<Student> configure(WaitlistMode newMode, int newLimit) {
+        WaitlistMode previousMode = this.mode;
+        int previousLimit = this.limit;
+        List<Entry> previousEntries = new ArrayList<>(queue);
+        List<Student> dropped = new ArrayList<>();
+        this.mode = newMode;
+        this.limit = newLimit;
+        if (newMode == WaitlistMode.OFF) {
+            previousEntries.forEach(entry -> dropped.add(entry.student));
+            queue = new TreeSet<>(BY_ARRIVAL);
+            byStudent.clear();
+        } else if (newMode != previousMode) {
+            TreeSet<Entry> reordered = new TreeSet<>(comparator(newMode));
+            reordered.addAll(previousEntries);
+            queue = reordered;
+        }
+        UndoLog.record(() -> {
+            this.mode = previousMode;
+            this.limit = previousLimit;
+            queue = new TreeSet<>(comparator(previousMode));
+            queue.addAll(previousEntries);
+            byStudent.clear();
+            previousEntries.forEach(entry -> byStudent.put(entry.student.getStudentId(), entry));
+        });
+        return dropped;
+    }
+
+    /**
+     * @return 1-based position of the student in the queue
+     */
+    int add(Student student, int priority) {
+        Entry entry = new Entry(student, priority, nextSequence++);
+        queue.add(entry);
+        byStudent.put(student.getStudentId(), entry);
+        UndoLog.record(() -> unlink(entry));
+        return positionOf(student.getStudentId());
+    }
+
+    boolean remove(String studentId) {
+        Entry entry = byStudent.get(studentId);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        UndoLog.record(() -> link(entry));
+        return true;
+    }
+
+    /**
+     * Remove and return the next student to admit, or null when nobody is waiting
+     */
+    Student poll() {
+        if (queue.isEmpty()) {
+            return null;
+        }
+        Entry entry = queue.first();
+        unlink(entry);
+        UndoLog.record(() -> link(entry));
+        return entry.student;
+    }
+
+    int positionOf(String studentId) {
+        Entry entry = byStudent.get(studentId);
+        return entry == null ? 0 : queue.headSet(entry).size() + 1;
+    }
+
+    /**
+     * Waiting students in admission order with their priorities
+     */
+    List<Map.Entry<Student, Integer>> entries() {
+        List<Map.Entry<Student, Integer>> entries = new ArrayList<>(queue.size());
+        for (Entry entry : queue) {
+            entries.add(Map.entry(entry.student, entry.priority));
+        }
+        return entries;
+    }
+
+    private void link(Entry entry) {
+        queue.add(entry);
+        byStudent.put(entry.student.getStudentId(), entry);
+    }
+
+    private void unlink(Entry entry) {
+        queue.remove(entry);
+        byStudent.remove(entry.student.getStudentId());
+    }
+
+    private static Comparator<Entry> comparator(WaitlistMode mode) {
+        return mode == WaitlistMode.PRIORITY ? BY_PRIORITY : BY_ARRIVAL;
+    }
+}
@@ -0,0 +1,18 @@
+package com.virtualclassroom.enums;
+
+public enum AuditAction {
+    ENROLLED("Enrolled"),
+    UNENROLLED("Unenrolled"),
+    GRADED("Graded"),
+    ATTENDANCE("Attendance");
+
+    private final String label;
+
+    AuditAction(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
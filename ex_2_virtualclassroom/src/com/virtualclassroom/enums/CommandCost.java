@@ -0,0 +1,43 @@
+package com.virtualclassroom.enums;
+
+public enum CommandCost {
+    CONTROL(0, "Help, output and command group control; never throttled so an open group can always commit or roll back"),
+    WRITE(1, "Single-entity changes on the write path; rate limited but never shed under overload"),
+    READ(2, "Single-entity views and paged listings"),
+    REPORT(10, "Reports and analytics that scan whole classrooms or the institution; limited in concurrency");
+
+    private final int tokens;
+    private final String description;
+
+    CommandCost(int tokens, String description) {
+        this.tokens = tokens;
+        this.description = description;
+    }
+
+    /**
+     * Rate-limit tokens one command of this class consumes
+     */
+    public int getTokens() {
+        return tokens;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Cost class of a console command; unknown commands count as reads
+     */
+    public static CommandCost of(String command) {
+        return switch (command.toLowerCase()) {
+            case "begin", "commit", "rollback", "help", "exit", "clear", "debug", "output", "admission_stats",
+                 "tasks", "cancel" -> CONTROL;
+            case "add_classroom", "remove_classroom", "rename_classroom", "add_student", "remove_student", "waitlist",
+                 "schedule_assignment", "submit_assignment", "grade_assignment", "grading_policy",
+                 "mark_attendance", "notify_grades" -> WRITE;
+            case "final_grades", "attendance_report", "classroom_analytics", "submission_analytics",
+                 "institution_analytics", "similarity_report" -> REPORT;
+            default -> READ;
+        };
+    }
+}
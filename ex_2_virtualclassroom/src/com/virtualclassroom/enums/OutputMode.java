@@ -0,0 +1,24 @@
+package com.virtualclassroom.enums;
+
+public enum OutputMode {
+    RICH("Decorated output with emoji and box-drawing separators"),
+    PLAIN("Compact ASCII output without emoji, for logs, pipes and very large listings");
+
+    private final String description;
+
+    OutputMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Mode named by the vcm.output system property, RICH when unset or unknown
+     */
+    public static OutputMode fromSystemProperty() {
+        String configured = System.getProperty("vcm.output", "rich");
+        return configured.equalsIgnoreCase("plain") ? PLAIN : RICH;
+    }
+}
@@ -0,0 +1,17 @@
+package com.virtualclassroom.enums;
+
+public enum ReportType {
+    CLASSROOM_STATISTICS("Classroom statistics summary"),
+    SUBMISSION_ANALYTICS("Per-assignment submission analytics"),
+    STUDENT_PROFILE("Student profile summary");
+
+    private final String description;
+
+    ReportType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,17 @@
+package com.virtualclassroom.enums;
+
+public enum WaitlistMode {
+    OFF("Full classrooms reject new enrollments"),
+    FIFO("Freed seats go to the longest-waiting student"),
+    PRIORITY("Freed seats go to the highest-priority student, longest-waiting first among equals");
+
+    private final String description;
+
+    WaitlistMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,41 @@
+package com.virtualclassroom.event;
+
+public class AssignmentGraded extends DomainEvent {
+    private final String classroomId;
+    private final String assignmentId;
+    private final String studentId;
+    private final double points;
+    private final int maxPoints;
+    private final double previousPoints;
+
+    public AssignmentGraded(String classroomId, String assignmentId, String studentId, double points, int maxPoints) {
+        this(classroomId, assignmentId, studentId, points, maxPoints, Double.NaN);
+    }
+
+    public AssignmentGraded(String classroomId, String assignmentId, String studentId, double points, int maxPoints,
+                            double previousPoints) {
+        this.classroomId = classroomId;
+        this.assignmentId = assignmentId;
+        this.studentId = studentId;
+        this.points = points;
+        this.maxPoints = maxPoints;
+        this.previousPoints = previousPoints;
+    }
+
+    public String getClassroomId() { return classroomId; }
+    public String getAssignmentId() { return assignmentId; }
+    public String getStudentId() { return studentId; }
+    public double getPoints() { return points; }
+    public int getMaxPoints() { return maxPoints; }
+
+    /**
+     * Points before this grade replaced them; NaN for a first grade
+     */
+    public double getPreviousPoints() { return previousPoints; }
+    public boolean isRegrade() { return !Double.isNaN(previousPoints); }
+
+    @Override
+    public String describe() {
+        return "student=" + studentId + " assignment=" + assignmentId + " grade=" + points + "/" + maxPoints + " classroom=" + classroomId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.virtualclassroom.event;
+
+public class AssignmentScheduled extends DomainEvent {
+    private final String classroomId;
+    private final String assignmentId;
+    private final String title;
+
+    public AssignmentScheduled(String classroomId, String assignmentId, String title) {
+        this.classroomId = classroomId;
+        this.assignmentId = assignmentId;
+        this.title = title;
+    }
+
+    public String getClassroomId() { return classroomId; }
+    public String getAssignmentId() { return assignmentId; }
+    public String getTitle() { return title; }
+
+    @Override
+    public String describe() {
+        return "assignment=" + assignmentId + " title=" + title + " classroom=" + classroomId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.virtualclassroom.event;
+
+public class AssignmentSubmitted extends DomainEvent {
+    private final String classroomId;
+    private final String assignmentId;
+    private final String studentId;
+
+    public AssignmentSubmitted(String classroomId, String assignmentId, String studentId) {
+        this.classroomId = classroomId;
+        this.assignmentId = assignmentId;
+        this.studentId = studentId;
+    }
+
+    public String getClassroomId() { return classroomId; }
+    public String getAssignmentId() { return assignmentId; }
+    public String getStudentId() { return studentId; }
+
+    @Override
+    public String describe() {
+        return "student=" + studentId + " assignment=" + assignmentId + " classroom=" + classroomId;
+    }
+}
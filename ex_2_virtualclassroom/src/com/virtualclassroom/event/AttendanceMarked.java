@@ -0,0 +1,22 @@
+package com.virtualclassroom.event;
+
+public class AttendanceMarked extends DomainEvent {
+    private final String classroomId;
+    private final String studentId;
+    private final boolean present;
+
+    public AttendanceMarked(String classroomId, String studentId, boolean present) {
+        this.classroomId = classroomId;
+        this.studentId = studentId;
+        this.present = present;
+    }
+
+    public String getClassroomId() { return classroomId; }
+    public String getStudentId() { return studentId; }
+    public boolean isPresent() { return present; }
+
+    @Override
+    public String describe() {
+        return "student=" + studentId + " classroom=" + classroomId + " " + (present ? "present" : "absent");
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Domain Event Base Class
+ *
+ * Immutable record of a state change on a classroom entity. The stream
+ * assigns the sequence number (the replay offset) when the event is published.
+ */
+package com.virtualclassroom.event;
+
+public abstract class DomainEvent {
+    private final long timestamp;
+    private long sequence;
+
+    protected DomainEvent() {
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public long getSequence() { return sequence; }
+
+    void assignSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Short event name, e.g. StudentEnrolled
+     */
+    public String getType() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Human-readable event payload
+     */
+    public abstract String describe();
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s %s", sequence, getType(), describe());
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Domain Event Stream (Singleton)
+ *
+ * Entry point for publishing domain events from entity mutators and for
+ * downstream integrations to subscribe and replay. Publishing is a single
+ * ring-buffer write, so subscribers never slow down the command path.
+ */
+package com.virtualclassroom.event;
+
+import com.virtualclassroom.util.Logger;
+
+import java.util.*;
+
+public class DomainEventStream {
+    private static DomainEventStream instance;
+    private static final Object lock = new Object();
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final EventRingBuffer buffer;
+    private final ThreadLocal<List<DomainEvent>> heldEvents;
+    private final Logger logger;
+
+    private DomainEventStream(int capacity) {
+        this.buffer = new EventRingBuffer(capacity);
+        this.heldEvents = new ThreadLocal<>();
+        this.logger = Logger.getInstance();
+    }
+
+    /**
+     * Size the ring buffer; must run at startup before anything publishes or subscribes
+     */
+    public static void configure(int capacity) {
+        synchronized (lock) {
+            if (instance != null) {
+                throw new IllegalStateException("Domain event stream already started");
+            }
+            instance = new DomainEventStream(capacity);
+        }
+    }
+
+    public static DomainEventStream getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new DomainEventStream(DEFAULT_CAPACITY);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Publish an event; callers are the entity mutators running on the command thread
+     */
+    public void publish(DomainEvent event) {
+        List<DomainEvent> held = heldEvents.get();
+        if (held != null) {
+            held.add(event);
+            return;
+        }
+        buffer.publish(event);
+        logger.debug("Event published: " + event);
+    }
+
+    /**
+     * Collect events published on this thread into the batch instead of the
+     * stream, until released; used to publish a command group only once it commits
+     */
+    public void hold(List<DomainEvent> batch) {
+        heldEvents.set(batch);
+    }
+
+    public void release() {
+        heldEvents.remove();
+    }
+
+    /**
+     * Publish a committed batch in order
+     */
+    public void publishAll(List<DomainEvent> batch) {
+        for (DomainEvent event : batch) {
+            buffer.publish(event);
+        }
+        if (!batch.isEmpty()) {
+            logger.debug("Published " + batch.size() + " batched events");
+        }
+    }
+
+    /**
+     * Subscribe starting after the most recently published event
+     */
+    public EventSubscription subscribe(String name) {
+        return new EventSubscription(name, buffer, buffer.getCursor() + 1);
+    }
+
+    /**
+     * Subscribe starting at the given offset (clamped to the retained window when read)
+     */
+    public EventSubscription subscribeFrom(String name, long offset) {
+        return new EventSubscription(name, buffer, offset);
+    }
+
+    /**
+     * Retained events from the given offset, at most limit entries
+     */
+    public List<DomainEvent> replay(long fromOffset, int limit) {
+        List<DomainEvent> events = new ArrayList<>();
+        subscribeFrom("replay", fromOffset).poll(limit, events::add);
+        return events;
+    }
+
+    public long getLatestOffset() { return buffer.getCursor(); }
+    public long getOldestOffset() { return buffer.getOldestSequence(); }
+    public int getCapacity() { return buffer.getCapacity(); }
+}
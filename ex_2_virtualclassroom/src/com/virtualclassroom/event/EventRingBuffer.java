@@ -0,0 +1,63 @@
+/**
+ * Single-Writer Multi-Reader Event Ring Buffer
+ *
+ * Fixed-size, power-of-two ring of published events. The single writer stores
+ * the event in its slot and then advances the cursor with a release write;
+ * readers never lock, they read up to the cursor and detect slots that were
+ * overwritten by comparing the event's sequence with the one they expected.
+ */
+package com.virtualclassroom.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EventRingBuffer {
+
+    private final DomainEvent[] slots;
+    private final int mask;
+    private final AtomicLong cursor; // sequence of the last published event, 0 = none
+
+    public EventRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two");
+        }
+        this.slots = new DomainEvent[capacity];
+        this.mask = capacity - 1;
+        this.cursor = new AtomicLong(0);
+    }
+
+    public int getCapacity() { return slots.length; }
+
+    /**
+     * Sequence of the most recently published event, 0 if nothing was published yet
+     */
+    public long getCursor() { return cursor.get(); }
+
+    /**
+     * Oldest sequence that is still retained and can be replayed
+     */
+    public long getOldestSequence() {
+        long last = cursor.get();
+        return Math.max(1, last - slots.length + 1);
+    }
+
+    /**
+     * Publish an event. Must only be called by the single writer thread.
+     */
+    public long publish(DomainEvent event) {
+        long sequence = cursor.get() + 1;
+        event.assignSequence(sequence);
+        slots[(int) (sequence & mask)] = event;
+        cursor.lazySet(sequence);
+        return sequence;
+    }
+
+    /**
+     * Read the event with the given sequence, or null if it is not published yet
+     * or has already been overwritten.
+     */
+    DomainEvent read(long sequence) {
+        if (sequence > cursor.get()) return null;
+        DomainEvent event = slots[(int) (sequence & mask)];
+        return event != null && event.getSequence() == sequence ? event : null;
+    }
+}
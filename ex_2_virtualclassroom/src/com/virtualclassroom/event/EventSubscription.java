@@ -0,0 +1,66 @@
+/**
+ * Event Subscription
+ *
+ * Independent reader position on the event ring buffer. Each subscriber
+ * consumes at its own pace; a subscriber that falls more than the buffer
+ * capacity behind skips to the oldest retained event and counts the overrun.
+ */
+package com.virtualclassroom.event;
+
+import java.util.function.Consumer;
+
+public class EventSubscription {
+    private final String name;
+    private final EventRingBuffer buffer;
+    private long nextSequence;
+    private long overruns;
+
+    EventSubscription(String name, EventRingBuffer buffer, long fromSequence) {
+        this.name = name;
+        this.buffer = buffer;
+        this.nextSequence = Math.max(1, fromSequence);
+    }
+
+    public String getName() { return name; }
+    public long getNextSequence() { return nextSequence; }
+    public long getOverruns() { return overruns; }
+
+    /**
+     * Number of published events this subscriber has not consumed yet
+     */
+    public long getLag() {
+        return Math.max(0, buffer.getCursor() - nextSequence + 1);
+    }
+
+    /**
+     * Move the read position, e.g. to replay from an earlier offset
+     */
+    public void seek(long sequence) {
+        this.nextSequence = Math.max(1, sequence);
+    }
+
+    /**
+     * Deliver up to maxEvents pending events to the consumer.
+     *
+     * @return the number of events delivered
+     */
+    public int poll(int maxEvents, Consumer<DomainEvent> consumer) {
+        int delivered = 0;
+        long available = buffer.getCursor();
+        while (delivered < maxEvents && nextSequence <= available) {
+            DomainEvent event = buffer.read(nextSequence);
+            if (event == null) {
+                // overwritten before we got to it: resume at the oldest retained event
+                long oldest = buffer.getOldestSequence();
+                overruns += oldest - nextSequence;
+                nextSequence = oldest;
+                available = buffer.getCursor();
+                continue;
+            }
+            consumer.accept(event);
+            nextSequence++;
+            delivered++;
+        }
+        return delivered;
+    }
+}
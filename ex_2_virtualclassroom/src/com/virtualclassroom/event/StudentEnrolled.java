@@ -0,0 +1,19 @@
+package com.virtualclassroom.event;
+
+public class StudentEnrolled extends DomainEvent {
+    private final String classroomId;
+    private final String studentId;
+
+    public StudentEnrolled(String classroomId, String studentId) {
+        this.classroomId = classroomId;
+        this.studentId = studentId;
+    }
+
+    public String getClassroomId() { return classroomId; }
+    public String getStudentId() { return studentId; }
+
+    @Override
+    public String describe() {
+        return "student=" + studentId + " classroom=" + classroomId;
+    }
+}
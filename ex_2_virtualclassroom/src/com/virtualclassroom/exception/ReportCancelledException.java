@@ -0,0 +1,18 @@
+package com.virtualclassroom.exception;
+
+/**
+ * Thrown at a report task checkpoint once the task was cancelled or ran past its deadline.
+ * Unchecked so it can leave parallel streams and render callbacks.
+ */
+public class ReportCancelledException extends RuntimeException {
+    private final long taskId;
+
+    public ReportCancelledException(long taskId, String reason) {
+        super("Report task #" + taskId + " " + reason);
+        this.taskId = taskId;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Final Grade Engine (Incremental Weighted Course Grades)
+ *
+ * Keeps, for every student slot of one classroom, the running weighted sum of
+ * graded percentages overall and per assignment category. Each recorded grade
+ * adjusts the sums by the difference to the previous grade, so a student's
+ * final grade is always available without rescanning the classroom's
+ * assignments.
+ *
+ * A student's final grade is the weight-averaged percentage of the
+ * assignments graded so far: sum(weight x percentage) / sum(weight).
+ */
+package com.virtualclassroom.grading;
+
+import com.virtualclassroom.entity.StudentSlotIndex;
+
+import java.util.*;
+
+public final class FinalGradeEngine {
+
+    private final StudentSlotIndex studentSlots;
+    private final Map<String, Integer> categoryIndexes;
+    private final List<String> categories;
+    private double[] weightedSums;           // slot -> sum(weight x percentage)
+    private double[] weightTotals;           // slot -> sum(weight) of graded assignments
+    private int[] gradedCounts;              // slot -> graded assignments
+    private double[][] categoryWeightedSums; // category -> slot -> sum(weight x percentage)
+    private double[][] categoryWeightTotals; // category -> slot -> sum(weight)
+
+    public FinalGradeEngine(StudentSlotIndex studentSlots) {
+        this.studentSlots = studentSlots;
+        this.categoryIndexes = new HashMap<>();
+        this.categories = new ArrayList<>();
+        this.weightedSums = new double[16];
+        this.weightTotals = new double[16];
+        this.gradedCounts = new int[16];
+        this.categoryWeightedSums = new double[0][];
+        this.categoryWeightTotals = new double[0][];
+    }
+
+    /**
+     * Apply a new or changed grade; previousPercentage is NaN if the student was not graded before
+     */
+    public void recordGrade(String studentId, String category, double weight, double previousPercentage, double percentage) {
+        int slot = studentSlots.slotOf(studentId);
+        if (slot < 0) return;
+        ensureCapacity(slot);
+        int categoryIndex = categoryIndex(category);
+        double[] categorySums = categoryWeightedSums[categoryIndex];
+        double[] categoryTotals = categoryWeightTotals[categoryIndex];
+        if (!Double.isNaN(previousPercentage)) {
+            weightedSums[slot] -= weight * previousPercentage;
+            categorySums[slot] -= weight * previousPercentage;
+        } else {
+            weightTotals[slot] += weight;
+            categoryTotals[slot] += weight;
+            gradedCounts[slot]++;
+        }
+        weightedSums[slot] += weight * percentage;
+        categorySums[slot] += weight * percentage;
+    }
+
+    /**
+     * Take back a grade recorded earlier, e.g. when a command group is rolled back
+     */
+    public void removeGrade(String studentId, String category, double weight, double percentage) {
+        int slot = studentSlots.slotOf(studentId);
+        if (slot < 0 || slot >= weightedSums.length) return;
+        int categoryIndex = categoryIndex(category);
+        weightedSums[slot] -= weight * percentage;
+        weightTotals[slot] -= weight;
+        gradedCounts[slot]--;
+        categoryWeightedSums[categoryIndex][slot] -= weight * percentage;
+        categoryWeightTotals[categoryIndex][slot] -= weight;
+        // drop floating-point residue once nothing is left to average
+        if (gradedCounts[slot] == 0) {
+            weightedSums[slot] = 0;
+            weightTotals[slot] = 0;
+        }
+        if (categoryWeightTotals[categoryIndex][slot] < 1e-9) {
+            categoryWeightedSums[categoryIndex][slot] = 0;
+            categoryWeightTotals[categoryIndex][slot] = 0;
+        }
+    }
+
+    /**
+     * Forget everything recorded for a slot; called when its student leaves the classroom
+     */
+    public void clearSlot(int slot) {
+        if (slot < 0 || slot >= weightedSums.length) return;
+        weightedSums[slot] = 0;
+        weightTotals[slot] = 0;
+        gradedCounts[slot] = 0;
+        for (int c = 0; c < categories.size(); c++) {
+            categoryWeightedSums[c][slot] = 0;
+            categoryWeightTotals[c][slot] = 0;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(weightedSums, 0);
+        Arrays.fill(weightTotals, 0);
+        Arrays.fill(gradedCounts, 0);
+        for (int c = 0; c < categories.size(); c++) {
+            Arrays.fill(categoryWeightedSums[c], 0);
+            Arrays.fill(categoryWeightTotals[c], 0);
+        }
+    }
+
+    // --- Queries ---
+
+    public List<String> getCategories() {
+        return Collections.unmodifiableList(categories);
+    }
+
+    /**
+     * Weighted final percentage of a student, or NaN if nothing is graded yet
+     */
+    public double getFinalPercentage(String studentId) {
+        int slot = studentSlots.slotOf(studentId);
+        if (slot < 0 || slot >= weightTotals.length || weightTotals[slot] == 0) return Double.NaN;
+        return weightedSums[slot] / weightTotals[slot];
+    }
+
+    /**
+     * Every student with at least one graded assignment, best final grade first
+     */
+    public List<FinalGrade> getRankedGrades(GradingPolicy policy) {
+        List<FinalGrade> ranked = new ArrayList<>();
+        int limit = Math.min(studentSlots.getHighWaterMark(), weightTotals.length);
+        for (int slot = 0; slot < limit; slot++) {
+            String studentId = studentSlots.studentAt(slot);
+            if (studentId == null || weightTotals[slot] == 0) continue;
+            double percentage = weightedSums[slot] / weightTotals[slot];
+            double[] byCategory = new double[categories.size()];
+            for (int c = 0; c < byCategory.length; c++) {
+                double total = categoryWeightTotals[c][slot];
+                byCategory[c] = total == 0 ? Double.NaN : categoryWeightedSums[c][slot] / total;
+            }
+            ranked.add(new FinalGrade(studentId, percentage, policy.letterGrade(percentage), gradedCounts[slot], byCategory));
+        }
+        ranked.sort(Comparator.comparingDouble(FinalGrade::getPercentage).reversed()
+                .thenComparing(FinalGrade::getStudentId));
+        return ranked;
+    }
+
+    private int categoryIndex(String category) {
+        Integer index = categoryIndexes.get(category);
+        if (index != null) return index;
+        int created = categories.size();
+        categories.add(category);
+        categoryIndexes.put(category, created);
+        categoryWeightedSums = Arrays.copyOf(categoryWeightedSums, created + 1);
+        categoryWeightTotals = Arrays.copyOf(categoryWeightTotals, created + 1);
+        categoryWeightedSums[created] = new double[weightedSums.length];
+        categoryWeightTotals[created] = new double[weightedSums.length];
+        return created;
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot < weightedSums.length) return;
+        int capacity = Math.max(slot + 1, weightedSums.length * 2);
+        weightedSums = Arrays.copyOf(weightedSums, capacity);
+        weightTotals = Arrays.copyOf(weightTotals, capacity);
+        gradedCounts = Arrays.copyOf(gradedCounts, capacity);
+        for (int c = 0; c < categories.size(); c++) {
+            categoryWeightedSums[c] = Arrays.copyOf(categoryWeightedSums[c], capacity);
+            categoryWeightTotals[c] = Arrays.copyOf(categoryWeightTotals[c], capacity);
+        }
+    }
+
+    /**
+     * One student's final grade with the per-category breakdown (NaN where a category has no graded work)
+     */
+    public static final class FinalGrade {
+        private final String studentId;
+        private final double percentage;
+        private final String letterGrade;
+        private final int gradedAssignments;
+        private final double[] categoryPercentages;
+
+        FinalGrade(String studentId, double percentage, String letterGrade, int gradedAssignments, double[] categoryPercentages) {
+            this.studentId = studentId;
+            this.percentage = percentage;
+            this.letterGrade = letterGrade;
+            this.gradedAssignments = gradedAssignments;
+            this.categoryPercentages = categoryPercentages;
+        }
+
+        public String getStudentId() { return studentId; }
+        public double getPercentage() { return percentage; }
+        public String getLetterGrade() { return letterGrade; }
+        public int getGradedAssignments() { return gradedAssignments; }
+        public double getCategoryPercentage(int categoryIndex) { return categoryPercentages[categoryIndex]; }
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Grading Policy (Compiled Letter-Grade Scheme)
+ *
+ * A classroom's letter scale and optional curve, compiled once into a lookup
+ * table over raw percentages in 0.1% steps. Turning a percentage into a
+ * letter is then a single array read, and a whole class can be re-lettered
+ * in one pass when the policy changes.
+ *
+ * Schemes: standard (A-F at 90/80/70/60), plus_minus, pass_fail, or a custom
+ * list such as "A:90,B:80,C:70,D:60,F:0".
+ * Curves: none, shift:<points>, scale:<factor>, sqrt (10 x sqrt(percentage)).
+ */
+package com.virtualclassroom.grading;
+
+import com.virtualclassroom.exception.ValidationException;
+
+import java.util.*;
+
+public final class GradingPolicy {
+
+    private static final int STEPS_PER_PERCENT = 10;
+    private static final int TABLE_SIZE = 100 * STEPS_PER_PERCENT + 1;
+
+    private static final String STANDARD_SCHEME = "A:90,B:80,C:70,D:60,F:0";
+    private static final String PLUS_MINUS_SCHEME =
+            "A+:97,A:93,A-:90,B+:87,B:83,B-:80,C+:77,C:73,C-:70,D+:67,D:63,D-:60,F:0";
+    private static final String PASS_FAIL_SCHEME = "P:60,F:0";
+
+    private static final GradingPolicy STANDARD = compileUnchecked("standard", STANDARD_SCHEME, "none");
+
+    private final String schemeName;
+    private final String curveSpec;
+    private final String[] letters;     // best first
+    private final double[] minimums;    // minimum curved percentage per letter
+    private final byte[] letterTable;   // raw percentage step -> letter index
+
+    private GradingPolicy(String schemeName, String curveSpec, String[] letters, double[] minimums, byte[] letterTable) {
+        this.schemeName = schemeName;
+        this.curveSpec = curveSpec;
+        this.letters = letters;
+        this.minimums = minimums;
+        this.letterTable = letterTable;
+    }
+
+    /**
+     * The traditional 90/80/70/60 scale without a curve
+     */
+    public static GradingPolicy standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Compile a scheme (preset name or custom letter list) and curve into a policy
+     */
+    public static GradingPolicy compile(String scheme, String curve) throws ValidationException {
+        String normalizedScheme = scheme == null ? "standard" : scheme.trim();
+        String definition = switch (normalizedScheme.toLowerCase()) {
+            case "standard" -> STANDARD_SCHEME;
+            case "plus_minus" -> PLUS_MINUS_SCHEME;
+            case "pass_fail" -> PASS_FAIL_SCHEME;
+            default -> normalizedScheme;
+        };
+        String name = definition.equals(normalizedScheme) ? "custom" : normalizedScheme.toLowerCase();
+        return build(name, definition, curve == null ? "none" : curve.trim().toLowerCase());
+    }
+
+    // --- Lookups ---
+
+    /**
+     * Index of the letter earned by a raw percentage; 0 is the best letter
+     */
+    public int letterIndex(double percentage) {
+        int step = (int) Math.floor(percentage * STEPS_PER_PERCENT + 1e-9);
+        return letterTable[Math.max(0, Math.min(TABLE_SIZE - 1, step))];
+    }
+
+    public String letterGrade(double percentage) {
+        return letters[letterIndex(percentage)];
+    }
+
+    public String letterAt(int index) {
+        return letters[index];
+    }
+
+    public int getLetterCount() { return letters.length; }
+    public List<String> getLetters() { return List.of(letters); }
+    public String getSchemeName() { return schemeName; }
+    public String getCurveSpec() { return curveSpec; }
+
+    /**
+     * Apply the curve to a raw percentage, capped at 100
+     */
+    public double curve(double percentage) {
+        return applyCurve(curveSpec, percentage);
+    }
+
+    public String describe() {
+        StringBuilder description = new StringBuilder();
+        description.append("Scheme: ").append(schemeName).append(" | Curve: ").append(curveSpec).append("\n");
+        description.append("Scale: ");
+        for (int i = 0; i < letters.length; i++) {
+            if (i > 0) description.append(", ");
+            description.append(letters[i]).append(" >= ").append(formatPercent(minimums[i])).append("%");
+        }
+        return description.toString();
+    }
+
+    // --- Compilation ---
+
+    private static GradingPolicy build(String name, String definition, String curve) throws ValidationException {
+        validateCurve(curve);
+        String[] entries = definition.split(",");
+        String[] letters = new String[entries.length];
+        double[] minimums = new double[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            String[] fields = entries[i].trim().split(":");
+            if (fields.length != 2 || fields[0].isBlank()) {
+                throw new ValidationException("Invalid grading scheme entry: " + entries[i] + " (expected LETTER:minimum)");
+            }
+            letters[i] = fields[0].trim();
+            try {
+                minimums[i] = Double.parseDouble(fields[1].trim());
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Invalid minimum percentage in grading scheme: " + entries[i]);
+            }
+            if (i > 0 && minimums[i] >= minimums[i - 1]) {
+                throw new ValidationException("Grading scheme minimums must be strictly decreasing: " + definition);
+            }
+        }
+        if (minimums[entries.length - 1] > 0) {
+            throw new ValidationException("The lowest letter of a grading scheme must start at 0: " + definition);
+        }
+        if (letters.length > Byte.MAX_VALUE) {
+            throw new ValidationException("Too many letters in grading scheme: " + letters.length);
+        }
+        byte[] table = new byte[TABLE_SIZE];
+        int letter = letters.length - 1;
+        // raw percentages ascend and every supported curve is monotonic, so one sweep fills the table
+        for (int step = 0; step < TABLE_SIZE; step++) {
+            double curved = applyCurve(curve, (double) step / STEPS_PER_PERCENT);
+            while (letter > 0 && curved + 1e-9 >= minimums[letter - 1]) {
+                letter--;
+            }
+            table[step] = (byte) letter;
+        }
+        return new GradingPolicy(name, curve, letters, minimums, table);
+    }
+
+    private static void validateCurve(String curve) throws ValidationException {
+        try {
+            applyCurve(curve, 50);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid curve: " + curve + " (use none, shift:<points>, scale:<factor> or sqrt)");
+        }
+    }
+
+    private static double applyCurve(String curve, double percentage) {
+        double curved;
+        if (curve.equals("none")) {
+            curved = percentage;
+        } else if (curve.equals("sqrt")) {
+            curved = 10 * Math.sqrt(Math.max(0, percentage));
+        } else if (curve.startsWith("shift:")) {
+            curved = percentage + Double.parseDouble(curve.substring(6));
+        } else if (curve.startsWith("scale:")) {
+            double factor = Double.parseDouble(curve.substring(6));
+            if (factor <= 0) throw new IllegalArgumentException("Scale factor must be positive");
+            curved = percentage * factor;
+        } else {
+            throw new IllegalArgumentException("Unknown curve: " + curve);
+        }
+        return Math.min(100, curved);
+    }
+
+    private static GradingPolicy compileUnchecked(String name, String definition, String curve) {
+        try {
+            return build(name, definition, curve);
+        } catch (ValidationException e) {
+            throw new IllegalStateException("Invalid built-in grading scheme " + name, e);
+        }
+    }
+
+    private static String formatPercent(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+        return schemeName + (curveSpec.equals("none") ? "" : " (" + curveSpec + ")");
+    }
+}
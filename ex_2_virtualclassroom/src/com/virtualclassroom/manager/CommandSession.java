@@ -0,0 +1,87 @@
+/**
+ * Command Session
+ *
+ * Where a command writes its output and reads its confirmations from. The
+ * console session wraps System.out and the terminal scanner; headless sessions
+ * (replayed workloads, bulk loads) have no input and answer every
+ * confirmation prompt with "yes". Remote sessions are headless sessions of
+ * console server clients; they may not name files on the server.
+ */
+package com.virtualclassroom.manager;
+
+import com.virtualclassroom.enums.OutputMode;
+import com.virtualclassroom.util.ConsoleRenderer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+public class CommandSession {
+
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    private final String name;
+    private final PrintStream out;
+    private final Scanner input;
+    private final boolean remote;
+    private volatile OutputMode outputMode;
+
+    public CommandSession(String name, PrintStream out, Scanner input) {
+        this(name, out, input, false);
+    }
+
+    private CommandSession(String name, PrintStream out, Scanner input, boolean remote) {
+        this.name = name;
+        this.out = out;
+        this.input = input;
+        this.remote = remote;
+        this.outputMode = OutputMode.fromSystemProperty();
+    }
+
+    /**
+     * Non-interactive session that writes to the given stream
+     */
+    public static CommandSession headless(String name, PrintStream out) {
+        return new CommandSession(name, out, null);
+    }
+
+    /**
+     * Non-interactive session of a client connected over the network
+     */
+    public static CommandSession remote(String name, PrintStream out) {
+        return new CommandSession(name, out, null, true);
+    }
+
+    /**
+     * Non-interactive session whose output is thrown away
+     */
+    public static CommandSession discarding(String name) {
+        return new CommandSession(name, DISCARD, null);
+    }
+
+    public String getName() { return name; }
+    public PrintStream out() { return out; }
+    public boolean isInteractive() { return input != null; }
+    public boolean isRemote() { return remote; }
+    public OutputMode getOutputMode() { return outputMode; }
+    public void setOutputMode(OutputMode outputMode) { this.outputMode = outputMode; }
+
+    /**
+     * Buffered renderer for a listing; call finish() once the listing is complete
+     */
+    public ConsoleRenderer renderer() {
+        return new ConsoleRenderer(out, outputMode);
+    }
+
+    /**
+     * Ask a yes/no question; headless sessions always proceed
+     */
+    public boolean confirm(String prompt) {
+        if (input == null) {
+            return true;
+        }
+        out.print(prompt + " (yes/no): ");
+        out.flush();
+        return input.hasNextLine() && input.nextLine().trim().equalsIgnoreCase("yes");
+    }
+}
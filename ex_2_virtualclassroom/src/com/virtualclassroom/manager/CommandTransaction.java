@@ -0,0 +1,130 @@
+/**
+ * Command Transaction
+ *
+ * Unit of work for one command, or for a begin ... commit group of commands
+ * from one session. Model changes are reverted through the undo log; domain
+ * events, notifications and student store writes are held back and only take
+ * effect when the unit commits, so a rolled-back unit leaves no trace.
+ */
+package com.virtualclassroom.manager;
+
+import com.virtualclassroom.entity.UndoLog;
+import com.virtualclassroom.event.DomainEvent;
+import com.virtualclassroom.event.DomainEventStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class CommandTransaction {
+
+    /**
+     * Student store write applied at commit; reverted if a later write of the same unit fails
+     */
+    interface StoreWrite {
+        void apply() throws Exception;
+
+        default void revert() throws Exception {}
+    }
+
+    private final CommandSession owner;
+    private final boolean explicit;
+    private final UndoLog undoLog;
+    private final List<DomainEvent> events;
+    private final List<String> notifications;
+    private final List<StoreWrite> storeWrites;
+    private final long startNanos;
+    private int commandCount;
+
+    CommandTransaction(CommandSession owner, boolean explicit) {
+        this.owner = owner;
+        this.explicit = explicit;
+        this.undoLog = new UndoLog();
+        this.events = new ArrayList<>();
+        this.notifications = new ArrayList<>();
+        this.storeWrites = new ArrayList<>();
+        this.startNanos = System.nanoTime();
+    }
+
+    CommandSession getOwner() { return owner; }
+    boolean isExplicit() { return explicit; }
+    List<DomainEvent> getEvents() { return events; }
+    List<String> getNotifications() { return notifications; }
+    List<StoreWrite> getStoreWrites() { return storeWrites; }
+    int getCommandCount() { return commandCount; }
+    int getUndoSize() { return undoLog.size(); }
+    long getElapsedMillis() { return (System.nanoTime() - startNanos) / 1_000_000; }
+
+    /**
+     * Route this thread's model changes and events into the transaction while one command runs
+     */
+    void bind() {
+        undoLog.bind();
+        DomainEventStream.getInstance().hold(events);
+    }
+
+    void unbind() {
+        UndoLog.unbind();
+        DomainEventStream.getInstance().release();
+    }
+
+    void countCommand() {
+        commandCount++;
+    }
+
+    Savepoint savepoint() {
+        return new Savepoint(undoLog.mark(), events.size(), notifications.size(), storeWrites.size());
+    }
+
+    /**
+     * Revert everything done since the savepoint
+     *
+     * @return the number of model changes undone
+     */
+    int rollbackTo(Savepoint savepoint) {
+        int undone = undoLog.rollbackTo(savepoint.undoMark);
+        truncate(events, savepoint.eventCount);
+        truncate(notifications, savepoint.notificationCount);
+        truncate(storeWrites, savepoint.storeWriteCount);
+        return undone;
+    }
+
+    /**
+     * Revert the whole unit
+     *
+     * @return the number of model changes undone
+     */
+    int rollbackAll() {
+        int undone = undoLog.rollbackTo(0);
+        events.clear();
+        notifications.clear();
+        storeWrites.clear();
+        return undone;
+    }
+
+    /**
+     * Drop the undo history once the unit's changes are final
+     */
+    void clearUndo() {
+        undoLog.clear();
+    }
+
+    private static void truncate(List<?> list, int size) {
+        if (list.size() > size) {
+            list.subList(size, list.size()).clear();
+        }
+    }
+
+    static final class Savepoint {
+        private final int undoMark;
+        private final int eventCount;
+        private final int notificationCount;
+        private final int storeWriteCount;
+
+        private Savepoint(int undoMark, int eventCount, int notificationCount, int storeWriteCount) {
+            this.undoMark = undoMark;
+            this.eventCount = eventCount;
+            this.notificationCount = notificationCount;
+            this.storeWriteCount = storeWriteCount;
+        }
+    }
+}
@@ -1,20 +1,99 @@
 package com.virtualclassroom.manager;
 
+import com.virtualclassroom.admission.AdmissionController;
+import com.virtualclassroom.analytics.InstitutionAnalytics;
+import com.virtualclassroom.analytics.SimilarityDetector;
+import com.virtualclassroom.analytics.StudentProgressView;
+import com.virtualclassroom.analytics.StudentRankings;
+import com.virtualclassroom.cache.ReportCache;
+import com.virtualclassroom.config.AppConfig;
 import com.virtualclassroom.entity.*;
+import com.virtualclassroom.enums.AssignmentStatus;
+import com.virtualclassroom.enums.CommandCost;
+import com.virtualclassroom.enums.OutputMode;
+import com.virtualclassroom.enums.WaitlistMode;
 import com.virtualclassroom.util.*;
+import com.virtualclassroom.enums.AuditAction;
+import com.virtualclassroom.event.AssignmentGraded;
+import com.virtualclassroom.event.AttendanceMarked;
+import com.virtualclassroom.event.DomainEvent;
+import com.virtualclassroom.event.DomainEventStream;
+import com.virtualclassroom.event.StudentEnrolled;
+import com.virtualclassroom.event.StudentUnenrolled;
 import com.virtualclassroom.exception.*;
+import com.virtualclassroom.grading.FinalGradeEngine;
+import com.virtualclassroom.grading.GradingPolicy;
+import com.virtualclassroom.scheduler.DeadlineScheduler;
+import com.virtualclassroom.storage.AuditLog;
+import com.virtualclassroom.storage.AuditRecord;
+import com.virtualclassroom.storage.BlobStore;
+import com.virtualclassroom.storage.MappedStudentStore;
+import com.virtualclassroom.task.ReportTask;
+import com.virtualclassroom.task.ReportTasks;
+import com.virtualclassroom.workload.WorkloadRecorder;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 public class VirtualClassroomManager {
 
     private final Map<String, Classroom> classrooms;
+    private final Map<String, Classroom> classroomsById;
     private final Map<String, Student> students;
-    private final List<String> notifications;
+    private final Deque<String> notifications;
+    private final ReportCache reportCache;
+    private final InstitutionAnalytics institutionAnalytics;
+    private final SimilarityDetector similarityDetector;
+    private final StudentRankings studentRankings;
+    private final StudentProgressView studentProgress;
+    private final DeadlineScheduler deadlineScheduler;
     private final Scanner scanner;
     private final Logger logger;
+    private final CommandSession consoleSession;
+    private final ThreadLocal<CommandSession> currentSession;
+    private final ReportTasks reportTasks;
+    private final ThreadLocal<ReportTask> currentTask;
+    private final long reportTimeoutMillis;
+    private final Path uploadDirectory;            // null: only local sessions may submit files
+    private final ThreadLocal<Runnable> deferredRender;
+    // a lock rather than a monitor: sessions waiting on it or on an open group must not pin virtual-thread carriers
+    private final ReentrantLock modelLock;
+    private final Condition groupClosed;
+    private MappedStudentStore studentStore;
+    private BlobStore blobStore;
+    private AuditLog auditLog;
+    private AdmissionController admissionController; // remote sessions only; the local console is never throttled
+    private WorkloadRecorder workloadRecorder;
+    private CommandTransaction openTransaction;   // begin ... commit group, owned by one session
+    private CommandTransaction activeTransaction; // unit of the command being processed
+    private long notificationCount;
     private boolean isRunning;
+    private final int defaultCapacity;
+    private final int defaultPageSize;
+    private boolean awaitingFirstCommand; // set once startup completes, cleared by the first command served
+    // Only the most recent notifications are kept for the shutdown summary
+    private static final int MAX_RETAINED_NOTIFICATIONS = 1000;
+    private static final int ROWS_PER_CHECKPOINT = 64;
+    private static final DateTimeFormatter PROGRESS_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private static final String WELCOME_MESSAGE = """
             ╔══════════════════════════════════════════════════════════════╗
             ║                 Virtual Classroom Manager v3.0               ║
@@ -29,20 +108,24 @@ public class VirtualClassroomManager {
             📚 CLASSROOM MANAGEMENT:
                add_classroom <name> [description] [capacity]
                remove_classroom <name>
+               rename_classroom <name> <newName>
                list_classrooms [page] [pageSize] [filter]
                classroom_details <name>
             
             👥 STUDENT MANAGEMENT:
-               add_student <studentId> <name> <email> <className>
-               remove_student <studentId> <className>
+               add_student <studentId> <name> <email> <className> [priority] - Waitlists the student when full
+               remove_student <studentId> <className> - Also removes a waitlisted student
+               waitlist <className> [off|fifo|priority] [limit] - Show or configure the waitlist
                list_students <className> [page] [pageSize] [filter]
                student_profile <studentId>
             
             📝 ASSIGNMENT MANAGEMENT:
-               schedule_assignment <className> <title> <description> [maxPoints]
+               schedule_assignment <className> <title> <description> [maxPoints] [dueDate|-] [category] [weight]
                submit_assignment <studentId> <className> <assignmentTitle> [fileName]
-               list_assignments <className>
+               list_assignments <className> [status]
                grade_assignment <className> <assignmentTitle> <studentId> <grade> [feedback]
+               grading_policy <className> [standard|plus_minus|pass_fail|A:90,B:80,...] [curve]
+               final_grades <className> [limit] - Weighted final grades, best first
             
             📋 ATTENDANCE MANAGEMENT:
                mark_attendance <className> <studentId:present/absent> [...]
@@ -54,66 +137,417 @@ public class VirtualClassroomManager {
                classroom_analytics <className>
                submission_analytics <className>
                student_progress <studentId>
+               institution_analytics [listLimit]
+               rank_students <attendance|grades|submissions> [top|bottom] [count]
+               similarity_report <className> <assignmentTitle> [minSimilarity%]
+               events [fromOffset] [limit] - Replay the domain event stream
+               audit <studentId> [from] [to] [limit] - Grade, attendance and enrollment history (dates as yyyy-MM-dd[THH:mm])
             
             ⚙️  SYSTEM COMMANDS:
                help - Show this menu
                exit - Exit the application
                clear - Clear screen
                debug [on/off] - Toggle debug logging
+               output [rich|plain] - Show or switch this terminal's output mode
+               cache_stats - Show report cache statistics
+               admission_stats - Show rate limiting and load shedding counters
+               tasks - List running reports with their progress
+               cancel <taskId> - Stop a running report; rows already produced are kept
+               storage_stats [className] - Show submission file storage usage
+
+            🔁 COMMAND GROUPS:
+               begin - Start a group; its commands apply together or not at all
+               commit - Apply the group and persist it with a single sync
+               rollback - Discard every change made since begin
             
             ═══════════════════════════════════════════════════════════════
             """;
 
     public VirtualClassroomManager() {
+        this(AppConfig.defaults());
+    }
+
+    public VirtualClassroomManager(AppConfig config) {
         this.classrooms = new HashMap<>();
+        this.classroomsById = new HashMap<>();
         this.students = new HashMap<>();
-        this.notifications = new ArrayList<>();
+        this.notifications = new ArrayDeque<>();
+        this.reportCache = new ReportCache(config.getReportCacheEntries());
+        this.defaultCapacity = config.getDefaultClassroomCapacity();
+        this.defaultPageSize = config.getDefaultPageSize();
+        this.institutionAnalytics = new InstitutionAnalytics();
+        this.similarityDetector = new SimilarityDetector();
+        this.studentRankings = new StudentRankings(students::get, students::values);
+        this.studentProgress = new StudentProgressView();
+        this.deadlineScheduler = new DeadlineScheduler(this::addNotification);
         this.scanner = new Scanner(System.in);
         this.logger = Logger.getInstance();
+        this.consoleSession = new CommandSession("console", System.out, scanner);
+        this.currentSession = new ThreadLocal<>();
+        this.reportTasks = new ReportTasks();
+        this.currentTask = new ThreadLocal<>();
+        this.reportTimeoutMillis = config.getReportTimeoutMillis();
+        this.uploadDirectory = config.getUploadDirectory() != null
+                ? Paths.get(config.getUploadDirectory()).toAbsolutePath().normalize() : null;
+        this.deferredRender = new ThreadLocal<>();
+        this.modelLock = new ReentrantLock();
+        this.groupClosed = modelLock.newCondition();
         this.isRunning = false;
         logger.info("Virtual Classroom Manager initialized");
     }
 
+    /**
+     * Back student lookups with an off-heap store; students are faulted into
+     * the heap map only when a command needs to mutate them.
+     */
+    public void attachStudentStore(MappedStudentStore store) throws ValidationException {
+        for (Classroom classroom : classrooms.values()) {
+            store.bindClassroom(classroom.getClassroomId(), classroom.getName());
+        }
+        this.studentStore = store;
+        logger.info("Student store attached: " + store.getDirectory() + " (" + store.size() + " students)");
+    }
+
+    /**
+     * Keep the content of submitted files that exist on disk in a deduplicating blob store
+     */
+    public void attachBlobStore(BlobStore store) {
+        this.blobStore = store;
+        logger.info("Blob store attached: " + store.getRoot());
+    }
+
+    /**
+     * Append every committed grade, attendance and enrollment change to an audit log
+     */
+    public void attachAuditLog(AuditLog log) {
+        this.auditLog = log;
+        logger.info("Audit log attached: " + log.getDirectory());
+    }
+
+    /**
+     * Rate-limit and shed commands from sessions other than the local console; attach before serving clients
+     */
+    public void attachAdmissionController(AdmissionController controller) {
+        this.admissionController = controller;
+        logger.info("Admission control enabled");
+    }
+
+    /**
+     * Append every processed command to a workload recording for later replay
+     */
+    public void setWorkloadRecorder(WorkloadRecorder recorder) {
+        this.workloadRecorder = recorder;
+        logger.info("Recording workload to " + recorder.getPath());
+    }
+
+    /**
+     * Whether a classroom with this name exists
+     */
+    public boolean hasClassroom(String name) {
+        modelLock.lock();
+        try {
+            return classrooms.containsKey(name);
+        } finally {
+            modelLock.unlock();
+        }
+    }
+
+    /**
+     * Forget cached reports, e.g. those rendered from rolled-back warm-up entities
+     */
+    public void clearReportCache() {
+        reportCache.clear();
+    }
+
+    /**
+     * Startup (preloading, warm-up) is complete; the next command served is
+     * timed as the time to first command.
+     */
+    public void markReady() {
+        modelLock.lock();
+        try {
+            awaitingFirstCommand = true;
+        } finally {
+            modelLock.unlock();
+        }
+        logger.info("Ready for commands " + millisSinceJvmStart() + " ms after JVM start");
+    }
+
+    private static long millisSinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    /**
+     * Run one command on behalf of a session. Commands from concurrent
+     * sessions are serialized on the model lock, and while a session has a
+     * command group open, other sessions wait until it commits or rolls back.
+     * A failed command never leaves partial changes behind.
+     *
+     * @return false if the command was unknown, failed with an error or was not admitted
+     */
+    public boolean executeCommand(CommandSession session, String input) {
+        String[] parts = input.trim().split("\\s+");
+        CommandCost cost = CommandCost.of(parts[0]);
+        if (parts[0].equalsIgnoreCase("tasks") || parts[0].equalsIgnoreCase("cancel")) {
+            // served without the model lock so a report holding it can still be cancelled
+            return handleTaskCommand(session, parts);
+        }
+        if (admissionController == null || session == consoleSession) {
+            return runTracked(session, input, cost);
+        }
+        // decided before queueing on the model lock, so a rejected command costs the server nothing
+        try (AdmissionController.Ticket ticket = admissionController.admit(session.getName(), cost)) {
+            if (!ticket.isAdmitted()) {
+                session.out().println("⏳ " + ticket.getRejection());
+                return false;
+            }
+            return runTracked(session, input, cost);
+        }
+    }
+
+    /**
+     * Run a report command as a cancellable task with the configured deadline; other commands run directly
+     */
+    private boolean runTracked(CommandSession session, String input, CommandCost cost) {
+        if (cost != CommandCost.REPORT) {
+            return runCommand(session, input);
+        }
+        ReportTask task = reportTasks.start(session.getName(), input.trim(), reportTimeoutMillis);
+        currentTask.set(task);
+        try {
+            return runCommand(session, input);
+        } finally {
+            currentTask.remove();
+            reportTasks.finish(task);
+        }
+    }
+
+    /**
+     * 'tasks' and 'cancel'; they only touch the task registry and never take the model lock
+     */
+    private boolean handleTaskCommand(CommandSession session, String[] parts) {
+        PrintStream out = session.out();
+        if (parts[0].equalsIgnoreCase("tasks")) {
+            List<ReportTask> running = reportTasks.getRunning();
+            if (running.isEmpty()) {
+                out.println("📄 No reports running");
+                return true;
+            }
+            out.println(String.format("%6s  %-12s %9s %12s  %s", "TASK", "SESSION", "ELAPSED", "PROGRESS", "COMMAND"));
+            for (ReportTask task : running) {
+                out.println(String.format("%6d  %-12s %7d ms %12s  %s%s", task.getId(), task.getSessionName(),
+                        task.getElapsedMillis(), task.getProgress(), task.getCommand(), task.isCancelled() ? " (cancelling)" : ""));
+            }
+            return true;
+        }
+        if (parts.length < 2) {
+            out.println("Usage: cancel <taskId>");
+            return false;
+        }
+        long id;
+        try {
+            id = Long.parseLong(parts[1].startsWith("#") ? parts[1].substring(1) : parts[1]);
+        } catch (NumberFormatException e) {
+            out.println("❌ Invalid task id: " + parts[1]);
+            return false;
+        }
+        ReportTask task = reportTasks.cancel(id, "cancelled by " + session.getName());
+        if (task == null) {
+            out.println("❌ No running report with task id " + id + " (see 'tasks')");
+            return false;
+        }
+        out.println("⛔ Cancelling report task #" + id + " (" + task.getCommand() + "); it stops at its next checkpoint");
+        logger.info("Report task #" + id + " cancelled by " + session.getName());
+        return true;
+    }
+
+    private boolean runCommand(CommandSession session, String input) {
+        boolean succeeded = false;
+        Runnable render;
+        boolean firstCommand;
+        modelLock.lock();
+        try {
+            if (!awaitTurn(session)) {
+                session.out().println("❌ Interrupted while waiting for another session's command group");
+                return false;
+            }
+            if (openTransaction == null) {
+                // timers fire outside any unit of work so a failing command cannot undo them
+                deadlineScheduler.advance();
+            }
+            currentSession.set(session);
+            CommandTransaction unit = openTransaction != null ? openTransaction : new CommandTransaction(session, false);
+            CommandTransaction.Savepoint savepoint = unit.savepoint();
+            activeTransaction = unit;
+            unit.bind();
+            try {
+                succeeded = processCommand(input.trim());
+            } finally {
+                unit.unbind();
+                activeTransaction = null;
+                if (!succeeded) {
+                    int undone = unit.rollbackTo(savepoint);
+                    if (undone > 0) {
+                        out().println("↩️  Rolled back " + undone + " partial change(s) from the failed command");
+                    }
+                } else if (unit == openTransaction) {
+                    unit.countCommand();
+                }
+                if (!unit.isExplicit()) {
+                    try {
+                        commitTransaction(unit);
+                    } catch (ValidationException e) {
+                        out().println("❌ " + e.getMessage());
+                        succeeded = false;
+                    }
+                }
+                render = deferredRender.get();
+                deferredRender.remove();
+                currentSession.remove();
+            }
+            firstCommand = awaitingFirstCommand;
+            awaitingFirstCommand = false;
+        } finally {
+            modelLock.unlock();
+        }
+        if (render == null) {
+            if (firstCommand) logTimeToFirstCommand();
+            return succeeded;
+        }
+        // snapshot reports render after the lock is released so writers are not blocked
+        currentSession.set(session);
+        try {
+            checkpointReport();
+            render.run();
+            return succeeded;
+        } catch (ReportCancelledException e) {
+            out().println("⛔ " + e.getMessage());
+            return false;
+        } catch (Exception e) {
+            out().println("❌ Error rendering report: " + e.getMessage());
+            logger.error("Error rendering report for: " + input, e);
+            return false;
+        } finally {
+            currentSession.remove();
+            if (firstCommand) logTimeToFirstCommand();
+        }
+    }
+
+    private void logTimeToFirstCommand() {
+        logger.info("Time to first command: " + millisSinceJvmStart() + " ms after JVM start");
+    }
+
+    /**
+     * Release whatever a session still holds; an open command group is rolled back
+     */
+    public void endSession(CommandSession session) {
+        if (admissionController != null) {
+            admissionController.forget(session.getName());
+        }
+        modelLock.lock();
+        try {
+            if (openTransaction != null && openTransaction.getOwner() == session) {
+                int undone = openTransaction.rollbackAll();
+                openTransaction = null;
+                groupClosed.signalAll();
+                logger.warn("Session " + session.getName() + " ended with an open command group; rolled back " + undone + " change(s)");
+            }
+        } finally {
+            modelLock.unlock();
+        }
+    }
+
+    private boolean awaitTurn(CommandSession session) {
+        while (openTransaction != null && openTransaction.getOwner() != session) {
+            try {
+                groupClosed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void start() {
         logger.info("Starting Virtual Classroom Manager");
-        System.out.println(WELCOME_MESSAGE);
-        System.out.println("Welcome! Type 'help' to see available commands.");
+        out().println(WELCOME_MESSAGE);
+        out().println("Welcome! Type 'help' to see available commands.");
 
         isRunning = true;
 
         while (isRunning) {
             try {
-                System.out.print("\n🎓 VCM > ");
+                out().print("\n🎓 VCM > ");
+                if (!scanner.hasNextLine()) {
+                    // end of piped input behaves like exit
+                    break;
+                }
                 String input = scanner.nextLine().trim();
 
                 if (input.isEmpty()) {
                     continue;
                 }
 
-                processCommand(input);
+                executeCommand(consoleSession, input);
 
             } catch (Exception e) {
                 logger.error("Unexpected error in main loop", e);
-                System.out.println("❌ An unexpected error occurred. Please try again.");
+                out().println("❌ An unexpected error occurred. Please try again.");
             }
         }
 
         cleanup();
     }
 
-    private void processCommand(String input) {
+    /**
+     * Run commands without a prompt and shut down, for one scripted CLI invocation.
+     * Blank lines and lines starting with '#' are skipped; 'exit' stops the batch.
+     *
+     * @return the number of commands that failed
+     */
+    public int runBatch(List<String> commands) {
+        CommandSession batchSession = CommandSession.headless("batch", System.out);
+        int failed = 0;
+        isRunning = true;
+        for (String command : commands) {
+            String input = command.trim();
+            if (input.isEmpty() || input.startsWith("#")) {
+                continue;
+            }
+            if (!executeCommand(batchSession, input)) {
+                failed++;
+            }
+            if (!isRunning) {
+                break;
+            }
+        }
+        isRunning = false;
+        endSession(batchSession);
+        cleanup();
+        return failed;
+    }
+
+    private boolean processCommand(String input) {
+        if (workloadRecorder != null) {
+            workloadRecorder.record(session().getName(), input);
+        }
         String[] parts = input.split("\\s+");
         String command = parts[0].toLowerCase();
 
         try {
+            // a report cancelled while it queued for the lock stops before doing any work
+            checkpointReport();
             switch (command) {
                 case "add_classroom" -> handleAddClassroom(parts);
                 case "remove_classroom" -> handleRemoveClassroom(parts);
+                case "rename_classroom" -> handleRenameClassroom(parts);
                 case "list_classrooms" -> handleListClassrooms(parts);
                 case "classroom_details" -> handleClassroomDetails(parts);
 
                 case "add_student" -> handleAddStudent(parts);
                 case "remove_student" -> handleRemoveStudent(parts);
+                case "waitlist" -> handleWaitlist(parts);
                 case "list_students" -> handleListStudents(parts);
                 case "student_profile" -> handleStudentProfile(parts);
 
@@ -121,6 +555,8 @@ public class VirtualClassroomManager {
                 case "submit_assignment" -> handleSubmitAssignment(parts);
                 case "list_assignments" -> handleListAssignments(parts);
                 case "grade_assignment" -> handleGradeAssignment(parts);
+                case "grading_policy" -> handleGradingPolicy(parts);
+                case "final_grades" -> handleFinalGrades(parts);
 
                 case "mark_attendance" -> handleMarkAttendance(parts);
                 case "view_attendance" -> handleViewAttendance(parts);
@@ -130,24 +566,49 @@ public class VirtualClassroomManager {
                 case "classroom_analytics" -> handleClassroomAnalytics(parts);
                 case "submission_analytics" -> handleSubmissionAnalytics(parts);
                 case "student_progress" -> handleStudentProgress(parts);
+                case "institution_analytics" -> handleInstitutionAnalytics(parts);
+                case "rank_students" -> handleRankStudents(parts);
+                case "similarity_report" -> handleSimilarityReport(parts);
+                case "events" -> handleEvents(parts);
+                case "audit" -> handleAudit(parts);
+
+                case "begin" -> handleBegin();
+                case "commit" -> handleCommit();
+                case "rollback" -> handleRollback();
 
-                case "help" -> System.out.println(MENU_OPTIONS);
+                case "help" -> out().println(MENU_OPTIONS);
                 case "exit" -> handleExit();
                 case "clear" -> clearScreen();
                 case "debug" -> handleDebugToggle(parts);
+                case "output" -> handleOutputMode(parts);
+                case "cache_stats" -> out().println("📦 " + reportCache.getStatistics());
+                case "admission_stats" -> out().println(admissionController != null
+                        ? "🚦 " + admissionController.getStatistics() : "🚦 Admission control is off (set vcm.admission.rate)");
+                case "storage_stats" -> handleStorageStats(parts);
 
-                default -> System.out.println("❌ Unknown command: " + command + ". Type 'help' for available commands.");
+                default -> {
+                    out().println("❌ Unknown command: " + command + ". Type 'help' for available commands.");
+                    return false;
+                }
             }
+            return true;
 
         } catch (ValidationException e) {
-            System.out.println("❌ Validation Error: " + e.getMessage());
+            out().println("❌ Validation Error: " + e.getMessage());
             logger.warn("Validation error: " + e.getMessage());
+            return false;
+        } catch (ReportCancelledException e) {
+            out().println("⛔ " + e.getMessage());
+            logger.info(e.getMessage() + ": " + input);
+            return false;
         } catch (ArrayIndexOutOfBoundsException e) {
-            System.out.println("❌ Invalid command format. Type 'help' for correct usage.");
+            out().println("❌ Invalid command format. Type 'help' for correct usage.");
             logger.warn("Invalid command format for: " + command);
+            return false;
         } catch (Exception e) {
-            System.out.println("❌ Error executing command: " + e.getMessage());
+            out().println("❌ Error executing command: " + e.getMessage());
             logger.error("Error executing command: " + command, e);
+            return false;
         }
     }
 
@@ -155,24 +616,45 @@ public class VirtualClassroomManager {
 
     private void handleAddClassroom(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: add_classroom <name> [description] [capacity]");
+            out().println("Usage: add_classroom <name> [description] [capacity]");
             return;
         }
         String name = parts[1];
         String description = parts.length > 2 ? parts[2] : "Default classroom";
-        int capacity = parts.length > 3 ? Integer.parseInt(parts[3]) : 50;
+        int capacity = parts.length > 3 ? Integer.parseInt(parts[3]) : defaultCapacity;
         if (classrooms.containsKey(name)) {
             throw new ValidationException("Classroom already exists: " + name);
         }
         Classroom classroom = new Classroom(name, description, capacity);
         classrooms.put(name, classroom);
-        System.out.println("✅ Classroom " + name + " has been created.");
+        classroomsById.put(classroom.getClassroomId(), classroom);
+        UndoLog.record(() -> {
+            classrooms.remove(name);
+            classroomsById.remove(classroom.getClassroomId());
+        });
+        if (studentStore != null) {
+            MappedStudentStore store = studentStore;
+            queueStoreWrite(new CommandTransaction.StoreWrite() {
+                private boolean claimed;
+
+                @Override
+                public void apply() throws Exception {
+                    claimed = store.bindClassroom(classroom.getClassroomId(), name);
+                }
+
+                @Override
+                public void revert() {
+                    store.unbindClassroom(classroom.getClassroomId(), claimed);
+                }
+            }, "Could not bind classroom " + name + " in the student store");
+        }
+        out().println("✅ Classroom " + name + " has been created.");
         logger.info("Classroom created: " + name);
     }
     
     private void handleRemoveClassroom(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: remove_classroom <name>");
+            out().println("Usage: remove_classroom <name>");
             return;
         }
         String name = parts[1];
@@ -182,26 +664,98 @@ public class VirtualClassroomManager {
         }
         List<Student> enrolledStudents = classroom.getAllStudents();
         if (!enrolledStudents.isEmpty()) {
-            System.out.println("⚠️  Classroom has " + enrolledStudents.size() + " enrolled students.");
-            System.out.print("Do you want to proceed? (yes/no): ");
-            String confirmation = scanner.nextLine().trim().toLowerCase();
-            if (!confirmation.equals("yes")) {
-                System.out.println("❌ Operation cancelled.");
+            out().println("⚠️  Classroom has " + enrolledStudents.size() + " enrolled students.");
+            if (!session().confirm("Do you want to proceed?")) {
+                out().println("❌ Operation cancelled.");
                 return;
             }
-            for (Student student : enrolledStudents) {
-                classroom.removeStudent(student.getStudentId());
+        }
+        // cancel timers first so that undoing restores the students before their timers
+        classroom.getAllAssignments().forEach(assignment -> deadlineScheduler.cancelAssignment(classroom, assignment));
+        if (!enrolledStudents.isEmpty()) {
+            for (Student student : classroom.removeAllStudents()) {
+                evictIfIdle(student);
             }
         }
+        if (studentStore != null) {
+            // enrolled students are never evicted, so the roster names every record holding the classroom's bit
+            MappedStudentStore store = studentStore;
+            List<String> roster = enrolledStudents.stream().map(Student::getStudentId).toList();
+            queueStoreWrite(new CommandTransaction.StoreWrite() {
+                private MappedStudentStore.ReleasedClassroom released;
+
+                @Override
+                public void apply() throws Exception {
+                    released = store.releaseClassroom(classroom.getClassroomId(), roster);
+                }
+
+                @Override
+                public void revert() {
+                    store.restoreClassroom(released);
+                }
+            }, "Could not release classroom " + name + " in the student store");
+        }
         classroom.deactivate();
         classrooms.remove(name);
-        System.out.println("✅ Classroom " + name + " has been removed.");
+        classroomsById.remove(classroom.getClassroomId());
+        UndoLog.record(() -> {
+            classrooms.put(name, classroom);
+            classroomsById.put(classroom.getClassroomId(), classroom);
+        });
+        reportCache.invalidate(classroom.getClassroomId());
+        out().println("✅ Classroom " + name + " has been removed.");
         logger.info("Classroom removed: " + name);
     }
+
+    private void handleRenameClassroom(String[] parts) throws ValidationException {
+        if (parts.length < 3) {
+            out().println("Usage: rename_classroom <name> <newName>");
+            return;
+        }
+        String name = parts[1];
+        String newName = parts[2];
+        Classroom classroom = classrooms.get(name);
+        if (classroom == null) {
+            throw new ValidationException("Classroom not found: " + name);
+        }
+        if (classrooms.containsKey(newName)) {
+            throw new ValidationException("Classroom already exists: " + newName);
+        }
+        if (studentStore != null && !studentStore.isClassroomNameFree(newName)) {
+            throw new ValidationException("Student store still holds enrollments of an earlier classroom named " + newName
+                    + "; add and remove that classroom to clear them");
+        }
+        // Enrollments reference the stable classroom ID, so only the name lookup needs re-keying
+        classroom.updateClassroomInfo(newName, null, 0);
+        String renamed = classroom.getName();
+        classrooms.remove(name);
+        classrooms.put(renamed, classroom);
+        UndoLog.record(() -> {
+            classrooms.remove(renamed);
+            classrooms.put(name, classroom);
+        });
+        if (studentStore != null) {
+            // the store keeps slots under the classroom name, the identity that survives a restart
+            MappedStudentStore store = studentStore;
+            queueStoreWrite(new CommandTransaction.StoreWrite() {
+                @Override
+                public void apply() throws Exception {
+                    store.renameClassroom(classroom.getClassroomId(), renamed);
+                }
+
+                @Override
+                public void revert() throws Exception {
+                    store.renameClassroom(classroom.getClassroomId(), name);
+                }
+            }, "Could not rename classroom " + name + " in the student store");
+        }
+        out().println("✅ Classroom " + name + " has been renamed to " + classroom.getName() + ".");
+        logger.info("Classroom renamed: " + name + " -> " + classroom.getName());
+    }
     
     private void handleListClassrooms(String[] parts) {
         int page = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
-        int pageSize = parts.length > 2 ? Integer.parseInt(parts[2]) : 10;
+        int pageSize = parts.length > 2 ? Integer.parseInt(parts[2]) : defaultPageSize;
         String filter = parts.length > 3 ? parts[3] : null;
         List<Classroom> classroomList = new ArrayList<>(classrooms.values());
         if (filter != null && !filter.trim().isEmpty()) {
@@ -214,27 +768,27 @@ public class VirtualClassroomManager {
         int start = page * pageSize;
         int end = Math.min(start + pageSize, classroomList.size());
         if (start >= classroomList.size()) {
-            System.out.println("📄 No classrooms found on page " + page);
+            out().println("📄 No classrooms found on page " + page);
             return;
         }
-        System.out.println("\n📚 CLASSROOM LIST (Page " + (page + 1) + ")");
-        System.out.println("═".repeat(80));
+        out().println("\n📚 CLASSROOM LIST (Page " + (page + 1) + ")");
+        out().println("═".repeat(80));
         for (int i = start; i < end; i++) {
             Classroom classroom = classroomList.get(i);
-            System.out.printf("🏫 %-20s | Students: %2d/%-2d | Assignments: %2d | %s%n",
+            out().printf("🏫 %-20s | Students: %2d/%-2d | Assignments: %2d | %s%n",
                             classroom.getName(),
                             classroom.getEnrolledStudentCount(),
                             classroom.getMaxCapacity(),
                             classroom.getAssignmentCount(),
                             classroom.isActive() ? "Active" : "Inactive");
         }
-        System.out.println("═".repeat(80));
-        System.out.println("Showing " + (end - start) + " of " + classroomList.size() + " total classrooms");
+        out().println("═".repeat(80));
+        out().println("Showing " + (end - start) + " of " + classroomList.size() + " total classrooms");
     }
     
     private void handleClassroomDetails(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: classroom_details <name>");
+            out().println("Usage: classroom_details <name>");
             return;
         }
         String name = parts[1];
@@ -242,50 +796,66 @@ public class VirtualClassroomManager {
         if (classroom == null) {
             throw new ValidationException("Classroom not found: " + name);
         }
-        System.out.println("\n" + classroom.getClassroomStatistics());
-        System.out.println(classroom.getSubmissionAnalytics());
-        // Attendance summary
-        Map<String, Boolean> attendance = classroom.getAttendance();
-        long presentCount = attendance.values().stream().filter(p -> p).count();
-        long absentCount = classroom.getEnrolledStudentCount() - presentCount;
-        System.out.println("Attendance Summary: Present - " + presentCount + ", Absent - " + absentCount);
+        ClassroomSnapshot snapshot = classroom.snapshot();
+        String seating = "Seats: " + classroom.getAvailableSeats() + " open | Waitlist: " + classroom.getWaitlistMode()
+                + " (" + classroom.getWaitlistSize() + " waiting)";
+        renderOutsideLock(() -> {
+            out().println("\n" + reportCache.getClassroomStatistics(snapshot));
+            out().println(seating);
+            out().println(reportCache.getSubmissionAnalytics(snapshot));
+            // Attendance summary
+            Map<String, Boolean> attendance = snapshot.getAttendance();
+            long presentCount = attendance.values().stream().filter(p -> p).count();
+            long absentCount = snapshot.getEnrolledStudentCount() - presentCount;
+            out().println("Attendance Summary: Present - " + presentCount + ", Absent - " + absentCount);
+        });
     }
 
     // ==================== STUDENT MANAGEMENT METHODS ====================
 
     private void handleAddStudent(String[] parts) throws ValidationException {
         if (parts.length < 5) {
-            System.out.println("Usage: add_student <studentId> <name> <email> <className>");
+            out().println("Usage: add_student <studentId> <name> <email> <className> [priority]");
             return;
         }
         String studentId = parts[1];
         String name = parts[2];
         String email = parts[3];
         String className = parts[4];
+        int priority = parts.length > 5 ? Integer.parseInt(parts[5]) : 0;
         Classroom classroom = classrooms.get(className);
         if (classroom == null) {
             throw new ValidationException("Classroom not found: " + className);
         }
-        if (students.containsKey(studentId)) {
-            Student existingStudent = students.get(studentId);
-            classroom.addStudent(existingStudent);
-        } else {
-            Student student = new Student.Builder()
+        Student student = findStudent(studentId);
+        if (student == null) {
+            student = new Student.Builder()
                     .setStudentId(studentId)
                     .setName(name)
                     .setEmail(email)
                     .build();
             students.put(studentId, student);
-            classroom.addStudent(student);
+            UndoLog.record(() -> students.remove(studentId));
+            persistIdentity(student);
+        }
+        if (classroom.getAvailableSeats() == 0 && classroom.getWaitlistMode() != WaitlistMode.OFF
+                && !classroom.hasStudent(studentId)) {
+            int position = classroom.joinWaitlist(student, priority);
+            out().println("⏳ " + className + " is full; student " + studentId + " is #" + position + " on the waitlist.");
+            addNotification("📧 Waitlist confirmation sent to " + ValidationHelper.maskEmail(student.getEmail()));
+            return;
         }
-        System.out.println("✅ Student " + studentId + " has been enrolled in " + className + ".");
+        classroom.addStudent(student);
+        persistEnrollment(student, classroom, true);
+        deadlineScheduler.scheduleStudent(classroom, student);
+        out().println("✅ Student " + studentId + " has been enrolled in " + className + ".");
         logger.info("Student enrolled: " + studentId + " in " + className);
-        notifications.add("📧 Welcome email sent to " + ValidationHelper.maskEmail(email));
+        addNotification("📧 Welcome email sent to " + ValidationHelper.maskEmail(email));
     }
     
     private void handleRemoveStudent(String[] parts) throws ValidationException {
         if (parts.length < 3) {
-            System.out.println("Usage: remove_student <studentId> <className>");
+            out().println("Usage: remove_student <studentId> <className>");
             return;
         }
         String studentId = parts[1];
@@ -295,33 +865,100 @@ public class VirtualClassroomManager {
             throw new ValidationException("Classroom not found: " + className);
         }
         if (!classroom.hasStudent(studentId)) {
-            throw new ValidationException("Student not enrolled in classroom: " + studentId);
+            if (!classroom.isWaitlisted(studentId)) {
+                throw new ValidationException("Student not enrolled in classroom: " + studentId);
+            }
+            Student waiting = findStudent(studentId);
+            classroom.leaveWaitlist(studentId);
+            evictIfIdle(waiting);
+            out().println("✅ Student " + studentId + " has left the waitlist of " + className + ".");
+            return;
         }
         List<Assignment> pendingAssignments = classroom.getAllAssignments().stream()
                 .filter(a -> !a.hasSubmitted(studentId))
                 .collect(Collectors.toList());
         if (!pendingAssignments.isEmpty()) {
-            System.out.println("⚠️  Student has " + pendingAssignments.size() + " pending assignments.");
-            System.out.print("Do you want to proceed? (yes/no): ");
-            String confirmation = scanner.nextLine().trim().toLowerCase();
-            if (!confirmation.equals("yes")) {
-                System.out.println("❌ Operation cancelled.");
+            out().println("⚠️  Student has " + pendingAssignments.size() + " pending assignments.");
+            if (!session().confirm("Do you want to proceed?")) {
+                out().println("❌ Operation cancelled.");
                 return;
             }
         }
+        Student removed = classroom.getStudent(studentId);
         classroom.removeStudent(studentId);
-        System.out.println("✅ Student " + studentId + " has been removed from " + className + ".");
+        deadlineScheduler.cancelStudent(classroom, studentId);
+        persistEnrollment(removed, classroom, false);
+        evictIfIdle(removed);
+        out().println("✅ Student " + studentId + " has been removed from " + className + ".");
         logger.info("Student removed: " + studentId + " from " + className);
+        admitWaitlisted(classroom);
+    }
+
+    private void handleWaitlist(String[] parts) throws ValidationException {
+        if (parts.length < 2) {
+            out().println("Usage: waitlist <className> [off|fifo|priority] [limit]");
+            return;
+        }
+        String className = parts[1];
+        Classroom classroom = classrooms.get(className);
+        if (classroom == null) {
+            throw new ValidationException("Classroom not found: " + className);
+        }
+        if (parts.length > 2) {
+            WaitlistMode mode;
+            try {
+                mode = WaitlistMode.valueOf(parts[2].toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Unknown waitlist mode (expected off, fifo or priority): " + parts[2]);
+            }
+            int limit = parts.length > 3 ? Integer.parseInt(parts[3]) : 0;
+            List<Student> dropped = classroom.configureWaitlist(mode, limit);
+            out().println("✅ Waitlist of " + className + " set to " + mode + (limit > 0 ? " (limit " + limit + ")" : "")
+                    + " - " + mode.getDescription() + ".");
+            for (Student student : dropped) {
+                addNotification("📧 Waitlist closure notice sent to " + ValidationHelper.maskEmail(student.getEmail()));
+            }
+            if (!dropped.isEmpty()) {
+                out().println("⚠️  " + dropped.size() + " waiting student(s) were dropped.");
+            }
+            admitWaitlisted(classroom);
+            return;
+        }
+        List<Map.Entry<Student, Integer>> waiting = classroom.getWaitlist();
+        out().println("\n⏳ WAITLIST - " + className + " (" + classroom.getWaitlistMode()
+                + (classroom.getWaitlistLimit() > 0 ? ", limit " + classroom.getWaitlistLimit() : "") + ")");
+        out().println("═".repeat(60));
+        out().println("Seats: " + classroom.getEnrolledStudentCount() + "/" + classroom.getMaxCapacity()
+                + " | Open: " + classroom.getAvailableSeats() + " | Waiting: " + waiting.size());
+        int position = 1;
+        for (Map.Entry<Student, Integer> entry : waiting) {
+            Student student = entry.getKey();
+            out().printf("%4d. %-10s %-20s priority %d%n", position++, student.getStudentId(), student.getName(), entry.getValue());
+        }
+        out().println("═".repeat(60));
+    }
+
+    /**
+     * Promote waitlisted students into any seats that are open, as if each had been added
+     */
+    private void admitWaitlisted(Classroom classroom) throws ValidationException {
+        for (Student student : classroom.admitFromWaitlist()) {
+            persistEnrollment(student, classroom, true);
+            deadlineScheduler.scheduleStudent(classroom, student);
+            out().println("⬆️  Student " + student.getStudentId() + " promoted from the waitlist into " + classroom.getName() + ".");
+            logger.info("Student promoted from waitlist: " + student.getStudentId() + " in " + classroom.getName());
+            addNotification("📧 Seat confirmation sent to " + ValidationHelper.maskEmail(student.getEmail()));
+        }
     }
     
     private void handleListStudents(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: list_students <className> [page] [pageSize] [filter]");
+            out().println("Usage: list_students <className> [page] [pageSize] [filter]");
             return;
         }
         String className = parts[1];
         int page = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
-        int pageSize = parts.length > 3 ? Integer.parseInt(parts[3]) : 10;
+        int pageSize = parts.length > 3 ? Integer.parseInt(parts[3]) : defaultPageSize;
         String filter = parts.length > 4 ? parts[4] : null;
         Classroom classroom = classrooms.get(className);
         if (classroom == null) {
@@ -329,39 +966,46 @@ public class VirtualClassroomManager {
         }
         List<Student> studentList = classroom.getStudents(page, pageSize, filter);
         if (studentList.isEmpty()) {
-            System.out.println("📄 No students found matching criteria");
+            out().println("📄 No students found matching criteria");
             return;
         }
-        System.out.println("\n👥 STUDENT LIST - " + className + " (Page " + (page + 1) + ")");
-        System.out.println("═".repeat(90));
+        ConsoleRenderer renderer = session().renderer();
+        renderer.newline().icon("👥").text("STUDENT LIST - ").text(className).text(" (Page ").text(String.valueOf(page + 1)).line(")");
+        renderer.separator('═', 90);
         for (Student student : studentList) {
-            System.out.printf("🎓 %-12s | %-20s | Avg Grade: %5.1f%% | Attendance: %5.1f%%%n",
-                            student.getStudentId(),
-                            student.getName(),
-                            student.getGradeAverage(),
-                            student.getAttendancePercentage());
+            renderer.icon("🎓").left(student.getStudentId(), 12).text(" | ").left(student.getName(), 20)
+                    .text(" | Avg Grade: ").fixed(student.getGradeAverage(), 1, 5)
+                    .text("% | Attendance: ").fixed(student.getAttendancePercentage(), 1, 5).line("%");
         }
-        System.out.println("═".repeat(90));
-        System.out.println("Showing " + studentList.size() + " students");
+        renderer.separator('═', 90);
+        renderer.line("Showing " + studentList.size() + " students");
+        renderer.finish();
     }
     
     private void handleStudentProfile(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: student_profile <studentId>");
+            out().println("Usage: student_profile <studentId>");
             return;
         }
         String studentId = parts[1];
         Student student = students.get(studentId);
+        if (student == null && studentStore != null) {
+            String storedProfile = studentStore.getStudentProfile(studentId);
+            if (storedProfile != null) {
+                out().println("\n" + storedProfile);
+                return;
+            }
+        }
         if (student == null) {
             throw new ValidationException("Student not found: " + studentId);
         }
-        System.out.println("\n" + student.getStudentProfile());
-        System.out.println("📚 Enrolled Classrooms:");
-        for (String classroomName : student.getEnrolledClassrooms()) {
-            Classroom classroom = classrooms.get(classroomName);
+        out().println("\n" + reportCache.getStudentProfile(student));
+        out().println("📚 Enrolled Classrooms:");
+        for (String classroomId : student.getEnrolledClassroomIds()) {
+            Classroom classroom = classroomsById.get(classroomId);
             if (classroom != null) {
-                List<Assignment> assignments = student.getSubmittedAssignments(classroomName);
-                System.out.println("  - " + classroomName + " (" + assignments.size() + " assignments submitted)");
+                List<Assignment> assignments = student.getSubmittedAssignments(classroomId);
+                out().println("  - " + classroom.getName() + " (" + assignments.size() + " assignments submitted)");
             }
         }
     }
@@ -370,7 +1014,9 @@ public class VirtualClassroomManager {
 
     private void handleScheduleAssignment(String[] parts) throws ValidationException {
         if (parts.length < 4) {
-            System.out.println("Usage: schedule_assignment <className> <title> <description> [maxPoints]");
+            out().println("Usage: schedule_assignment <className> <title> <description> [maxPoints] [dueDate|-] [category] [weight]");
+            out().println("Due date format: yyyy-MM-dd or yyyy-MM-ddTHH:mm");
+            out().println("Category defaults to " + Assignment.DEFAULT_CATEGORY + ", weight to 1");
             return;
         }
 
@@ -378,6 +1024,9 @@ public class VirtualClassroomManager {
         String title = parts[2];
         String description = parts[3];
         int maxPoints = parts.length > 4 ? Integer.parseInt(parts[4]) : 100;
+        LocalDateTime dueDate = parts.length > 5 && !parts[5].equals("-") ? parseDueDate(parts[5]) : null;
+        String category = parts.length > 6 ? parts[6] : Assignment.DEFAULT_CATEGORY;
+        double weight = parts.length > 7 ? Double.parseDouble(parts[7]) : 1.0;
 
         Classroom classroom = classrooms.get(className);
         if (classroom == null) {
@@ -388,19 +1037,27 @@ public class VirtualClassroomManager {
                 .setTitle(title)
                 .setDescription(description)
                 .setMaxPoints(maxPoints)
+                .setDueDate(dueDate)
+                .setCategory(category)
+                .setWeight(weight)
                 .build();
 
         classroom.scheduleAssignment(assignment);
+        deadlineScheduler.scheduleAssignment(classroom, assignment);
 
-        System.out.println("✅ Assignment for " + className + " has been scheduled.");
-        System.out.println("📝 Title: " + title);
-        System.out.println("💯 Max Points: " + maxPoints);
+        out().println("✅ Assignment for " + className + " has been scheduled.");
+        out().println("📝 Title: " + title);
+        out().println("💯 Max Points: " + maxPoints);
+        out().println("🏷️  Category: " + category + " (weight " + weight + ")");
+        if (dueDate != null) {
+            out().println("📅 Due: " + dueDate);
+        }
         logger.info("Assignment scheduled: " + title + " for " + className);
     }
 
     private void handleSubmitAssignment(String[] parts) throws ValidationException {
         if (parts.length < 4) {
-            System.out.println("Usage: submit_assignment <studentId> <className> <assignmentTitle> [fileName]");
+            out().println("Usage: submit_assignment <studentId> <className> <assignmentTitle> [fileName]");
             return;
         }
 
@@ -409,7 +1066,7 @@ public class VirtualClassroomManager {
         String assignmentTitle = parts[3];
         String fileName = parts.length > 4 ? parts[4] : "submission.pdf";
 
-        Student student = students.get(studentId);
+        Student student = findStudent(studentId);
         if (student == null) {
             throw new ValidationException("Student not found: " + studentId);
         }
@@ -424,22 +1081,35 @@ public class VirtualClassroomManager {
             throw new ValidationException("Assignment not found: " + assignmentTitle);
         }
 
+        if (!classroom.hasStudent(studentId)) {
+            throw new ValidationException("Student " + studentId + " is not enrolled in " + className);
+        }
+
         if (assignment.hasSubmitted(studentId)) {
             throw new ValidationException("Student has already submitted this assignment.");
         }
 
-        assignment.addSubmittedFile(studentId, fileName);
+        BlobStore.StoredBlob blob = storeSubmittedFile(assignment, fileName);
+        if (blob != null) {
+            assignment.addSubmittedFile(studentId, Paths.get(fileName).getFileName().toString(), blob.getBlobId());
+        } else {
+            assignment.addSubmittedFile(studentId, fileName);
+        }
         assignment.markAsSubmitted(studentId); 
-        student.submitAssignment(className, assignment); 
+        student.submitAssignment(classroom.getClassroomId(), assignment); 
+        deadlineScheduler.cancel(classroom, assignment, studentId);
 
-        System.out.println("✅ Assignment submitted by Student " + studentId + " in " + className + ".");
-        System.out.println("📝 Assignment: " + assignmentTitle);
+        out().println("✅ Assignment submitted by Student " + studentId + " in " + className + ".");
+        out().println("📝 Assignment: " + assignmentTitle);
+        if (blob != null) {
+            out().println("📦 Stored: " + blob);
+        }
         logger.info("Assignment submitted: " + assignmentTitle + " by " + studentId);
     }
 
     private void handleListAssignments(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: list_assignments <className>");
+            out().println("Usage: list_assignments <className> [status]");
             return;
         }
 
@@ -448,32 +1118,36 @@ public class VirtualClassroomManager {
         if (classroom == null) {
             throw new ValidationException("Classroom not found: " + className);
         }
+        AssignmentStatus statusFilter = parts.length > 2 ? parseAssignmentStatus(parts[2]) : null;
 
-        List<Assignment> assignments = classroom.getAssignments(false);
+        List<Assignment> assignments = statusFilter == null ? classroom.getAssignments(false)
+                : classroom.getAssignmentsWithStudentStatus(statusFilter);
         if (assignments.isEmpty()) {
-            System.out.println("📄 No assignments found for " + className);
+            out().println("📄 No assignments found for " + className + (statusFilter == null ? "" : " with status " + statusFilter.name()));
             return;
         }
 
-        System.out.println("\n📝 ASSIGNMENT LIST - " + className);
-        System.out.println("═".repeat(80));
-        System.out.printf("📚 %-40s | %-15s | %s%n", "TITLE", "STATUS", "SUBMITTED BY");
-        System.out.println("─".repeat(80));
+        out().println("\n📝 ASSIGNMENT LIST - " + className + (statusFilter == null ? "" : " (" + statusFilter.name() + ")"));
+        out().println("═".repeat(80));
+        out().printf("📚 %-30s | %-10s | %-16s | %s%n", "TITLE", "STATUS", "DUE", statusFilter == null ? "SUBMITTED BY" : "STUDENTS");
+        out().println("─".repeat(80));
 
         for (Assignment assignment : assignments) {
-            String submittedBy = assignment.getSubmittedStudentIds().isEmpty() ? "N/A"
-                : String.join(", ", assignment.getSubmittedStudentIds());
-            System.out.printf("  %-40s | %-15s | %s%n",
+            List<String> matching = statusFilter == null ? new ArrayList<>(assignment.getSubmittedStudentIds())
+                : assignment.getStudentIdsWithStatus(statusFilter);
+            String submittedBy = matching.isEmpty() ? "N/A" : String.join(", ", matching);
+            out().printf("  %-30s | %-10s | %-16s | %s%n",
                     assignment.getTitle(),
                     assignment.getStatus().name(),
+                    assignment.hasDueDate() ? assignment.getDueDate().toString() : "-",
                     submittedBy);
         }
-        System.out.println("═".repeat(80));
+        out().println("═".repeat(80));
     }
 
     private void handleGradeAssignment(String[] parts) throws ValidationException {
         if (parts.length < 5) {
-            System.out.println("Usage: grade_assignment <className> <assignmentTitle> <studentId> <grade> [feedback]");
+            out().println("Usage: grade_assignment <className> <assignmentTitle> <studentId> <grade> [feedback]");
             return;
         }
         String className = parts[1];
@@ -493,21 +1167,92 @@ public class VirtualClassroomManager {
             throw new ValidationException("Student " + studentId + " has not submitted this assignment.");
         }
         assignment.gradeAssignment(studentId, grade, feedback);
-        System.out.println("✅ Assignment graded successfully!");
-        System.out.println("📝 Assignment: " + assignmentTitle);
-        System.out.println("💯 Grade: " + grade + "/" + assignment.getMaxPoints() + " (" + assignment.getGradePercentage(studentId) + "%)");
-        System.out.println("🏆 Letter Grade: " + assignment.getLetterGrade(studentId));
-        System.out.println("💬 Feedback: " + feedback);
-        notifications.add("📧 Grade notification sent to " + studentId + " for " + assignmentTitle);
+        Student student = findStudent(studentId);
+        if (student != null) {
+            student.recordGradeChange();
+        }
+        out().println("✅ Assignment graded successfully!");
+        out().println("📝 Assignment: " + assignmentTitle);
+        out().println("💯 Grade: " + grade + "/" + assignment.getMaxPoints() + " (" + assignment.getGradePercentage(studentId) + "%)");
+        out().println("🏆 Letter Grade: " + assignment.getLetterGrade(studentId));
+        out().println("💬 Feedback: " + feedback);
+        addNotification("📧 Grade notification sent to " + studentId + " for " + assignmentTitle);
         logger.info("Assignment graded: " + assignmentTitle + " - " + grade + "/" + assignment.getMaxPoints());
     }
 
+    private void handleGradingPolicy(String[] parts) throws ValidationException {
+        if (parts.length < 2) {
+            out().println("Usage: grading_policy <className> [standard|plus_minus|pass_fail|A:90,B:80,...] [curve]");
+            out().println("Curves: none, shift:<points>, scale:<factor>, sqrt");
+            return;
+        }
+        String className = parts[1];
+        Classroom classroom = classrooms.get(className);
+        if (classroom == null) {
+            throw new ValidationException("Classroom not found: " + className);
+        }
+        if (parts.length > 2) {
+            GradingPolicy policy = GradingPolicy.compile(parts[2], parts.length > 3 ? parts[3] : "none");
+            classroom.setGradingPolicy(policy);
+            out().println("✅ Grading policy updated for " + className);
+        }
+        out().println("📏 " + classroom.getGradingPolicy().describe());
+    }
+
+    private void handleFinalGrades(String[] parts) throws ValidationException {
+        if (parts.length < 2) {
+            out().println("Usage: final_grades <className> [limit]");
+            return;
+        }
+        String className = parts[1];
+        int limit = parts.length > 2 ? Integer.parseInt(parts[2]) : Integer.MAX_VALUE;
+        Classroom classroom = classrooms.get(className);
+        if (classroom == null) {
+            throw new ValidationException("Classroom not found: " + className);
+        }
+        List<FinalGradeEngine.FinalGrade> ranked = classroom.getFinalGrades();
+        if (ranked.isEmpty()) {
+            out().println("📄 No graded assignments found for " + className);
+            return;
+        }
+        List<String> categories = List.copyOf(classroom.getGradeCategories());
+        String policy = classroom.getGradingPolicy().toString();
+        renderOutsideLock(() -> renderFinalGrades(className, policy, categories, ranked, limit));
+    }
+
+    private void renderFinalGrades(String className, String policy, List<String> categories,
+                                   List<FinalGradeEngine.FinalGrade> ranked, int limit) {
+        StringBuilder header = new StringBuilder(String.format("%5s  %-12s %8s %-6s %6s", "RANK", "STUDENT", "FINAL", "LETTER", "GRADED"));
+        for (String category : categories) {
+            header.append(String.format(" %10.10s", category));
+        }
+        out().println("\n🎓 FINAL GRADES - " + className + " (" + policy + ")");
+        out().println("═".repeat(Math.max(80, header.length())));
+        out().println(header);
+        out().println("─".repeat(Math.max(80, header.length())));
+        StringBuilder row = new StringBuilder();
+        int shown = Math.min(limit, ranked.size());
+        renderRows(shown, i -> {
+            FinalGradeEngine.FinalGrade grade = ranked.get(i);
+            row.setLength(0);
+            row.append(String.format("%5d  %-12s %7.2f%% %-6s %6d", i + 1, grade.getStudentId(),
+                    grade.getPercentage(), grade.getLetterGrade(), grade.getGradedAssignments()));
+            for (int c = 0; c < categories.size(); c++) {
+                double categoryPercentage = grade.getCategoryPercentage(c);
+                row.append(Double.isNaN(categoryPercentage) ? String.format(" %10s", "-") : String.format(" %9.2f%%", categoryPercentage));
+            }
+            out().println(row);
+        }, out()::println);
+        out().println("═".repeat(Math.max(80, header.length())));
+        out().println("Showing " + shown + " of " + ranked.size() + " graded students");
+    }
+
     // ==================== ATTENDANCE MANAGEMENT METHODS ====================
 
     private void handleMarkAttendance(String[] parts) throws ValidationException {
         if (parts.length < 3) {
-            System.out.println("Usage: mark_attendance <className> <studentId:present/absent> [...]");
-            System.out.println("Example: mark_attendance Math101 ST1234:present ST5678:absent");
+            out().println("Usage: mark_attendance <className> <studentId:present/absent> [...]");
+            out().println("Example: mark_attendance Math101 ST1234:present ST5678:absent");
             return;
         }
         String className = parts[1];
@@ -523,35 +1268,35 @@ public class VirtualClassroomManager {
         for (int i = 2; i < parts.length; i++) {
             String[] attendanceEntry = parts[i].split(":");
             if (attendanceEntry.length != 2) {
-                System.out.println("⚠️  Invalid format for: " + parts[i] + ". Skipping...");
+                out().println("⚠️  Invalid format for: " + parts[i] + ". Skipping...");
                 continue;
             }
             String studentId = attendanceEntry[0];
             boolean isPresent = attendanceEntry[1].equalsIgnoreCase("present");
             if (!classroom.hasStudent(studentId)) {
-                System.out.println("⚠️  Student " + studentId + " not enrolled in " + className + ". Skipping...");
+                out().println("⚠️  Student " + studentId + " not enrolled in " + className + ". Skipping...");
                 continue;
             }
             attendanceData.put(studentId, isPresent);
         }
         classroom.markAttendance(attendanceData);
-        System.out.println("✅ Attendance marked for " + className);
-        System.out.println("📊 Summary:");
+        out().println("✅ Attendance marked for " + className);
+        out().println("📊 Summary:");
         long presentCount = attendanceData.values().stream().filter(present -> present).count();
         long absentCount = classroom.getEnrolledStudentCount() - presentCount;
-        System.out.println("  Present: " + presentCount);
-        System.out.println("  Absent: " + absentCount);
+        out().println("  Present: " + presentCount);
+        out().println("  Absent: " + absentCount);
         attendanceData.entrySet().stream()
                 .filter(entry -> !entry.getValue())
                 .forEach(entry -> {
-                    notifications.add("📧 Absence notification sent for student " + entry.getKey());
+                    addNotification("📧 Absence notification sent for student " + entry.getKey());
                 });
         logger.info("Attendance marked for " + className + " - " + presentCount + " present, " + absentCount + " absent");
     }
     
     private void handleViewAttendance(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: view_attendance <className>");
+            out().println("Usage: view_attendance <className>");
             return;
         }
         String className = parts[1];
@@ -559,19 +1304,20 @@ public class VirtualClassroomManager {
         if (classroom == null) {
             throw new ValidationException("Classroom not found: " + className);
         }
-        System.out.println("\n📊 ATTENDANCE OVERVIEW - " + className);
-        System.out.println("═".repeat(70));
-        System.out.println("Overall Attendance Rate: " + String.format("%.2f%%", classroom.getOverallAttendancePercentage()));
+        ConsoleRenderer renderer = session().renderer();
+        renderer.newline().icon("📊").text("ATTENDANCE OVERVIEW - ").line(className);
+        renderer.separator('═', 70);
+        renderer.text("Overall Attendance Rate: ").fixed(classroom.getOverallAttendancePercentage(), 2, 0).line("%");
         for (Student student : classroom.getAllStudents()) {
-            System.out.printf("🎓 %-12s - %5.1f%% attendance%n", 
-                            student.getStudentId(), 
-                            student.getAttendancePercentage());
+            renderer.icon("🎓").left(student.getStudentId(), 12).text(" - ")
+                    .fixed(student.getAttendancePercentage(), 1, 5).line("% attendance");
         }
+        renderer.finish();
     }
     
     private void handleAttendanceReport(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: attendance_report <className>");
+            out().println("Usage: attendance_report <className>");
             return;
         }
         String className = parts[1];
@@ -579,38 +1325,54 @@ public class VirtualClassroomManager {
         if (classroom == null) {
             throw new ValidationException("Classroom not found: " + className);
         }
-        System.out.println("\n📊 COMPREHENSIVE ATTENDANCE REPORT");
-        System.out.println("🏫 Classroom: " + className);
-        System.out.println("═".repeat(80));
+        ConsoleRenderer renderer = session().renderer();
+        renderer.newline().icon("📊").line("COMPREHENSIVE ATTENDANCE REPORT");
+        renderer.icon("🏫").text("Classroom: ").line(className);
+        renderer.separator('═', 80);
         double overallRate = classroom.getOverallAttendancePercentage();
-        System.out.println("📈 Overall Attendance Rate: " + String.format("%.2f%%", overallRate));
+        renderer.icon("📈").text("Overall Attendance Rate: ").fixed(overallRate, 2, 0).line("%");
         List<Student> students = classroom.getAllStudents();
         if (students.isEmpty()) {
-            System.out.println("📄 No students enrolled in this classroom.");
+            renderer.icon("📄").line("No students enrolled in this classroom.");
+            renderer.finish();
             return;
         }
-        students.sort(Comparator.comparingDouble(Student::getAttendancePercentage).reversed());
-        System.out.println("\n👥 INDIVIDUAL ATTENDANCE RATES:");
-        System.out.println("─".repeat(80));
-        for (Student student : students) {
-            double rate = student.getAttendancePercentage();
-            String indicator = rate >= 90 ? "🟢" : rate >= 75 ? "🟡" : "🔴";
-            System.out.printf("%s %-12s | %-20s | %5.1f%% | %s%n",
-                            indicator,
-                            student.getStudentId(),
-                            student.getName(),
-                            rate,
-                            getAttendanceCategory(rate));
-        }
-        System.out.println("─".repeat(80));
-        System.out.println("🟢 Excellent (90%+)  🟡 Good (75-89%)  🔴 Needs Improvement (<75%)");
+        // compute each rate once instead of on every comparison
+        double[] rates = new double[students.size()];
+        Integer[] order = new Integer[students.size()];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = students.get(i).getAttendancePercentage();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(rates[b], rates[a]));
+        renderer.newline().icon("👥").line("INDIVIDUAL ATTENDANCE RATES:");
+        renderer.separator('─', 80);
+        renderRows(order.length, row -> {
+            int index = order[row];
+            Student student = students.get(index);
+            double rate = rates[index];
+            if (renderer.isPlain()) {
+                renderer.text(rate >= 90 ? "+ " : rate >= 75 ? "~ " : "! ");
+            } else {
+                renderer.icon(rate >= 90 ? "🟢" : rate >= 75 ? "🟡" : "🔴");
+            }
+            renderer.left(student.getStudentId(), 12).text(" | ").left(student.getName(), 20)
+                    .text(" | ").fixed(rate, 1, 5).text("% | ").line(getAttendanceCategory(rate));
+        }, note -> {
+            renderer.line(note);
+            renderer.finish();
+        });
+        renderer.separator('─', 80);
+        renderer.line(renderer.isPlain() ? "+ Excellent (90%+)  ~ Good (75-89%)  ! Needs Improvement (<75%)"
+                : "🟢 Excellent (90%+)  🟡 Good (75-89%)  🔴 Needs Improvement (<75%)");
+        renderer.finish();
     }
 
     // ==================== NOTIFICATION AND ANALYTICS METHODS ====================
 
     private void handleNotifyGrades(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: notify_grades <className>");
+            out().println("Usage: notify_grades <className>");
             return;
         }
         String className = parts[1];
@@ -622,30 +1384,31 @@ public class VirtualClassroomManager {
                 .filter(a -> a.hasAnyGraded())
                 .collect(Collectors.toList());
         if (gradedAssignments.isEmpty()) {
-            System.out.println("📄 No graded assignments found for " + className);
+            out().println("📄 No graded assignments found for " + className);
             return;
         }
-        System.out.println("🔔 GRADE PUBLICATION NOTIFICATIONS - " + className);
-        System.out.println("═".repeat(80));
+        out().println("🔔 GRADE PUBLICATION NOTIFICATIONS - " + className);
+        out().println("═".repeat(80));
         for (Assignment assignment : gradedAssignments) {
-            for (String studentId : assignment.getGradedStudentIds()) {
-                Double gradeValue = assignment.getGrades().get(studentId);
-                System.out.println("📝 " + assignment.getTitle());
-                System.out.println("  👤 Student: " + studentId);
-                System.out.println("  💯 Grade: " + (gradeValue != null ? gradeValue : "N/A") + "/" + assignment.getMaxPoints() +
+            Map<String, Double> grades = assignment.getGrades();
+            for (String studentId : grades.keySet()) {
+                Double gradeValue = grades.get(studentId);
+                out().println("📝 " + assignment.getTitle());
+                out().println("  👤 Student: " + studentId);
+                out().println("  💯 Grade: " + (gradeValue != null ? gradeValue : "N/A") + "/" + assignment.getMaxPoints() +
                                  " (" + assignment.getGradePercentage(studentId) + "%)");
-                System.out.println("  🏆 Letter Grade: " + assignment.getLetterGrade(studentId));
-                System.out.println();
-                notifications.add("📧 Grade notification sent to " + studentId + " for " + assignment.getTitle());
+                out().println("  🏆 Letter Grade: " + assignment.getLetterGrade(studentId));
+                out().println();
+                addNotification("📧 Grade notification sent to " + studentId + " for " + assignment.getTitle());
             }
         }
-        System.out.println("✅ Grade notifications sent for all graded assignments");
+        out().println("✅ Grade notifications sent for all graded assignments");
         logger.info("Grade notifications sent for " + className + " - " + gradedAssignments.size() + " assignments");
     }
     
     private void handleClassroomAnalytics(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: classroom_analytics <className>");
+            out().println("Usage: classroom_analytics <className>");
             return;
         }
         String className = parts[1];
@@ -653,31 +1416,23 @@ public class VirtualClassroomManager {
         if (classroom == null) {
             throw new ValidationException("Classroom not found: " + className);
         }
-        System.out.println(classroom.getClassroomStatistics());
-        List<Assignment> assignments = classroom.getAllAssignments();
-        if (!assignments.isEmpty()) {
-            List<Assignment> gradedAssignments = assignments.stream()
-                    .filter(a -> a.hasAnyGraded())
-                    .collect(Collectors.toList());
-            if (!gradedAssignments.isEmpty()) {
-                System.out.println("\n🏆 GRADE DISTRIBUTION:");
-                Map<String, Long> gradeDistribution = new HashMap<>();
-                for (Assignment assignment : gradedAssignments) {
-                    for (String studentId : assignment.getGradedStudentIds()) {
-                        String letter = assignment.getLetterGrade(studentId);
-                        gradeDistribution.put(letter, gradeDistribution.getOrDefault(letter, 0L) + 1);
-                    }
-                }
+        ClassroomSnapshot snapshot = classroom.snapshot();
+        renderOutsideLock(() -> {
+            out().println(reportCache.getClassroomStatistics(snapshot));
+            int assignments = snapshot.getAssignments().size();
+            Map<String, Long> gradeDistribution = snapshot.getGradeDistribution(index -> checkpointReport(index, assignments));
+            if (!gradeDistribution.isEmpty()) {
+                out().println("\n🏆 GRADE DISTRIBUTION:");
                 for (Map.Entry<String, Long> entry : gradeDistribution.entrySet()) {
-                    System.out.println("  Grade " + entry.getKey() + ": " + entry.getValue() + " students");
+                    out().println("  Grade " + entry.getKey() + ": " + entry.getValue() + " students");
                 }
             }
-        }
+        });
     }
-    
+
     private void handleSubmissionAnalytics(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: submission_analytics <className>");
+            out().println("Usage: submission_analytics <className>");
             return;
         }
         String className = parts[1];
@@ -685,64 +1440,214 @@ public class VirtualClassroomManager {
         if (classroom == null) {
             throw new ValidationException("Classroom not found: " + className);
         }
-        System.out.println(classroom.getSubmissionAnalytics());
-        List<Assignment> assignments = classroom.getAllAssignments();
-        if (!assignments.isEmpty()) {
-            long submittedCount = assignments.stream()
-                    .mapToLong(a -> a.getSubmittedStudentIds().size())
-                    .sum();
-            double submissionRate = assignments.size() > 0 ? (double) submittedCount / (assignments.size() * classroom.getEnrolledStudentCount()) * 100 : 0.0;
-            System.out.println("📈 SUBMISSION STATISTICS:");
-            System.out.println("  Total Assignments: " + assignments.size());
-            System.out.println("  Total Submissions: " + submittedCount);
-            System.out.println("  Submission Rate: " + String.format("%.1f%%", submissionRate));
-        }
+        ClassroomSnapshot snapshot = classroom.snapshot();
+        renderOutsideLock(() -> {
+            List<AssignmentSnapshot> assignments = snapshot.getAssignments();
+            out().println(reportCache.getSubmissionAnalytics(snapshot, index -> checkpointReport(index, assignments.size())));
+            if (!assignments.isEmpty()) {
+                long submittedCount = assignments.stream()
+                        .mapToLong(AssignmentSnapshot::getSubmissionCount)
+                        .sum();
+                double submissionRate = assignments.size() > 0 ? (double) submittedCount / (assignments.size() * snapshot.getEnrolledStudentCount()) * 100 : 0.0;
+                out().println("📈 SUBMISSION STATISTICS:");
+                out().println("  Total Assignments: " + assignments.size());
+                out().println("  Total Submissions: " + submittedCount);
+                out().println("  Submission Rate: " + String.format("%.1f%%", submissionRate));
+            }
+        });
     }
     
     private void handleStudentProgress(String[] parts) throws ValidationException {
         if (parts.length < 2) {
-            System.out.println("Usage: student_progress <studentId>");
+            out().println("Usage: student_progress <studentId>");
             return;
         }
         String studentId = parts[1];
-        Student student = students.get(studentId);
+        Student student = findStudent(studentId);
         if (student == null) {
             throw new ValidationException("Student not found: " + studentId);
         }
-        System.out.println("\n📊 STUDENT PROGRESS DASHBOARD");
-        System.out.println("👤 Student: " + student.getName() + " (" + studentId + ")");
-        System.out.println("═".repeat(80));
-        Map<String, List<Assignment>> allSubmissions = student.getAllSubmittedAssignments();
-        int totalSubmissions = allSubmissions.values().stream()
-                .mapToInt(List::size)
-                .sum();
-        System.out.println("📚 Enrolled Classrooms: " + student.getEnrolledClassrooms().size());
-        System.out.println("📝 Total Assignments Submitted: " + totalSubmissions);
-        System.out.println("💯 Overall Grade Average: " + String.format("%.2f", student.getGradeAverage()));
-        System.out.println("📋 Attendance Rate: " + String.format("%.2f%%", student.getAttendancePercentage()));
-        System.out.println("\n🏫 PERFORMANCE BY CLASSROOM:");
-        System.out.println("─".repeat(80));
-        for (String classroomName : student.getEnrolledClassrooms()) {
-            List<Assignment> classroomAssignments = student.getSubmittedAssignments(classroomName);
-            if (!classroomAssignments.isEmpty()) {
-                double avgGrade = classroomAssignments.stream()
-                        .mapToDouble(a -> a.getGradePercentage(studentId))
-                        .average()
-                        .orElse(0.0);
-                System.out.printf("📖 %-20s | %2d assignments | Avg: %5.1f%%%n",
-                                classroomName, classroomAssignments.size(), avgGrade);
+        // Inside a command group the entities hold uncommitted changes the view has not seen yet
+        StudentProgressView.StudentProgress progress = studentProgress.get(student, openTransaction == null);
+        List<StudentProgressView.ClassroomProgress> byClassroom = new ArrayList<>(progress.getClassrooms());
+        byClassroom.sort(Comparator.comparing(p -> classroomName(p.getClassroomId())));
+        out().println("\n📊 STUDENT PROGRESS DASHBOARD");
+        out().println("👤 Student: " + student.getName() + " (" + studentId + ")");
+        out().println("═".repeat(80));
+        out().println("📚 Enrolled Classrooms: " + student.getEnrolledClassroomCount());
+        out().println("📝 Total Assignments Submitted: " + student.getTotalAssignments());
+        out().println("💯 Overall Grade Average: " + String.format("%.2f", progress.getGradeAverage()));
+        out().println("📋 Attendance Rate: " + String.format("%.2f%%", student.getAttendancePercentage()));
+        out().println("\n🏫 PERFORMANCE BY CLASSROOM:");
+        out().println("─".repeat(80));
+        for (StudentProgressView.ClassroomProgress classroom : byClassroom) {
+            String attendance = classroom.getPresent() == null ? "-" : classroom.getPresent() ? "Present" : "Absent";
+            String lastActivity = classroom.getLastActivity() == 0 ? "-"
+                    : LocalDateTime.ofInstant(Instant.ofEpochMilli(classroom.getLastActivity()), ZoneId.systemDefault())
+                            .format(PROGRESS_TIME_FORMAT);
+            out().printf("📖 %-20s | %2d submitted | %2d graded | Avg: %5.1f%% | %-7s | Last: %s%n",
+                    classroomName(classroom.getClassroomId()), classroom.getSubmittedCount(), classroom.getGradedCount(),
+                    classroom.getAveragePercentage(), attendance, lastActivity);
+        }
+    }
+
+    private void handleRankStudents(String[] parts) throws ValidationException {
+        if (parts.length < 2) {
+            out().println("Usage: rank_students <attendance|grades|submissions> [top|bottom] [count]");
+            out().println("Example: rank_students attendance bottom 10  (most at-risk students)");
+            return;
+        }
+        StudentRankings.Metric metric = switch (parts[1].toLowerCase()) {
+            case "attendance" -> StudentRankings.Metric.ATTENDANCE;
+            case "grades" -> StudentRankings.Metric.GRADE_AVERAGE;
+            case "submissions" -> StudentRankings.Metric.SUBMISSIONS;
+            default -> throw new ValidationException("Unknown ranking metric: " + parts[1] + " (use attendance, grades or submissions)");
+        };
+        boolean bottom = parts.length > 2 && parts[2].equalsIgnoreCase("bottom");
+        if (parts.length > 2 && !bottom && !parts[2].equalsIgnoreCase("top")) {
+            throw new ValidationException("Expected top or bottom: " + parts[2]);
+        }
+        int count = parts.length > 3 ? Integer.parseInt(parts[3]) : 10;
+        boolean cacheable = openTransaction == null;
+        List<StudentRankings.RankedStudent> ranked = bottom
+                ? studentRankings.bottom(metric, count, cacheable) : studentRankings.top(metric, count, cacheable);
+        if (ranked.isEmpty()) {
+            out().println("📄 No students found");
+            return;
+        }
+        ConsoleRenderer renderer = session().renderer();
+        renderer.newline().icon(bottom ? "🔻" : "🏆").text(bottom ? "BOTTOM " : "TOP ").text(String.valueOf(ranked.size()))
+                .text(" BY ").text(metric.getLabel().toUpperCase()).text(" (of ").text(String.valueOf(studentRankings.size(cacheable))).line(" students)");
+        renderer.separator('═', 60);
+        int rank = 1;
+        for (StudentRankings.RankedStudent entry : ranked) {
+            Student student = students.get(entry.getStudentId());
+            renderer.number(rank++, 4).text(". ").left(entry.getStudentId(), 12).text(" | ")
+                    .left(student != null ? student.getName() : "-", 20).text(" | ")
+                    .fixed(entry.getScore(), metric == StudentRankings.Metric.SUBMISSIONS ? 0 : 1, 6).line(metric.getUnit());
+        }
+        renderer.separator('═', 60);
+        renderer.finish();
+    }
+
+    private void handleInstitutionAnalytics(String[] parts) {
+        int listLimit = parts.length > 1 ? Integer.parseInt(parts[1]) : 10;
+        if (classrooms.isEmpty()) {
+            out().println("📄 No classrooms to analyze");
+            return;
+        }
+        out().println("\n🏛️  INSTITUTION ANALYTICS (" + institutionAnalytics.getParallelism() + " workers)");
+        out().println("═".repeat(80));
+        out().println(institutionAnalytics.analyze(classrooms.values(), workerCheckpoint()).getReport(listLimit));
+    }
+
+    private void handleSimilarityReport(String[] parts) throws ValidationException {
+        if (parts.length < 3) {
+            out().println("Usage: similarity_report <className> <assignmentTitle> [minSimilarity%]");
+            return;
+        }
+        Classroom classroom = classrooms.get(parts[1]);
+        if (classroom == null) {
+            throw new ValidationException("Classroom not found: " + parts[1]);
+        }
+        Assignment assignment = classroom.findAssignmentByTitle(parts[2]);
+        if (assignment == null) {
+            throw new ValidationException("Assignment not found: " + parts[2]);
+        }
+        if (blobStore == null) {
+            out().println("📦 Submitted file contents are not stored (start with -Dvcm.blob.store=<directory>)");
+            return;
+        }
+        double threshold = parts.length > 3 ? Double.parseDouble(parts[3]) / 100 : SimilarityDetector.DEFAULT_THRESHOLD;
+        // stored blobs are immutable, so only the blob ID lists need copying before the lock is released
+        Map<String, List<String>> blobIds = new HashMap<>();
+        assignment.getSubmittedBlobIds().forEach((studentId, ids) -> blobIds.put(studentId, List.copyOf(ids)));
+        for (String studentId : assignment.getSubmittedStudentIds()) {
+            blobIds.putIfAbsent(studentId, List.of());
+        }
+        String title = assignment.getTitle();
+        renderOutsideLock(() -> {
+            out().println("\n🔍 SIMILARITY ANALYSIS (" + similarityDetector.getParallelism() + " workers)");
+            out().println("═".repeat(80));
+            out().println(similarityDetector.analyze(title, blobIds, blobStore::readAllBytes, threshold, workerCheckpoint())
+                    .getReport(20));
+        });
+    }
+
+    private void handleEvents(String[] parts) {
+        DomainEventStream stream = DomainEventStream.getInstance();
+        int limit = parts.length > 2 ? Integer.parseInt(parts[2]) : 20;
+        long from = parts.length > 1 ? Long.parseLong(parts[1]) : Math.max(1, stream.getLatestOffset() - limit + 1);
+        out().println("\n📡 DOMAIN EVENTS (retained offsets " + stream.getOldestOffset() + "-" + stream.getLatestOffset() + ")");
+        out().println("═".repeat(80));
+        List<DomainEvent> events = stream.replay(from, limit);
+        if (events.isEmpty()) {
+            out().println("📄 No events from offset " + from);
+            return;
+        }
+        for (DomainEvent event : events) {
+            out().println(event);
+        }
+        out().println("═".repeat(80));
+        out().println("Next offset: " + (events.get(events.size() - 1).getSequence() + 1));
+    }
+
+    private void handleAudit(String[] parts) throws ValidationException {
+        if (parts.length < 2) {
+            out().println("Usage: audit <studentId> [from] [to] [limit]");
+            return;
+        }
+        if (auditLog == null) {
+            throw new ValidationException("Audit log is not enabled (start with -Dvcm.audit.dir=<directory>)");
+        }
+        String studentId = parts[1];
+        if (!ValidationHelper.isValidStudentId(studentId)) {
+            throw new ValidationException("Invalid student ID format: " + studentId);
+        }
+        long from = parts.length > 2 && !parts[2].equals("-") ? parseAuditTime(parts[2], false) : 0;
+        long to = parts.length > 3 && !parts[3].equals("-") ? parseAuditTime(parts[3], true) : Long.MAX_VALUE;
+        int limit = parts.length > 4 ? Integer.parseInt(parts[4]) : 100;
+        AuditLog log = auditLog;
+        // the query reads segment files, so it runs after the model lock is released
+        renderOutsideLock(() -> {
+            List<AuditRecord> records;
+            try {
+                records = log.query(studentId, from, to, limit);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+            out().println("\n🧾 AUDIT TRAIL - " + studentId);
+            out().println("═".repeat(100));
+            if (records.isEmpty()) {
+                out().println("📄 No audited changes in this period");
+            }
+            records.forEach(out()::println);
+            out().println("═".repeat(100));
+            out().println(records.size() + " change(s)" + (records.size() == limit ? " (limit reached)" : ""));
+        });
+    }
+
+    /**
+     * Epoch millis for yyyy-MM-dd (start or end of day) or yyyy-MM-ddTHH:mm
+     */
+    private long parseAuditTime(String value, boolean endOfRange) throws ValidationException {
+        try {
+            LocalDateTime time = value.contains("T") ? LocalDateTime.parse(value)
+                    : LocalDate.parse(value).atTime(endOfRange ? LocalTime.MAX : LocalTime.MIDNIGHT);
+            return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid audit time (expected yyyy-MM-dd or yyyy-MM-ddTHH:mm): " + value);
         }
     }
 
     // ==================== SYSTEM COMMAND METHODS ====================
 
     private void handleExit() {
-        System.out.println("👋 Thank you for using Virtual Classroom Manager!");
-        System.out.println("📊 Session Summary:");
-        System.out.println("  Classrooms: " + classrooms.size());
-        System.out.println("  Students: " + students.size());
-        System.out.println("  Notifications: " + notifications.size());
+        out().println("👋 Thank you for using Virtual Classroom Manager!");
+        out().println("📊 Session Summary:");
+        out().println("  Classrooms: " + classrooms.size());
+        out().println("  Students: " + students.size());
+        out().println("  Notifications: " + notificationCount);
         logger.info("Application shutting down gracefully");
         isRunning = false;
     }
@@ -752,30 +1657,417 @@ public class VirtualClassroomManager {
             if (System.getProperty("os.name").contains("Windows")) {
                 new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
             } else {
-                System.out.print("\033[2J\033[H");
-                System.out.flush();
+                out().print("\033[2J\033[H");
+                out().flush();
             }
         } catch (Exception e) {
             for (int i = 0; i < 50; i++) {
-                System.out.println();
+                out().println();
             }
         }
-        System.out.println(WELCOME_MESSAGE);
+        out().println(WELCOME_MESSAGE);
     }
     
     private void handleDebugToggle(String[] parts) {
         boolean enableDebug = parts.length > 1 && parts[1].equalsIgnoreCase("on");
         if (enableDebug) {
             logger.setLogLevel(Logger.LogLevel.DEBUG);
-            System.out.println("🐛 Debug logging enabled");
+            out().println("🐛 Debug logging enabled");
         } else {
             logger.setLogLevel(Logger.LogLevel.INFO);
-            System.out.println("ℹ️  Debug logging disabled");
+            out().println("ℹ️  Debug logging disabled");
         }
     }
 
+    private void handleOutputMode(String[] parts) throws ValidationException {
+        if (parts.length > 1) {
+            try {
+                session().setOutputMode(OutputMode.valueOf(parts[1].toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Unknown output mode: " + parts[1] + " (use rich or plain)");
+            }
+        }
+        OutputMode mode = session().getOutputMode();
+        out().println("Output mode: " + mode.name().toLowerCase() + " - " + mode.getDescription());
+    }
+
+    private void handleStorageStats(String[] parts) throws ValidationException {
+        if (blobStore == null) {
+            out().println("📦 Submission file storage is disabled (start with -Dvcm.blob.store=<directory>)");
+            return;
+        }
+        out().println("📦 " + blobStore.getStatistics());
+        Collection<Classroom> scope;
+        if (parts.length > 1) {
+            Classroom classroom = classrooms.get(parts[1]);
+            if (classroom == null) {
+                throw new ValidationException("Classroom not found: " + parts[1]);
+            }
+            scope = List.of(classroom);
+        } else {
+            scope = classrooms.values();
+        }
+        for (Classroom classroom : scope) {
+            for (Assignment assignment : classroom.getAllAssignments()) {
+                BlobStore.AssignmentUsage usage = blobStore.getUsage(assignment.getAssignmentId());
+                if (usage != null) {
+                    out().printf("  %-20s %-20s %s%n", classroom.getName(), assignment.getTitle(), usage);
+                }
+            }
+        }
+    }
+
+    // ==================== COMMAND GROUP METHODS ====================
+
+    private void handleBegin() throws ValidationException {
+        if (openTransaction != null) {
+            throw new ValidationException("A command group is already open; commit or rollback first");
+        }
+        openTransaction = new CommandTransaction(session(), true);
+        out().println("🔁 Command group started. Changes apply on 'commit' and are discarded on 'rollback'.");
+    }
+
+    private void handleCommit() throws ValidationException {
+        CommandTransaction group = requireOpenGroup();
+        openTransaction = null;
+        // waiting sessions wake once this command releases the lock, whether or not the commit succeeds
+        groupClosed.signalAll();
+        commitTransaction(group);
+        out().println("✅ Committed " + group.getCommandCount() + " command(s) in " + group.getElapsedMillis() + " ms");
+        logger.info("Command group committed: " + group.getCommandCount() + " commands, " + group.getEvents().size() + " events");
+    }
+
+    private void handleRollback() throws ValidationException {
+        CommandTransaction group = requireOpenGroup();
+        int undone = group.rollbackAll();
+        openTransaction = null;
+        groupClosed.signalAll();
+        out().println("↩️  Rolled back " + group.getCommandCount() + " command(s) (" + undone + " change(s) undone)");
+        logger.info("Command group rolled back: " + group.getCommandCount() + " commands");
+    }
+
+    private CommandTransaction requireOpenGroup() throws ValidationException {
+        if (openTransaction == null || openTransaction.getOwner() != session()) {
+            throw new ValidationException("No command group is open; use 'begin' first");
+        }
+        return openTransaction;
+    }
+
+    /**
+     * Make a unit's changes final: apply its student store writes with one
+     * sync, then publish its events and deliver its notifications. If a store
+     * write fails, the writes already applied are reverted and the whole unit
+     * is rolled back, so the heap and the store never disagree.
+     */
+    private void commitTransaction(CommandTransaction unit) throws ValidationException {
+        List<CommandTransaction.StoreWrite> writes = unit.getStoreWrites();
+        int applied = 0;
+        try {
+            for (; applied < writes.size(); applied++) {
+                writes.get(applied).apply();
+            }
+            if (!writes.isEmpty()) {
+                studentStore.sync();
+            }
+        } catch (Exception e) {
+            for (int i = applied - 1; i >= 0; i--) {
+                try {
+                    writes.get(i).revert();
+                } catch (Exception revertFailure) {
+                    logger.error("Failed to revert a student store write", revertFailure);
+                }
+            }
+            int undone = unit.rollbackAll();
+            logger.error("Student store write failed at commit; rolled back " + undone + " change(s)", e);
+            throw new ValidationException("Could not persist to the student store (" + e.getMessage()
+                    + "); rolled back " + undone + " change(s)", e);
+        }
+        unit.clearUndo();
+        if (auditLog != null && !unit.getEvents().isEmpty()) {
+            audit(unit.getEvents(), unit.getOwner().getName());
+        }
+        DomainEventStream.getInstance().publishAll(unit.getEvents());
+        unit.getNotifications().forEach(this::deliverNotification);
+    }
+
+    /**
+     * Record the audited changes of a committed unit under the session that made them
+     */
+    private void audit(List<DomainEvent> events, String actor) {
+        for (DomainEvent event : events) {
+            if (event instanceof AssignmentGraded graded) {
+                auditLog.append(AuditAction.GRADED, graded.getStudentId(), classroomName(graded.getClassroomId()), actor,
+                        assignmentTitle(graded.getClassroomId(), graded.getAssignmentId()), graded.getPoints(), graded.getMaxPoints());
+            } else if (event instanceof AttendanceMarked marked) {
+                auditLog.append(AuditAction.ATTENDANCE, marked.getStudentId(), classroomName(marked.getClassroomId()), actor,
+                        null, marked.isPresent() ? 1 : 0, 0);
+            } else if (event instanceof StudentEnrolled enrolled) {
+                auditLog.append(AuditAction.ENROLLED, enrolled.getStudentId(), classroomName(enrolled.getClassroomId()), actor,
+                        null, 0, 0);
+            } else if (event instanceof StudentUnenrolled unenrolled) {
+                auditLog.append(AuditAction.UNENROLLED, unenrolled.getStudentId(), classroomName(unenrolled.getClassroomId()), actor,
+                        null, 0, 0);
+            }
+        }
+        auditLog.flush();
+    }
+
+    private String assignmentTitle(String classroomId, String assignmentId) {
+        Classroom classroom = classroomsById.get(classroomId);
+        if (classroom != null) {
+            for (Assignment assignment : classroom.getAllAssignments()) {
+                if (assignment.getAssignmentId().equals(assignmentId)) {
+                    return assignment.getTitle();
+                }
+            }
+        }
+        return assignmentId;
+    }
+
     // ==================== HELPER METHODS ====================
 
+    /**
+     * Store the submitted file's content when blob storage is enabled and the name points to a readable file
+     */
+    /**
+     * The submitted file as a path the server may read, or null: files must lie under the upload
+     * directory when one is configured, otherwise only local sessions may name files
+     */
+    private Path resolveUpload(String fileName) {
+        try {
+            if (uploadDirectory == null) {
+                return session().isRemote() ? null : Paths.get(fileName);
+            }
+            Path path = uploadDirectory.resolve(fileName).normalize();
+            // compare real paths so a symbolic link cannot lead out of the directory
+            if (!Files.exists(path) || !path.toRealPath().startsWith(uploadDirectory.toRealPath())) {
+                return null;
+            }
+            return path;
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private BlobStore.StoredBlob storeSubmittedFile(Assignment assignment, String fileName) {
+        if (blobStore == null) {
+            return null;
+        }
+        Path path = resolveUpload(fileName);
+        if (path == null || !Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            BlobStore store = blobStore;
+            BlobStore.StoredBlob blob = store.store(path, assignment.getAssignmentId());
+            UndoLog.record(() -> store.unstore(blob, assignment.getAssignmentId()));
+            return blob;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store submitted file " + fileName, e);
+        }
+    }
+
+    private void addNotification(String notification) {
+        if (activeTransaction != null) {
+            // delivered when the command (or its group) commits
+            activeTransaction.getNotifications().add(notification);
+            return;
+        }
+        deliverNotification(notification);
+    }
+
+    private void deliverNotification(String notification) {
+        if (notifications.size() == MAX_RETAINED_NOTIFICATIONS) {
+            notifications.removeFirst();
+        }
+        notifications.addLast(notification);
+        notificationCount++;
+    }
+
+    /**
+     * Stop the current report here if it was cancelled or is past its deadline; no-op outside report tasks
+     */
+    private void checkpointReport() {
+        ReportTask task = currentTask.get();
+        if (task != null) {
+            task.checkpoint();
+        }
+    }
+
+    private void checkpointReport(long done, long total) {
+        ReportTask task = currentTask.get();
+        if (task != null) {
+            task.checkpoint(done, total);
+        }
+    }
+
+    /**
+     * Checkpoint for work handed to pool threads, which do not see the command thread's task;
+     * must be taken on the command thread
+     */
+    private Runnable workerCheckpoint() {
+        ReportTask task = currentTask.get();
+        return task != null ? task::checkpoint : () -> {};
+    }
+
+    /**
+     * Render report rows in order with a cancellation checkpoint every few rows. If the
+     * report is cancelled, the rows written so far are kept and a note saying how far it
+     * got is passed to the given sink before the cancellation propagates.
+     */
+    private void renderRows(int rows, IntConsumer row, Consumer<String> partialNote) {
+        int rendered = 0;
+        try {
+            for (; rendered < rows; rendered++) {
+                if (rendered % ROWS_PER_CHECKPOINT == 0) {
+                    checkpointReport(rendered, rows);
+                }
+                row.accept(rendered);
+            }
+        } catch (ReportCancelledException e) {
+            partialNote.accept("... partial result: " + rendered + " of " + rows + " rows");
+            throw e;
+        }
+    }
+
+    /**
+     * Run a read-only render step once the command has released the model lock.
+     * The step must only touch immutable snapshots taken while the lock was held.
+     */
+    private void renderOutsideLock(Runnable render) {
+        deferredRender.set(render);
+    }
+
+    private CommandSession session() {
+        CommandSession session = currentSession.get();
+        return session != null ? session : consoleSession;
+    }
+
+    private PrintStream out() {
+        return session().out();
+    }
+
+    private AssignmentStatus parseAssignmentStatus(String value) throws ValidationException {
+        try {
+            return AssignmentStatus.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown assignment status: " + value + ". Use one of " +
+                    Arrays.stream(AssignmentStatus.values()).map(Enum::name).collect(Collectors.joining(", ")));
+        }
+    }
+
+    private LocalDateTime parseDueDate(String value) throws ValidationException {
+        try {
+            if (value.contains("T")) {
+                return LocalDateTime.parse(value);
+            }
+            return LocalDate.parse(value).atTime(LocalTime.of(23, 59));
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid due date (expected yyyy-MM-dd or yyyy-MM-ddTHH:mm): " + value);
+        }
+    }
+
+    private Student findStudent(String studentId) throws ValidationException {
+        Student student = students.get(studentId);
+        if (student == null && studentStore != null) {
+            student = studentStore.materialize(studentId);
+            if (student != null) {
+                students.put(studentId, student);
+                UndoLog.record(() -> students.remove(studentId));
+            }
+        }
+        return student;
+    }
+
+    private String classroomName(String classroomId) {
+        Classroom classroom = classroomsById.get(classroomId);
+        return classroom != null ? classroom.getName() : classroomId;
+    }
+
+    /**
+     * Write a new student's identity to the store so it outlives the heap copy
+     */
+    private void persistIdentity(Student student) throws ValidationException {
+        if (studentStore == null) {
+            return;
+        }
+        MappedStudentStore store = studentStore;
+        queueStoreWrite(new CommandTransaction.StoreWrite() {
+            private boolean created;
+
+            @Override
+            public void apply() throws Exception {
+                created = store.put(student);
+            }
+
+            @Override
+            public void revert() {
+                if (created) {
+                    store.remove(student.getStudentId());
+                }
+            }
+        }, "Could not persist student " + student.getStudentId());
+    }
+
+    /**
+     * Drop a student from the heap map once the store holds everything about them.
+     * Enrolled and waitlisted students stay, because their classrooms reference the
+     * object; so do students with submissions or attendance, which only the heap keeps.
+     * An evicted student is served from the mapped record and faulted back in by findStudent.
+     */
+    private void evictIfIdle(Student student) {
+        if (studentStore == null || student == null || student.getEnrolledClassroomCount() > 0
+                || student.hasAttendanceRecords() || student.getTotalAssignments() > 0) {
+            return;
+        }
+        String studentId = student.getStudentId();
+        if (classrooms.values().stream().anyMatch(classroom -> classroom.isWaitlisted(studentId))) {
+            return;
+        }
+        students.remove(studentId);
+        UndoLog.record(() -> students.put(studentId, student));
+        // a student faulted back in restarts at version 0
+        reportCache.invalidate(studentId);
+    }
+
+    private void persistEnrollment(Student student, Classroom classroom, boolean enrolled) throws ValidationException {
+        if (studentStore == null || student == null) {
+            return;
+        }
+        MappedStudentStore store = studentStore;
+        CommandTransaction.StoreWrite write = new CommandTransaction.StoreWrite() {
+            @Override
+            public void apply() throws Exception {
+                if (enrolled) {
+                    store.put(student);
+                }
+                store.setEnrolled(student.getStudentId(), classroom.getClassroomId(), enrolled);
+            }
+
+            // a student record created by put is kept; it holds only the identity fields
+            @Override
+            public void revert() throws Exception {
+                store.setEnrolled(student.getStudentId(), classroom.getClassroomId(), !enrolled);
+            }
+        };
+        queueStoreWrite(write, "Could not persist enrollment of " + student.getStudentId());
+    }
+
+    /**
+     * Defer a store write to the commit of the running command, or apply it now outside one
+     */
+    private void queueStoreWrite(CommandTransaction.StoreWrite write, String failure) throws ValidationException {
+        if (activeTransaction != null) {
+            activeTransaction.getStoreWrites().add(write);
+        } else {
+            try {
+                write.apply();
+            } catch (Exception e) {
+                throw new ValidationException(failure + ": " + e.getMessage());
+            }
+        }
+    }
+
     private String getAttendanceCategory(double rate) {
         if (rate >= 90) return "Excellent";
         if (rate >= 75) return "Good";
@@ -784,12 +2076,29 @@ public class VirtualClassroomManager {
     }
     
     private void cleanup() {
+        endSession(consoleSession);
         if (scanner != null) {
             scanner.close();
         }
+        if (workloadRecorder != null) {
+            workloadRecorder.close();
+        }
+        if (auditLog != null) {
+            auditLog.close();
+        }
+        if (studentStore != null) {
+            try {
+                studentStore.close();
+            } catch (IOException e) {
+                logger.error("Failed to close student store", e);
+            }
+        }
         if (!notifications.isEmpty()) {
-            System.out.println("\n🔔 SYSTEM NOTIFICATIONS:");
-            notifications.forEach(System.out::println);
+            out().println("\n🔔 SYSTEM NOTIFICATIONS:");
+            if (notificationCount > notifications.size()) {
+                out().println("  (last " + notifications.size() + " of " + notificationCount + ")");
+            }
+            notifications.forEach(out()::println);
         }
         logger.info("Virtual Classroom Manager shutdown completed");
     }
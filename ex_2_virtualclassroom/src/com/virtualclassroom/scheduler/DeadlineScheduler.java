@@ -0,0 +1,158 @@
+/**
+ * Deadline Scheduler
+ *
+ * Tracks a reminder and an overdue timer for every pending (assignment, student)
+ * pair on a hashed timer wheel, so reminders and OVERDUE transitions fire
+ * without periodically scanning all assignments.
+ */
+package com.virtualclassroom.scheduler;
+
+import com.virtualclassroom.entity.Assignment;
+import com.virtualclassroom.entity.Classroom;
+import com.virtualclassroom.entity.Student;
+import com.virtualclassroom.entity.UndoLog;
+import com.virtualclassroom.exception.ValidationException;
+import com.virtualclassroom.util.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+public class DeadlineScheduler {
+
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+    public static final int DEFAULT_WHEEL_SIZE = 4096;
+    public static final Duration DEFAULT_REMINDER_LEAD = Duration.ofHours(24);
+
+    private final TimerWheel wheel;
+    private final Duration reminderLead;
+    private final Consumer<String> notifier;
+    private final Map<String, Map<String, TimerWheel.Timeout[]>> timers; // assignmentId -> studentId -> {reminder, overdue}
+    private final Logger logger;
+
+    public DeadlineScheduler(Consumer<String> notifier) {
+        this(notifier, DEFAULT_REMINDER_LEAD, System::currentTimeMillis);
+    }
+
+    public DeadlineScheduler(Consumer<String> notifier, Duration reminderLead, LongSupplier clock) {
+        this.wheel = new TimerWheel(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, clock);
+        this.reminderLead = reminderLead;
+        this.notifier = notifier;
+        this.timers = new HashMap<>();
+        this.logger = Logger.getInstance();
+    }
+
+    public int getPendingTimerCount() { return wheel.getPendingCount(); }
+
+    /**
+     * Start deadline timers for every student enrolled when an assignment is scheduled
+     */
+    public void scheduleAssignment(Classroom classroom, Assignment assignment) {
+        if (!assignment.hasDueDate()) return;
+        for (Student student : classroom.getAllStudents()) {
+            schedule(classroom, assignment, student.getStudentId());
+        }
+    }
+
+    /**
+     * Start deadline timers for a newly enrolled student on every dated assignment
+     */
+    public void scheduleStudent(Classroom classroom, Student student) {
+        for (Assignment assignment : classroom.getAllAssignments()) {
+            if (assignment.hasDueDate() && !assignment.hasSubmitted(student.getStudentId())) {
+                schedule(classroom, assignment, student.getStudentId());
+            }
+        }
+    }
+
+    /**
+     * Cancel the timers of one student on one assignment, e.g. after submission
+     */
+    public void cancel(Classroom classroom, Assignment assignment, String studentId) {
+        Map<String, TimerWheel.Timeout[]> byStudent = timers.get(assignment.getAssignmentId());
+        if (byStudent == null) return;
+        TimerWheel.Timeout[] pair = byStudent.remove(studentId);
+        if (pair != null) {
+            cancelPair(pair);
+            UndoLog.record(() -> schedule(classroom, assignment, studentId));
+        }
+        if (byStudent.isEmpty()) timers.remove(assignment.getAssignmentId());
+    }
+
+    /**
+     * Cancel every timer of a student in a classroom, e.g. after unenrollment
+     */
+    public void cancelStudent(Classroom classroom, String studentId) {
+        for (Assignment assignment : classroom.getAllAssignments()) {
+            cancel(classroom, assignment, studentId);
+        }
+    }
+
+    /**
+     * Cancel every timer of an assignment in one pass
+     */
+    public void cancelAssignment(Classroom classroom, Assignment assignment) {
+        Map<String, TimerWheel.Timeout[]> byStudent = timers.remove(assignment.getAssignmentId());
+        if (byStudent == null) return;
+        byStudent.values().forEach(this::cancelPair);
+        UndoLog.record(() -> byStudent.keySet().forEach(studentId -> schedule(classroom, assignment, studentId)));
+    }
+
+    /**
+     * Fire all reminders and overdue transitions that are due by now
+     */
+    public int advance() {
+        int fired = wheel.advance();
+        if (fired > 0) {
+            logger.debug("Deadline scheduler fired " + fired + " timers");
+        }
+        return fired;
+    }
+
+    private void schedule(Classroom classroom, Assignment assignment, String studentId) {
+        cancel(classroom, assignment, studentId);
+        long dueMillis = toMillis(assignment.getDueDate());
+        long reminderMillis = dueMillis - reminderLead.toMillis();
+        TimerWheel.Timeout[] pair = new TimerWheel.Timeout[2];
+        if (reminderMillis > wheel.now()) {
+            pair[0] = wheel.schedule(reminderMillis, () -> fireReminder(classroom, assignment, studentId));
+        }
+        pair[1] = wheel.schedule(dueMillis, () -> fireOverdue(classroom, assignment, studentId));
+        timers.computeIfAbsent(assignment.getAssignmentId(), k -> new HashMap<>()).put(studentId, pair);
+        UndoLog.record(() -> cancel(classroom, assignment, studentId));
+    }
+
+    private void fireReminder(Classroom classroom, Assignment assignment, String studentId) {
+        if (!classroom.hasStudent(studentId) || assignment.hasSubmitted(studentId)) return;
+        notifier.accept("🔔 Reminder sent to " + studentId + ": '" + assignment.getTitle() + "' in "
+                + classroom.getName() + " is due " + assignment.getDueDate());
+    }
+
+    private void fireOverdue(Classroom classroom, Assignment assignment, String studentId) {
+        Map<String, TimerWheel.Timeout[]> byStudent = timers.get(assignment.getAssignmentId());
+        if (byStudent != null) {
+            byStudent.remove(studentId);
+            if (byStudent.isEmpty()) timers.remove(assignment.getAssignmentId());
+        }
+        if (!classroom.hasStudent(studentId) || assignment.hasSubmitted(studentId)) return;
+        try {
+            assignment.markOverdue(studentId);
+            notifier.accept("⏰ Overdue notice sent to " + studentId + ": '" + assignment.getTitle() + "' in " + classroom.getName());
+        } catch (ValidationException e) {
+            logger.warn("Could not mark assignment overdue: " + e.getMessage());
+        }
+    }
+
+    private void cancelPair(TimerWheel.Timeout[] pair) {
+        for (TimerWheel.Timeout timeout : pair) {
+            if (timeout != null) timeout.cancel();
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Hashed Timer Wheel
+ *
+ * Buckets timeouts by tick in a fixed-size circular array of doubly linked
+ * lists. Scheduling and cancelling are O(1); advancing visits one bucket per
+ * elapsed tick and fires the timeouts whose remaining rounds reached zero.
+ *
+ * Not thread-safe: the wheel is advanced and mutated from the command thread.
+ */
+package com.virtualclassroom.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+public class TimerWheel {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timeout[] buckets;
+    private final int mask;
+    private final LongSupplier clock;
+    private long currentTick;
+    private int pending;
+
+    public TimerWheel(long tickMillis, int wheelSize, LongSupplier clock) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("Tick duration must be greater than 0");
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("Wheel size must be a power of two");
+        this.tickMillis = tickMillis;
+        this.buckets = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+        this.currentTick = 0;
+    }
+
+    public long getTickMillis() { return tickMillis; }
+    public int getPendingCount() { return pending; }
+    public long now() { return clock.getAsLong(); }
+
+    /**
+     * Schedule a task to run once the wheel is advanced past the deadline.
+     * Deadlines in the past fire on the next tick.
+     */
+    public Timeout schedule(long deadlineMillis, Runnable task) {
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis - startMillis, tickMillis), currentTick + 1);
+        Timeout timeout = new Timeout(this, deadlineMillis, task);
+        timeout.remainingRounds = (deadlineTick - currentTick - 1) / buckets.length;
+        timeout.bucket = (int) (deadlineTick & mask);
+        link(timeout);
+        return timeout;
+    }
+
+    /**
+     * Advance the wheel to the clock's current time, running every expired task.
+     *
+     * @return the number of tasks fired
+     */
+    public int advance() {
+        long targetTick = (clock.getAsLong() - startMillis) / tickMillis;
+        if (pending == 0) {
+            currentTick = Math.max(currentTick, targetTick);
+            return 0;
+        }
+        int fired = 0;
+        List<Timeout> expired = new ArrayList<>();
+        while (currentTick < targetTick && pending > 0) {
+            currentTick++;
+            Timeout timeout = buckets[(int) (currentTick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    unlink(timeout);
+                    timeout.expired = true;
+                    expired.add(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            // run after the bucket walk so tasks may freely schedule or cancel other timeouts
+            for (Timeout due : expired) {
+                due.task.run();
+                fired++;
+            }
+            expired.clear();
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return fired;
+    }
+
+    private void link(Timeout timeout) {
+        Timeout head = buckets[timeout.bucket];
+        timeout.next = head;
+        if (head != null) head.prev = timeout;
+        buckets[timeout.bucket] = timeout;
+        pending++;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+        pending--;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    /**
+     * Handle to a scheduled task
+     */
+    public static final class Timeout {
+        private final TimerWheel wheel;
+        private final long deadlineMillis;
+        private final Runnable task;
+        private long remainingRounds;
+        private int bucket;
+        private Timeout prev;
+        private Timeout next;
+        private boolean expired;
+        private boolean cancelled;
+
+        private Timeout(TimerWheel wheel, long deadlineMillis, Runnable task) {
+            this.wheel = wheel;
+            this.deadlineMillis = deadlineMillis;
+            this.task = task;
+        }
+
+        public long getDeadlineMillis() { return deadlineMillis; }
+        public boolean isExpired() { return expired; }
+        public boolean isCancelled() { return cancelled; }
+
+        /**
+         * Remove the timeout from its bucket in O(1); returns false if it already fired or was cancelled
+         */
+        public boolean cancel() {
+            if (expired || cancelled) return false;
+            cancelled = true;
+            wheel.unlink(this);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Client Session
+ *
+ * One TCP terminal. Reads command lines, runs them against the shared manager
+ * through a headless command session whose output is buffered in memory, and
+ * writes the buffered output to the socket only after the command has
+ * released the model lock, so a slow client never stalls other sessions.
+ */
+package com.virtualclassroom.server;
+
+import com.virtualclassroom.manager.CommandSession;
+import com.virtualclassroom.manager.VirtualClassroomManager;
+import com.virtualclassroom.util.Logger;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class ClientSession implements Runnable {
+
+    public static final String PROMPT = "VCM> ";
+    private static final int READ_BUFFER_CHARS = 1024;
+    // Buffers that grew past this for one large report are dropped rather than kept per idle session
+    private static final int RETAINED_BUFFER_BYTES = 16 * 1024;
+
+    private final Socket socket;
+    private final VirtualClassroomManager manager;
+    private final String name;
+    private final Logger logger;
+    private ByteArrayOutputStream buffer;
+    private CommandSession session;
+    private long commandCount;
+
+    public ClientSession(Socket socket, VirtualClassroomManager manager, String name) {
+        this.socket = socket;
+        this.manager = manager;
+        this.name = name;
+        this.logger = Logger.getInstance();
+        resetBuffer();
+    }
+
+    public String getName() { return name; }
+
+    @Override
+    public void run() {
+        try (socket;
+             BufferedReader input = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), READ_BUFFER_CHARS);
+             OutputStream output = socket.getOutputStream()) {
+            output.write(("Connected to Virtual Classroom Manager as " + name + ". Type 'help' for commands, 'exit' to disconnect.\n"
+                    + PROMPT).getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            String line;
+            while ((line = input.readLine()) != null) {
+                String command = line.trim();
+                if (command.equalsIgnoreCase("exit") || command.equalsIgnoreCase("quit")) {
+                    output.write("👋 Goodbye!\n".getBytes(StandardCharsets.UTF_8));
+                    break;
+                }
+                if (!command.isEmpty()) {
+                    manager.executeCommand(session, command);
+                    commandCount++;
+                }
+                session.out().print(PROMPT);
+                session.out().flush();
+                buffer.writeTo(output);
+                output.flush();
+                if (buffer.size() > RETAINED_BUFFER_BYTES) {
+                    resetBuffer();
+                } else {
+                    buffer.reset();
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Session " + name + " closed: " + e.getMessage());
+        } finally {
+            manager.endSession(session);
+            logger.debug("Session " + name + " ended after " + commandCount + " commands");
+        }
+    }
+
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close session " + name + ": " + e.getMessage());
+        }
+    }
+
+    private void resetBuffer() {
+        buffer = new ByteArrayOutputStream(512);
+        session = CommandSession.remote(name, new PrintStream(buffer, false, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Console Load Test
+ *
+ * Opens many concurrent terminal connections against a console server and
+ * drives a teacher-style command mix through each, reporting round-trip
+ * throughput, latency percentiles and the heap used by the in-process server.
+ *
+ * Usage:
+ *   java com.virtualclassroom.server.ConsoleLoadTest [clients] [commandsPerClient] [host:port]
+ *
+ * Without host:port an in-process server is started on an ephemeral port.
+ */
+package com.virtualclassroom.server;
+
+import com.virtualclassroom.manager.VirtualClassroomManager;
+import com.virtualclassroom.util.Logger;
+import com.virtualclassroom.workload.LoadReport;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConsoleLoadTest {
+
+    private static final byte[] PROMPT = ClientSession.PROMPT.getBytes(StandardCharsets.UTF_8);
+    private static final int STUDENTS_PER_CLIENT = 5;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int commandsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        Logger.getInstance().setLogLevel(Logger.LogLevel.WARN);
+
+        ConsoleServer server = null;
+        String host = "localhost";
+        int port;
+        if (args.length > 2) {
+            String[] address = args[2].split(":");
+            host = address[0];
+            port = Integer.parseInt(address[1]);
+        } else {
+            server = new ConsoleServer(new VirtualClassroomManager(), 0);
+            server.start();
+            port = server.getPort();
+        }
+
+        long[] latencies = new long[clients * commandsPerClient];
+        String[] names = new String[latencies.length];
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+        ExecutorService clientThreads = SessionThreads.newSessionExecutor("vcm-client-");
+        String serverHost = host;
+
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            clientThreads.execute(() -> {
+                try (Socket socket = new Socket(serverHost, port);
+                     InputStream input = new BufferedInputStream(socket.getInputStream());
+                     OutputStream output = socket.getOutputStream()) {
+                    socket.setTcpNoDelay(true);
+                    readResponse(input);
+                    String classroom = String.format("Lab%05d", client);
+                    send(output, input, "add_classroom " + classroom + " LoadTest 50");
+                    for (int s = 0; s < STUDENTS_PER_CLIENT; s++) {
+                        send(output, input, "add_student " + studentId(client, s) + " Tester tester"
+                                + client + "x" + s + "@school.edu " + classroom);
+                    }
+                    send(output, input, "schedule_assignment " + classroom + " HW1 LoadTest");
+                    connected.countDown();
+                    go.await();
+                    for (int i = 0; i < commandsPerClient; i++) {
+                        String command = nextCommand(client, classroom, i);
+                        long start = System.nanoTime();
+                        String response = send(output, input, command);
+                        int index = client * commandsPerClient + i;
+                        latencies[index] = System.nanoTime() - start;
+                        names[index] = command.substring(0, command.indexOf(' '));
+                        if (response.contains("❌")) failed.incrementAndGet();
+                    }
+                    output.write("exit\n".getBytes(StandardCharsets.UTF_8));
+                } catch (Exception e) {
+                    System.err.println("Client " + client + " failed: " + e.getMessage());
+                    connected.countDown();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        connected.await();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapUsed = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%d clients connected (%d live sessions), heap used %.1f MB%n",
+                clients, server != null ? server.getActiveSessionCount() : -1, heapUsed / 1048576.0);
+
+        long start = System.nanoTime();
+        go.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        clientThreads.shutdown();
+        clientThreads.awaitTermination(10, TimeUnit.SECONDS);
+        if (server != null) server.close();
+
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == null) names[i] = "(not run)";
+        }
+        System.out.println(new LoadReport(clients + " terminals", latencies, names, failed.get(), elapsed, clients, 0).getReport());
+    }
+
+    private static String nextCommand(int client, String classroom, int i) {
+        String studentId = studentId(client, i % STUDENTS_PER_CLIENT);
+        return switch (i % 5) {
+            case 0 -> "list_students " + classroom;
+            case 1 -> "student_profile " + studentId;
+            case 2 -> "mark_attendance " + classroom + " " + studentId + ":present";
+            case 3 -> "classroom_analytics " + classroom;
+            default -> "list_assignments " + classroom;
+        };
+    }
+
+    private static String studentId(int client, int seat) {
+        return String.format("LT%06d", client * STUDENTS_PER_CLIENT + seat);
+    }
+
+    private static String send(OutputStream output, InputStream input, String command) throws IOException {
+        output.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        return readResponse(input);
+    }
+
+    /**
+     * Read until the prompt that terminates every response
+     */
+    private static String readResponse(InputStream input) throws IOException {
+        ByteArrayOutputStream response = new ByteArrayOutputStream(256);
+        int matched = 0;
+        int b;
+        while ((b = input.read()) >= 0) {
+            response.write(b);
+            matched = b == PROMPT[matched] ? matched + 1 : (b == PROMPT[0] ? 1 : 0);
+            if (matched == PROMPT.length) {
+                return response.toString(StandardCharsets.UTF_8);
+            }
+        }
+        throw new EOFException("Connection closed before prompt");
+    }
+}
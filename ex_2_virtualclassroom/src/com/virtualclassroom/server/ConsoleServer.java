@@ -0,0 +1,107 @@
+/**
+ * Console Server
+ *
+ * TCP line-protocol front end for the manager. Every accepted connection gets
+ * its own {@link ClientSession} on a session thread and runs the regular
+ * command set against the shared model. Responses end with the prompt
+ * {@value ClientSession#PROMPT}.
+ *
+ * Enabled from Main with -Dvcm.server.port=<port>; 'exit' only closes the
+ * connection that sent it. Clients are not authenticated, so the server
+ * listens on the loopback interface unless -Dvcm.server.host names another.
+ */
+package com.virtualclassroom.server;
+
+import com.virtualclassroom.manager.VirtualClassroomManager;
+import com.virtualclassroom.util.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConsoleServer implements AutoCloseable {
+
+    private final VirtualClassroomManager manager;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Map<String, ClientSession> activeSessions;
+    private final AtomicLong sessionCounter;
+    private final Logger logger;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    public ConsoleServer(VirtualClassroomManager manager, int port) throws IOException {
+        this(manager, null, port, 0);
+    }
+
+    /**
+     * @param host           address to listen on, null for the loopback interface
+     * @param sessionThreads upper bound on concurrently served connections, 0 for unbounded
+     */
+    public ConsoleServer(VirtualClassroomManager manager, String host, int port, int sessionThreads) throws IOException {
+        this.manager = manager;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        InetAddress address = host != null ? InetAddress.getByName(host) : InetAddress.getLoopbackAddress();
+        this.serverSocket.bind(new InetSocketAddress(address, port), 1024);
+        this.sessions = SessionThreads.newSessionExecutor("vcm-session-", sessionThreads);
+        this.activeSessions = new ConcurrentHashMap<>();
+        this.sessionCounter = new AtomicLong();
+        this.logger = Logger.getInstance();
+    }
+
+    public int getPort() { return serverSocket.getLocalPort(); }
+    public int getActiveSessionCount() { return activeSessions.size(); }
+
+    public void start() {
+        running = true;
+        acceptThread = new Thread(this::acceptLoop, "vcm-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        logger.info("Console server listening on " + serverSocket.getInetAddress().getHostAddress() + ":" + getPort());
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                String name = "session-" + sessionCounter.incrementAndGet();
+                ClientSession session = new ClientSession(socket, manager, name);
+                activeSessions.put(name, session);
+                sessions.execute(() -> {
+                    try {
+                        session.run();
+                    } finally {
+                        activeSessions.remove(name);
+                    }
+                });
+            } catch (SocketException e) {
+                if (running) logger.error("Console server socket failed", e);
+                return;
+            } catch (IOException e) {
+                logger.warn("Failed to accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close server socket: " + e.getMessage());
+        }
+        activeSessions.values().forEach(ClientSession::close);
+        sessions.shutdown();
+        logger.info("Console server stopped after " + sessionCounter.get() + " sessions");
+    }
+}
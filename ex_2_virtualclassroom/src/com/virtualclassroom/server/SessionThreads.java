@@ -0,0 +1,62 @@
+/**
+ * Session Threads
+ *
+ * Executor that runs every console session on its own thread. On runtimes
+ * with virtual threads (Java 21+) each session gets a virtual thread, so idle
+ * terminals cost a few hundred bytes of heap instead of a native stack; the
+ * manager's model lock and group wait use java.util.concurrent locks, so a
+ * waiting session unmounts instead of pinning its carrier thread. On
+ * older runtimes it falls back to platform threads with a reduced stack size.
+ * A configured session limit instead bounds the executor to that many platform
+ * threads; further connections queue until a session ends.
+ */
+package com.virtualclassroom.server;
+
+import com.virtualclassroom.util.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class SessionThreads {
+
+    // Command handlers are shallow; 256 KB is plenty and keeps thousands of fallback threads affordable
+    private static final long FALLBACK_STACK_BYTES = 256 * 1024;
+
+    private SessionThreads() {}
+
+    public static ExecutorService newSessionExecutor(String namePrefix) {
+        return newSessionExecutor(namePrefix, 0);
+    }
+
+    /**
+     * @param maxThreads upper bound on concurrently running sessions, 0 for one thread per session
+     */
+    public static ExecutorService newSessionExecutor(String namePrefix, int maxThreads) {
+        if (maxThreads > 0) {
+            Logger.getInstance().info("Sessions run on a pool of " + maxThreads + " platform threads");
+            return Executors.newFixedThreadPool(maxThreads, platformThreads(namePrefix));
+        }
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            Logger.getInstance().info("Sessions run on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            Logger.getInstance().info("Virtual threads unavailable on Java " + Runtime.version().feature()
+                    + "; sessions run on platform threads with " + FALLBACK_STACK_BYTES / 1024 + " KB stacks");
+            return Executors.newCachedThreadPool(platformThreads(namePrefix));
+        }
+    }
+
+    private static ThreadFactory platformThreads(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(null, task, namePrefix + counter.incrementAndGet(), FALLBACK_STACK_BYTES);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,450 @@
+/**
+ * Audit Log
+ *
+ * Append-only record of committed grade changes, attendance marks and
+ * enrollment changes, with the session that made them. Records are compact
+ * binary and go into numbered segment files that roll over at a size limit:
+ *
+ *   segment   header (magic, version, base time), then per record:
+ *             varint time offset from the base, action byte, encoded student
+ *             ID (8 bytes), varint string references for classroom, actor and
+ *             subject, varint value (hundredths) and varint max value
+ *   index     every INDEX_INTERVAL-th record's (time, file offset), so a time
+ *             range query maps only the segments that overlap it and seeks
+ *             straight to the nearest indexed record before its start
+ *   strings   shared dictionary of classroom names, actors and assignment
+ *             titles; a typical record is 14-18 bytes
+ *
+ * Times are kept monotonic within a process so every segment is time-ordered.
+ * A new segment is started on every open; a torn tail left by a crash is
+ * ignored by readers.
+ */
+package com.virtualclassroom.storage;
+
+import com.virtualclassroom.enums.AuditAction;
+import com.virtualclassroom.util.Logger;
+import com.virtualclassroom.util.StudentIdCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class AuditLog implements AutoCloseable {
+
+    static final int MAGIC = 0x56434D41; // "VCMA"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 4 + 1 + 8;
+    static final int INDEX_INTERVAL = 64;
+    public static final long DEFAULT_SEGMENT_BYTES = 8L * 1024 * 1024;
+
+    private static final String STRINGS_FILE = "strings.dat";
+    private static final AuditAction[] ACTIONS = AuditAction.values();
+
+    /**
+     * One segment file with its sparse time index
+     */
+    private static final class Segment {
+        private final long sequence;
+        private final Path file;
+        private final long baseMillis;
+        private long[] indexTimes = new long[16];
+        private long[] indexOffsets = new long[16];
+        private int indexSize;
+        private long firstTimestamp = Long.MAX_VALUE;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private long length;
+
+        private Segment(long sequence, Path file, long baseMillis) {
+            this.sequence = sequence;
+            this.file = file;
+            this.baseMillis = baseMillis;
+        }
+
+        private void addIndex(long timestamp, long offset) {
+            if (indexSize == indexTimes.length) {
+                indexTimes = Arrays.copyOf(indexTimes, indexSize * 2);
+                indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+            }
+            indexTimes[indexSize] = timestamp;
+            indexOffsets[indexSize] = offset;
+            indexSize++;
+        }
+
+        private boolean overlaps(long fromMillis, long toMillis) {
+            return firstTimestamp <= toMillis && lastTimestamp >= fromMillis;
+        }
+
+        /**
+         * Offset of the last indexed record strictly before the given time, so no record at or after it is skipped
+         */
+        private long seekOffset(long fromMillis) {
+            int low = 0;
+            int high = indexSize - 1;
+            long offset = HEADER_BYTES;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (indexTimes[mid] < fromMillis) {
+                    offset = indexOffsets[mid];
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return offset;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final List<Segment> segments;
+    private final List<String> strings;
+    private final Map<String, Integer> stringIds;
+    private final DataOutputStream stringOutput;
+    private final Logger logger;
+    private Segment active;
+    private DataOutputStream activeOutput;
+    private DataOutputStream indexOutput;
+    private int recordsSinceIndex;
+    private long lastMillis;
+    private long recordCount;
+    private boolean failed;
+
+    private AuditLog(Path directory, long segmentBytes, List<Segment> segments, List<String> strings,
+                     DataOutputStream stringOutput) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.segments = segments;
+        this.strings = strings;
+        this.stringIds = new HashMap<>();
+        for (int i = 0; i < strings.size(); i++) {
+            stringIds.put(strings.get(i), i);
+        }
+        this.stringOutput = stringOutput;
+        this.logger = Logger.getInstance();
+        for (Segment segment : segments) {
+            lastMillis = Math.max(lastMillis, segment.lastTimestamp);
+        }
+    }
+
+    public static AuditLog open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public static AuditLog open(Path directory, long segmentBytes) throws IOException {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("Audit segments must be at least 4 KB");
+        }
+        Files.createDirectories(directory);
+        Path stringsFile = directory.resolve(STRINGS_FILE);
+        List<String> strings = readStrings(stringsFile);
+        DataOutputStream stringOutput = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(stringsFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 8 * 1024));
+        List<Segment> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".seg")).sorted().toList()) {
+                Segment segment = loadSegment(file);
+                if (segment != null) {
+                    segments.add(segment);
+                }
+            }
+        }
+        AuditLog log = new AuditLog(directory, segmentBytes, segments, strings, stringOutput);
+        Logger.getInstance().info("Audit log opened at " + directory + " (" + segments.size() + " segments, "
+                + strings.size() + " strings)");
+        return log;
+    }
+
+    public Path getDirectory() { return directory; }
+    public synchronized int getSegmentCount() { return segments.size(); }
+    public synchronized long getRecordCount() { return recordCount; }
+
+    /**
+     * Append one committed change. I/O failures are logged once and stop the
+     * audit log; they never fail the command that made the change.
+     *
+     * @param subject assignment title for grades, null otherwise
+     * @param value   points for grades, 1 or 0 for attendance
+     */
+    public synchronized void append(AuditAction action, String studentId, String classroom, String actor,
+                                    String subject, double value, int maxValue) {
+        if (failed) return;
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        try {
+            if (active == null || activeOutput.size() >= segmentBytes) {
+                roll(now);
+            }
+            int classroomRef = intern(classroom);
+            int actorRef = intern(actor);
+            int subjectRef = subject == null ? 0 : intern(subject) + 1;
+            long offset = activeOutput.size();
+            if (recordsSinceIndex == 0) {
+                active.addIndex(now, offset);
+                indexOutput.writeLong(now);
+                indexOutput.writeLong(offset);
+            }
+            recordsSinceIndex = (recordsSinceIndex + 1) % INDEX_INTERVAL;
+            writeVarLong(activeOutput, now - active.baseMillis);
+            activeOutput.writeByte(action.ordinal());
+            activeOutput.writeLong(StudentIdCodec.encode(studentId));
+            writeVarLong(activeOutput, classroomRef);
+            writeVarLong(activeOutput, actorRef);
+            writeVarLong(activeOutput, subjectRef);
+            writeVarLong(activeOutput, Math.max(0, Math.round(value * 100)));
+            writeVarLong(activeOutput, Math.max(0, maxValue));
+            active.firstTimestamp = Math.min(active.firstTimestamp, now);
+            active.lastTimestamp = now;
+            active.length = activeOutput.size();
+            lastMillis = now;
+            recordCount++;
+        } catch (IOException e) {
+            failed = true;
+            logger.error("Audit log stopped after " + recordCount + " records", e);
+        }
+    }
+
+    /**
+     * Push buffered records to the files; the dictionary goes first so every
+     * record on disk can be resolved
+     */
+    public synchronized void flush() {
+        if (failed) return;
+        try {
+            stringOutput.flush();
+            if (activeOutput != null) {
+                activeOutput.flush();
+                indexOutput.flush();
+            }
+        } catch (IOException e) {
+            failed = true;
+            logger.error("Audit log stopped: flush failed", e);
+        }
+    }
+
+    /**
+     * Changes to one student between two times (inclusive), oldest first
+     */
+    public List<AuditRecord> query(String studentId, long fromMillis, long toMillis, int limit) throws IOException {
+        long encoded = StudentIdCodec.encode(studentId);
+        List<long[]> ranges = new ArrayList<>(); // file position, end, base time
+        List<Path> files = new ArrayList<>();
+        String[] dictionary;
+        synchronized (this) {
+            flush();
+            for (Segment segment : segments) {
+                if (segment.overlaps(fromMillis, toMillis)) {
+                    files.add(segment.file);
+                    ranges.add(new long[] {segment.seekOffset(fromMillis), segment.length, segment.baseMillis});
+                }
+            }
+            dictionary = strings.toArray(new String[0]);
+        }
+        // segments are scanned outside the lock so queries never hold up appends
+        List<AuditRecord> results = new ArrayList<>();
+        for (int i = 0; i < files.size() && results.size() < limit; i++) {
+            long[] range = ranges.get(i);
+            if (range[1] <= range[0]) continue;
+            try (FileChannel channel = FileChannel.open(files.get(i), StandardOpenOption.READ)) {
+                long end = Math.min(range[1], channel.size());
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, range[0], end - range[0]);
+                if (!scan(buffer, range[2], encoded, fromMillis, toMillis, limit, dictionary, results)) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return false once a record past the end of the range was reached
+     */
+    private static boolean scan(ByteBuffer buffer, long baseMillis, long encodedStudent, long fromMillis, long toMillis,
+                                int limit, String[] dictionary, List<AuditRecord> results) {
+        try {
+            while (buffer.hasRemaining() && results.size() < limit) {
+                long timestamp = baseMillis + readVarLong(buffer);
+                if (timestamp > toMillis) {
+                    return false;
+                }
+                int action = buffer.get();
+                long student = buffer.getLong();
+                int classroomRef = (int) readVarLong(buffer);
+                int actorRef = (int) readVarLong(buffer);
+                int subjectRef = (int) readVarLong(buffer);
+                long value = readVarLong(buffer);
+                int maxValue = (int) readVarLong(buffer);
+                if (student == encodedStudent && timestamp >= fromMillis) {
+                    results.add(new AuditRecord(timestamp, ACTIONS[action], StudentIdCodec.decode(student),
+                            dictionary[classroomRef], dictionary[actorRef],
+                            subjectRef == 0 ? null : dictionary[subjectRef - 1], value / 100.0, maxValue));
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            // torn tail of a segment that was not closed cleanly
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            stringOutput.close();
+            if (activeOutput != null) {
+                activeOutput.close();
+                indexOutput.close();
+            }
+            logger.info("Audit log closed: " + recordCount + " records appended in " + directory);
+        } catch (IOException e) {
+            logger.error("Failed to close audit log", e);
+        }
+    }
+
+    private int intern(String value) throws IOException {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            stringOutput.writeUTF(value);
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    private void roll(long baseMillis) throws IOException {
+        if (activeOutput != null) {
+            flush();
+            activeOutput.close();
+            indexOutput.close();
+        }
+        long sequence = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).sequence + 1;
+        Path file = directory.resolve(String.format("audit-%012d.seg", sequence));
+        Path index = directory.resolve(String.format("audit-%012d.idx", sequence));
+        activeOutput = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 64 * 1024));
+        indexOutput = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(index, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 4 * 1024));
+        activeOutput.writeInt(MAGIC);
+        activeOutput.writeByte(FORMAT_VERSION);
+        activeOutput.writeLong(baseMillis);
+        active = new Segment(sequence, file, baseMillis);
+        active.length = HEADER_BYTES;
+        segments.add(active);
+        recordsSinceIndex = 0;
+    }
+
+    /**
+     * Read a segment's header and index and find its last record time; null if the file is not a segment
+     */
+    private static Segment loadSegment(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        long sequence;
+        try {
+            sequence = Long.parseLong(name.substring("audit-".length(), name.length() - ".seg".length()));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION) {
+                return null;
+            }
+            Segment segment = new Segment(sequence, file, buffer.getLong());
+            segment.length = channel.size();
+            Path index = file.resolveSibling(name.replace(".seg", ".idx"));
+            if (Files.exists(index)) {
+                ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(index));
+                while (entries.remaining() >= 16) {
+                    long time = entries.getLong();
+                    long offset = entries.getLong();
+                    if (offset < segment.length) {
+                        segment.addIndex(time, offset);
+                    }
+                }
+            }
+            // the index may lag the segment after a crash, so walk the tail after its last entry
+            buffer.position((int) (segment.indexSize > 0 ? segment.indexOffsets[segment.indexSize - 1] : HEADER_BYTES));
+            try {
+                while (buffer.hasRemaining()) {
+                    long timestamp = segment.baseMillis + readVarLong(buffer);
+                    buffer.position(buffer.position() + 1 + 8);
+                    for (int i = 0; i < 5; i++) {
+                        readVarLong(buffer);
+                    }
+                    segment.firstTimestamp = Math.min(segment.firstTimestamp, timestamp);
+                    segment.lastTimestamp = timestamp;
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                // torn tail
+            }
+            if (segment.indexSize > 0) {
+                segment.firstTimestamp = Math.min(segment.firstTimestamp, segment.indexTimes[0]);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Read the dictionary, cutting off a torn final entry so new entries keep their positions
+     */
+    private static List<String> readStrings(Path file) throws IOException {
+        List<String> strings = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return strings;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        long valid = 0;
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            while (valid < bytes.length) {
+                strings.add(input.readUTF());
+                valid = bytes.length - input.available();
+            }
+        } catch (EOFException | UTFDataFormatException e) {
+            // torn entry; dropped below
+        }
+        if (valid < bytes.length) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        return strings;
+    }
+
+    private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Audit Record
+ *
+ * One committed change as read back from the audit log: when it happened,
+ * which session made it, and what changed for which student.
+ */
+package com.virtualclassroom.storage;
+
+import com.virtualclassroom.enums.AuditAction;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+public final class AuditRecord {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final long timestamp;
+    private final AuditAction action;
+    private final String studentId;
+    private final String classroom;
+    private final String actor;
+    private final String subject;
+    private final double value;
+    private final int maxValue;
+
+    AuditRecord(long timestamp, AuditAction action, String studentId, String classroom, String actor,
+                String subject, double value, int maxValue) {
+        this.timestamp = timestamp;
+        this.action = action;
+        this.studentId = studentId;
+        this.classroom = classroom;
+        this.actor = actor;
+        this.subject = subject;
+        this.value = value;
+        this.maxValue = maxValue;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public AuditAction getAction() { return action; }
+    public String getStudentId() { return studentId; }
+    public String getClassroom() { return classroom; }
+    public String getActor() { return actor; }
+
+    /**
+     * Assignment title for grades, null otherwise
+     */
+    public String getSubject() { return subject; }
+
+    /**
+     * Points for grades, 1 or 0 (present/absent) for attendance
+     */
+    public double getValue() { return value; }
+    public int getMaxValue() { return maxValue; }
+
+    public String describe() {
+        return switch (action) {
+            case GRADED -> String.format("%s graded %.1f/%d", subject, value, maxValue);
+            case ATTENDANCE -> value > 0 ? "marked present" : "marked absent";
+            case ENROLLED -> "enrolled";
+            case UNENROLLED -> "unenrolled";
+        };
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s | %-10s | %-8s | %-20s | %s",
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).format(TIME_FORMAT),
+                action.getLabel(), studentId, classroom, describe() + " (by " + actor + ")");
+    }
+}
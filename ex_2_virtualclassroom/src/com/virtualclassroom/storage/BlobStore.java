@@ -0,0 +1,346 @@
+/**
+ * Content-Addressed Blob Store
+ *
+ * Stores submitted files as content-defined chunks named by their SHA-256, so
+ * identical files and the shared parts of near-identical files (starter code,
+ * resubmissions) are kept on disk once. A file is identified by the SHA-256
+ * of its whole content and described by a small manifest listing its chunks.
+ *
+ * Layout under the root directory:
+ *   chunks/ab/abcdef...   raw chunk bytes
+ *   blobs/<blobId>        manifest: size, chunk count, (sha256, length) per chunk
+ *   tmp/                  in-flight writes, moved into place atomically
+ *
+ * The upload is read once through a small heap buffer to find chunk
+ * boundaries and hash them. New chunks are then copied from the uploaded file
+ * with FileChannel.transferTo, and files are streamed back out the same way,
+ * so those copies do not pass through the Java heap.
+ */
+package com.virtualclassroom.storage;
+
+import com.virtualclassroom.util.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+public class BlobStore {
+
+    private static final int HASH_BYTES = 32;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path root;
+    private final Path chunkDirectory;
+    private final Path blobDirectory;
+    private final Path tmpDirectory;
+    private final ContentChunker chunker;
+    private final Map<String, Integer> chunkSizes; // chunk hash -> length
+    private final Map<String, AssignmentUsage> usageByAssignment;
+    private final AtomicLong storedBytes;
+    private final AtomicLong uploadedBytes;
+    private final AtomicLong uploadCount;
+    private final Logger logger;
+
+    private BlobStore(Path root) {
+        this.root = root;
+        this.chunkDirectory = root.resolve("chunks");
+        this.blobDirectory = root.resolve("blobs");
+        this.tmpDirectory = root.resolve("tmp");
+        this.chunker = new ContentChunker();
+        this.chunkSizes = new ConcurrentHashMap<>();
+        this.usageByAssignment = new ConcurrentHashMap<>();
+        this.storedBytes = new AtomicLong();
+        this.uploadedBytes = new AtomicLong();
+        this.uploadCount = new AtomicLong();
+        this.logger = Logger.getInstance();
+    }
+
+    /**
+     * Open or create a store, indexing the chunks already on disk
+     */
+    public static BlobStore open(Path root) throws IOException {
+        BlobStore store = new BlobStore(root);
+        Files.createDirectories(store.chunkDirectory);
+        Files.createDirectories(store.blobDirectory);
+        Files.createDirectories(store.tmpDirectory);
+        try (Stream<Path> chunks = Files.walk(store.chunkDirectory, 2)) {
+            for (Path chunk : (Iterable<Path>) chunks.filter(Files::isRegularFile)::iterator) {
+                int size = (int) Files.size(chunk);
+                store.chunkSizes.put(chunk.getFileName().toString(), size);
+                store.storedBytes.addAndGet(size);
+            }
+        }
+        store.logger.info("Blob store opened: " + root + " (" + store.chunkSizes.size() + " chunks, "
+                + store.storedBytes.get() + " bytes)");
+        return store;
+    }
+
+    public Path getRoot() { return root; }
+
+    /**
+     * Result of storing one file
+     */
+    public static final class StoredBlob {
+        private final String blobId;
+        private final long size;
+        private final List<String> chunkIds;
+        private final int newChunkCount;
+        private final long newBytes;
+
+        private StoredBlob(String blobId, long size, List<String> chunkIds, int newChunkCount, long newBytes) {
+            this.blobId = blobId;
+            this.size = size;
+            this.chunkIds = chunkIds;
+            this.newChunkCount = newChunkCount;
+            this.newBytes = newBytes;
+        }
+
+        public String getBlobId() { return blobId; }
+        public long getSize() { return size; }
+        public int getChunkCount() { return chunkIds.size(); }
+        public int getNewChunkCount() { return newChunkCount; }
+        public long getNewBytes() { return newBytes; }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%d bytes, %d chunks, %d new / %d bytes written)",
+                    blobId.substring(0, 12), size, chunkIds.size(), newChunkCount, newBytes);
+        }
+    }
+
+    /**
+     * Logical and physical storage used by the files submitted for one assignment
+     */
+    public final class AssignmentUsage {
+        private final Map<String, Integer> chunkIds = new HashMap<>(); // chunk hash -> references from this assignment's files
+        private long fileCount;
+        private long logicalBytes;
+
+        private synchronized void add(StoredBlob blob) {
+            fileCount++;
+            logicalBytes += blob.size;
+            for (String chunkId : blob.chunkIds) chunkIds.merge(chunkId, 1, Integer::sum);
+        }
+
+        private synchronized void remove(StoredBlob blob) {
+            fileCount--;
+            logicalBytes -= blob.size;
+            for (String chunkId : blob.chunkIds) {
+                chunkIds.computeIfPresent(chunkId, (id, references) -> references == 1 ? null : references - 1);
+            }
+        }
+
+        public synchronized long getFileCount() { return fileCount; }
+        public synchronized long getLogicalBytes() { return logicalBytes; }
+
+        /**
+         * Bytes of the distinct chunks referenced by this assignment's files
+         */
+        public synchronized long getPhysicalBytes() {
+            long bytes = 0;
+            for (String chunkId : chunkIds.keySet()) {
+                bytes += chunkSizes.getOrDefault(chunkId, 0);
+            }
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            long logical = getLogicalBytes();
+            long physical = getPhysicalBytes();
+            return String.format("%d files | %s submitted | %s on disk | %.1f%% saved by deduplication",
+                    getFileCount(), formatBytes(logical), formatBytes(physical),
+                    logical == 0 ? 0.0 : (1 - (double) physical / logical) * 100);
+        }
+    }
+
+    /**
+     * Store a file submitted for an assignment and account it in the assignment's usage
+     */
+    public StoredBlob store(Path file, String assignmentId) throws IOException {
+        StoredBlob blob = store(file);
+        usageByAssignment.computeIfAbsent(assignmentId, id -> new AssignmentUsage()).add(blob);
+        return blob;
+    }
+
+    /**
+     * Take back the accounting of a store whose submission was rolled back. The chunks and
+     * manifest stay on disk: they are content-addressed and reused by the next identical upload.
+     */
+    public void unstore(StoredBlob blob, String assignmentId) {
+        AssignmentUsage usage = usageByAssignment.get(assignmentId);
+        if (usage != null) usage.remove(blob);
+        uploadCount.decrementAndGet();
+        uploadedBytes.addAndGet(-blob.size);
+    }
+
+    public StoredBlob store(Path file) throws IOException {
+        List<String> chunkIds = new ArrayList<>();
+        List<Integer> chunkLengths = new ArrayList<>();
+        long[] newBytes = new long[1];
+        int[] newChunks = new int[1];
+        long size;
+        byte[] fileHash;
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = source.size();
+            fileHash = chunker.chunk(source, (offset, length, sha256) -> {
+                String chunkId = HEX.formatHex(sha256);
+                chunkIds.add(chunkId);
+                chunkLengths.add(length);
+                if (!chunkSizes.containsKey(chunkId)) {
+                    writeChunk(source, offset, length, chunkId);
+                    if (chunkSizes.putIfAbsent(chunkId, length) == null) {
+                        newChunks[0]++;
+                        newBytes[0] += length;
+                        storedBytes.addAndGet(length);
+                    }
+                }
+            });
+        }
+        String blobId = HEX.formatHex(fileHash);
+        Path manifest = blobDirectory.resolve(blobId);
+        if (!Files.exists(manifest)) {
+            writeManifest(manifest, size, chunkIds, chunkLengths);
+        }
+        uploadCount.incrementAndGet();
+        uploadedBytes.addAndGet(size);
+        logger.debug("Stored blob " + blobId + " from " + file + ": " + newChunks[0] + "/" + chunkIds.size() + " new chunks");
+        return new StoredBlob(blobId, size, chunkIds, newChunks[0], newBytes[0]);
+    }
+
+    public boolean contains(String blobId) {
+        return Files.exists(blobDirectory.resolve(blobId));
+    }
+
+    /**
+     * Stream a stored file into the target channel chunk by chunk
+     *
+     * @return number of bytes written
+     */
+    public long copyTo(String blobId, WritableByteChannel target) throws IOException {
+        long written = 0;
+        for (ChunkRef chunk : readManifest(blobId)) {
+            try (FileChannel channel = FileChannel.open(chunkPath(chunk.id), StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < chunk.length) {
+                    position += channel.transferTo(position, chunk.length - position, target);
+                }
+                written += chunk.length;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Whole content of a stored file; meant for analysis of small text submissions
+     */
+    public byte[] readAllBytes(String blobId) throws IOException {
+        List<ChunkRef> chunks = readManifest(blobId);
+        long size = 0;
+        for (ChunkRef chunk : chunks) size += chunk.length;
+        if (size > Integer.MAX_VALUE) throw new IOException("Blob too large to read into memory: " + blobId);
+        ByteBuffer content = ByteBuffer.allocate((int) size);
+        for (ChunkRef chunk : chunks) {
+            try (FileChannel channel = FileChannel.open(chunkPath(chunk.id), StandardOpenOption.READ)) {
+                int read;
+                do {
+                    read = channel.read(content);
+                } while (read > 0);
+            }
+        }
+        return content.array();
+    }
+
+    public AssignmentUsage getUsage(String assignmentId) {
+        return usageByAssignment.get(assignmentId);
+    }
+
+    public String getStatistics() {
+        long uploaded = uploadedBytes.get();
+        long stored = storedBytes.get();
+        return String.format("Blob store %s: %d uploads | %s uploaded | %d chunks | %s on disk | dedup ratio %.2fx",
+                root, uploadCount.get(), formatBytes(uploaded), chunkSizes.size(), formatBytes(stored),
+                stored == 0 ? 0.0 : (double) uploaded / stored);
+    }
+
+    // --- On-disk helpers ---
+
+    private void writeChunk(FileChannel source, long offset, int length, String chunkId) throws IOException {
+        Path target = chunkPath(chunkId);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(tmpDirectory, "chunk", ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            long copied = 0;
+            while (copied < length) {
+                copied += source.transferTo(offset + copied, length - copied, out);
+            }
+        }
+        moveIntoPlace(tmp, target);
+    }
+
+    private void writeManifest(Path manifest, long size, List<String> chunkIds, List<Integer> chunkLengths) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + chunkIds.size() * (HASH_BYTES + 4));
+        buffer.putLong(size).putInt(chunkIds.size());
+        for (int i = 0; i < chunkIds.size(); i++) {
+            buffer.put(HEX.parseHex(chunkIds.get(i))).putInt(chunkLengths.get(i));
+        }
+        buffer.flip();
+        Path tmp = Files.createTempFile(tmpDirectory, "blob", ".tmp");
+        try (WritableByteChannel out = Channels.newChannel(Files.newOutputStream(tmp))) {
+            while (buffer.hasRemaining()) out.write(buffer);
+        }
+        moveIntoPlace(tmp, manifest);
+    }
+
+    private List<ChunkRef> readManifest(String blobId) throws IOException {
+        Path manifest = blobDirectory.resolve(blobId);
+        if (!Files.exists(manifest)) throw new NoSuchFileException("Unknown blob: " + blobId);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(manifest));
+        buffer.getLong(); // total size
+        int count = buffer.getInt();
+        List<ChunkRef> chunks = new ArrayList<>(count);
+        byte[] hash = new byte[HASH_BYTES];
+        for (int i = 0; i < count; i++) {
+            buffer.get(hash);
+            chunks.add(new ChunkRef(HEX.formatHex(hash), buffer.getInt()));
+        }
+        return chunks;
+    }
+
+    private static void moveIntoPlace(Path tmp, Path target) throws IOException {
+        // identical content under the same name, so losing a race to another writer is harmless
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path chunkPath(String chunkId) {
+        return chunkDirectory.resolve(chunkId.substring(0, 2)).resolve(chunkId);
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+    private static final class ChunkRef {
+        private final String id;
+        private final int length;
+
+        private ChunkRef(String id, int length) {
+            this.id = id;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Content-Defined Chunker
+ *
+ * Splits a file into variable-size chunks whose boundaries depend on the
+ * content (a gear rolling hash), not on offsets. Inserting a line near the top
+ * of a file therefore only changes the chunks around the edit, and the rest
+ * still deduplicate against other students' copies of the same starter code.
+ * Each chunk is hashed with SHA-256 while it is read.
+ */
+package com.virtualclassroom.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.SplittableRandom;
+
+public class ContentChunker {
+
+    public static final int MIN_CHUNK_BYTES = 2 * 1024;
+    public static final int MAX_CHUNK_BYTES = 64 * 1024;
+    // top bits of the gear hash depend on the last 64 bytes; 13 of them give ~8 KB average chunks
+    private static final long BOUNDARY_MASK = ((1L << 13) - 1) << 51;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final long[] GEAR = new long[256];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDC0DEL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Receives each chunk's position in the file, length and SHA-256 digest
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        void accept(long offset, int length, byte[] sha256) throws IOException;
+    }
+
+    /**
+     * Chunk the whole channel from position 0.
+     *
+     * @return SHA-256 of the entire content
+     */
+    public byte[] chunk(FileChannel channel, ChunkConsumer consumer) throws IOException {
+        MessageDigest chunkDigest = sha256();
+        MessageDigest fileDigest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+        byte[] bytes = new byte[READ_BUFFER_BYTES];
+        long position = 0;
+        long chunkStart = 0;
+        int chunkLength = 0;
+        long hash = 0;
+        int read;
+        while ((read = channel.read(buffer, position)) > 0) {
+            buffer.flip();
+            buffer.get(bytes, 0, read);
+            buffer.clear();
+            fileDigest.update(bytes, 0, read);
+            int pending = 0; // start of bytes in this read not yet fed to the chunk digest
+            for (int i = 0; i < read; i++) {
+                hash = (hash << 1) + GEAR[bytes[i] & 0xFF];
+                chunkLength++;
+                if ((chunkLength >= MIN_CHUNK_BYTES && (hash & BOUNDARY_MASK) == 0) || chunkLength >= MAX_CHUNK_BYTES) {
+                    chunkDigest.update(bytes, pending, i + 1 - pending);
+                    pending = i + 1;
+                    consumer.accept(chunkStart, chunkLength, chunkDigest.digest());
+                    chunkStart += chunkLength;
+                    chunkLength = 0;
+                    hash = 0;
+                }
+            }
+            chunkDigest.update(bytes, pending, read - pending);
+            position += read;
+        }
+        if (chunkLength > 0) {
+            consumer.accept(chunkStart, chunkLength, chunkDigest.digest());
+        }
+        return fileDigest.digest();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,574 @@
+/**
+ * Memory-Mapped Student Store
+ *
+ * Keeps student identity and enrollment data off-heap in fixed-width records
+ * inside a memory-mapped file, so millions of students can be looked up
+ * without holding a Student object per record and the data is available
+ * immediately after a restart.
+ *
+ * Enrollment bits refer to classroom slots. A slot is persisted under the
+ * classroom's name, because classroom IDs are regenerated on every run: each
+ * run binds its classroom IDs to slots by name, so a classroom created again
+ * under the same name finds its stored enrollments. Removing a classroom
+ * clears its bit in every record and frees the slot for reuse.
+ */
+package com.virtualclassroom.storage;
+
+import com.virtualclassroom.entity.Student;
+import com.virtualclassroom.exception.ValidationException;
+import com.virtualclassroom.util.Logger;
+import com.virtualclassroom.util.StudentIdCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+public class MappedStudentStore implements AutoCloseable {
+
+    // students.dat layout: header (incl. classroom slot table) padded to 4 KB pages, followed by fixed-width records
+    private static final int MAGIC = 0x56434D53; // "VCMS"
+    private static final int FORMAT_VERSION = 2;     // version 1 files have a fixed slot limit of 256
+    private static final int PAGE_SIZE = 4096;
+    private static final int HDR_MAGIC = 0;
+    private static final int HDR_VERSION = 4;
+    private static final int HDR_CAPACITY = 8;
+    private static final int HDR_COUNT = 12;
+    private static final int HDR_CLASSROOM_SLOTS = 16;
+    private static final int HDR_SLOT_LIMIT = 20;
+    private static final int HDR_SLOT_TABLE = 64;
+
+    // record: identity fields, an enrollment bitmap of one bit per classroom slot, then the update time
+    private static final int REC_ID = 0;
+    private static final int REC_NAME_OFF = 8;
+    private static final int REC_NAME_LEN = 12;
+    private static final int REC_EMAIL_LEN = 14;
+    private static final int REC_EMAIL_OFF = 16;
+    private static final int REC_BITMAP = 24;
+
+    // classroom slots are fixed when the store is created (slots are keyed by classroom name)
+    public static final int DEFAULT_CLASSROOM_SLOTS = 256;
+    private static final int MAX_CLASSROOM_SLOTS = 1 << 14;
+
+    // students.arena layout: 16-byte header holding the write position, then UTF-8 strings
+    private static final int ARENA_HEADER_SIZE = 16;
+
+    public static final int DEFAULT_CAPACITY = 1 << 22;
+    public static final int DEFAULT_ARENA_BYTES = 256 * 1024 * 1024;
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    private final Path directory;
+    private final FileChannel recordChannel;
+    private final FileChannel arenaChannel;
+    private final MappedByteBuffer records;
+    private final MappedByteBuffer arena;
+    private final int capacity;
+    private final int mask;
+    private final int slotLimit;
+    private final int headerSize;
+    private final int recordSize;
+    private final int updatedAtOffset;
+    private final Map<String, Integer> slotsByName;     // persisted slot table
+    private final Map<String, Integer> boundSlots;      // classroom ID of this run -> slot
+    private final Deque<Integer> freeSlots;
+    private final Set<Integer> storedSlots;             // named when opened: may hold bits of earlier runs' students
+    private final Logger logger;
+
+    private MappedStudentStore(Path directory, int capacity, int classroomSlots, int arenaBytes) throws IOException {
+        this.directory = directory;
+        this.logger = Logger.getInstance();
+        Files.createDirectories(directory);
+
+        this.recordChannel = FileChannel.open(directory.resolve("students.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.arenaChannel = FileChannel.open(directory.resolve("students.arena"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        boolean fresh = recordChannel.size() == 0;
+        int effectiveCapacity = capacity;
+        int effectiveSlots = classroomSlots;
+        if (!fresh) {
+            ByteBuffer header = ByteBuffer.allocate(HDR_SLOT_TABLE);
+            recordChannel.read(header, 0);
+            int version = header.getInt(HDR_VERSION);
+            if (header.getInt(HDR_MAGIC) != MAGIC || version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Not a student store file: " + directory.resolve("students.dat"));
+            }
+            effectiveCapacity = header.getInt(HDR_CAPACITY);
+            effectiveSlots = version == 1 ? DEFAULT_CLASSROOM_SLOTS : header.getInt(HDR_SLOT_LIMIT);
+        }
+        this.capacity = effectiveCapacity;
+        this.mask = effectiveCapacity - 1;
+        this.slotLimit = effectiveSlots;
+        this.headerSize = headerSize(effectiveSlots);
+        this.recordSize = recordSize(effectiveSlots);
+        this.updatedAtOffset = recordSize - 8;
+        this.records = recordChannel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize + (long) effectiveCapacity * recordSize);
+        this.arena = arenaChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(arenaBytes, arenaChannel.size()));
+
+        if (fresh) {
+            records.putInt(HDR_MAGIC, MAGIC);
+            records.putInt(HDR_VERSION, FORMAT_VERSION);
+            records.putInt(HDR_CAPACITY, effectiveCapacity);
+            records.putInt(HDR_COUNT, 0);
+            records.putInt(HDR_CLASSROOM_SLOTS, 0);
+            records.putInt(HDR_SLOT_LIMIT, effectiveSlots);
+            arena.putLong(0, ARENA_HEADER_SIZE);
+        }
+
+        this.slotsByName = new HashMap<>();
+        this.boundSlots = new HashMap<>();
+        this.freeSlots = new ArrayDeque<>();
+        this.storedSlots = new HashSet<>();
+        int slotCount = records.getInt(HDR_CLASSROOM_SLOTS);
+        for (int slot = 0; slot < slotCount; slot++) {
+            String name = slotName(slot);
+            if (name.isEmpty()) {
+                freeSlots.add(slot);
+            } else {
+                slotsByName.put(name, slot);
+                storedSlots.add(slot);
+            }
+        }
+        logger.info("Student store opened at " + directory + " (" + size() + " students, capacity " + capacity
+                + ", " + slotLimit + " classroom slots)");
+    }
+
+    /**
+     * Open (or create) a store in the given directory with default sizing
+     */
+    public static MappedStudentStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_CAPACITY, DEFAULT_CLASSROOM_SLOTS, DEFAULT_ARENA_BYTES);
+    }
+
+    /**
+     * Open (or create) a store. Capacity is rounded up to a power of two and the classroom
+     * slot count to a multiple of 64; an existing store keeps the sizing it was created with.
+     */
+    public static MappedStudentStore open(Path directory, int capacity, int classroomSlots, int arenaBytes) throws IOException {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Store capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        if (classroomSlots <= 0 || classroomSlots > MAX_CLASSROOM_SLOTS) {
+            throw new IllegalArgumentException("Classroom slots must be between 1 and " + MAX_CLASSROOM_SLOTS);
+        }
+        if (arenaBytes <= ARENA_HEADER_SIZE) {
+            throw new IllegalArgumentException("Arena size must exceed " + ARENA_HEADER_SIZE + " bytes");
+        }
+        int rounded = Integer.highestOneBit(capacity);
+        if (rounded < capacity) rounded <<= 1;
+        int slots = (classroomSlots + 63) & ~63;
+        // record offsets are int positions in one mapping
+        if (headerSize(slots) + (long) rounded * recordSize(slots) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Store of " + rounded + " students with " + slots
+                    + " classroom slots exceeds 2 GB; lower the capacity or the slot count");
+        }
+        return new MappedStudentStore(directory, rounded, slots, arenaBytes);
+    }
+
+    public Path getDirectory() { return directory; }
+    public int getCapacity() { return capacity; }
+    public int getClassroomSlotLimit() { return slotLimit; }
+    public synchronized int size() { return records.getInt(HDR_COUNT); }
+
+    public synchronized boolean contains(String studentId) {
+        return findRecord(StudentIdCodec.encode(studentId)) >= 0;
+    }
+
+    /**
+     * Insert or update the identity fields of a student
+     *
+     * @return true if a new record was created
+     */
+    public synchronized boolean put(Student student) throws ValidationException {
+        long encodedId = StudentIdCodec.encode(student.getStudentId());
+        if (encodedId == 0L) throw new ValidationException("Invalid student ID format: " + student.getStudentId());
+        int record = findRecord(encodedId);
+        boolean created = record < 0;
+        if (created) {
+            if (size() >= capacity - (capacity >>> 2)) {
+                throw new ValidationException("Student store is full: " + size() + " records");
+            }
+            record = claimRecord(encodedId);
+            records.putInt(HDR_COUNT, size() + 1);
+        }
+        int base = recordBase(record);
+        if (!student.getName().equals(readName(base))) {
+            byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+            records.putInt(base + REC_NAME_OFF, appendString(name));
+            records.putShort(base + REC_NAME_LEN, (short) name.length);
+        }
+        if (!student.getEmail().equals(readEmail(base))) {
+            byte[] email = student.getEmail().getBytes(StandardCharsets.UTF_8);
+            records.putInt(base + REC_EMAIL_OFF, appendString(email));
+            records.putShort(base + REC_EMAIL_LEN, (short) email.length);
+        }
+        records.putLong(base + updatedAtOffset, System.currentTimeMillis());
+        return created;
+    }
+
+    /**
+     * Delete a student record; its strings stay in the append-only arena
+     */
+    public synchronized void remove(String studentId) {
+        int hole = findRecord(StudentIdCodec.encode(studentId));
+        if (hole < 0) return;
+        clearRecord(hole);
+        // backward-shift deletion: pull later records of the probe run into the hole so lookups never stop early
+        for (int record = (hole + 1) & mask; ; record = (record + 1) & mask) {
+            long encodedId = records.getLong(recordBase(record) + REC_ID);
+            if (encodedId == 0L) break;
+            int home = probeStart(encodedId);
+            boolean reachable = hole <= record ? hole < home && home <= record : hole < home || home <= record;
+            if (!reachable) {
+                for (int offset = 0; offset < recordSize; offset += 8) {
+                    records.putLong(recordBase(hole) + offset, records.getLong(recordBase(record) + offset));
+                }
+                clearRecord(record);
+                hole = record;
+            }
+        }
+        records.putInt(HDR_COUNT, size() - 1);
+    }
+
+    /**
+     * Bind a classroom of this run to the slot stored under its name, claiming a free slot for a new name
+     *
+     * @return true if a new slot was claimed, false if the classroom took over an existing one
+     */
+    public synchronized boolean bindClassroom(String classroomId, String name) throws ValidationException {
+        Integer slot = slotsByName.get(name);
+        if (slot != null) {
+            if (boundSlots.containsValue(slot)) {
+                throw new ValidationException("Classroom name already bound in the student store: " + name);
+            }
+            boundSlots.put(classroomId, slot);
+            return false;
+        }
+        int claimed = claimSlot(name);
+        boundSlots.put(classroomId, claimed);
+        return true;
+    }
+
+    /**
+     * Undo {@link #bindClassroom}; a slot the binding claimed is freed again
+     */
+    public synchronized void unbindClassroom(String classroomId, boolean claimed) {
+        Integer slot = boundSlots.remove(classroomId);
+        if (slot != null && claimed) {
+            freeSlot(slot);
+        }
+    }
+
+    /**
+     * Store the classroom's slot under its new name
+     */
+    public synchronized void renameClassroom(String classroomId, String newName) throws ValidationException {
+        int slot = boundSlot(classroomId);
+        if (slotsByName.containsKey(newName)) {
+            throw new ValidationException("Student store still holds enrollments of an earlier classroom named " + newName);
+        }
+        slotsByName.remove(slotName(slot));
+        writeSlotName(slot, newName);
+        slotsByName.put(newName, slot);
+    }
+
+    /**
+     * Whether a renamed classroom can take this name, i.e. no stored slot uses it
+     */
+    public synchronized boolean isClassroomNameFree(String name) {
+        return !slotsByName.containsKey(name);
+    }
+
+    /**
+     * Clear the classroom's bit in the records of its enrolled students and free its slot.
+     * A slot that already existed when the store was opened may also hold students of
+     * earlier runs, so it is cleared in every record instead.
+     *
+     * @param enrolledStudentIds every student the classroom has enrolled in this run
+     * @return what is needed to restore the classroom with {@link #restoreClassroom}
+     */
+    public synchronized ReleasedClassroom releaseClassroom(String classroomId, Collection<String> enrolledStudentIds)
+            throws ValidationException {
+        int slot = boundSlot(classroomId);
+        int word = REC_BITMAP + (slot >>> 6) * 8;
+        long bit = 1L << (slot & 63);
+        boolean stored = storedSlots.remove(slot);
+        List<Integer> enrolled = new ArrayList<>();
+        if (stored) {
+            for (int record = 0; record < capacity; record++) {
+                clearBit(record, word, bit, enrolled);
+            }
+        } else {
+            for (String studentId : enrolledStudentIds) {
+                int record = findRecord(StudentIdCodec.encode(studentId));
+                if (record >= 0) {
+                    clearBit(record, word, bit, enrolled);
+                }
+            }
+        }
+        String name = slotName(slot);
+        boundSlots.remove(classroomId);
+        freeSlot(slot);
+        return new ReleasedClassroom(classroomId, name, slot, stored, enrolled.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private void clearBit(int record, int word, long bit, List<Integer> cleared) {
+        int base = recordBase(record);
+        long bits = records.getLong(base + word);
+        if ((bits & bit) != 0) {
+            records.putLong(base + word, bits & ~bit);
+            cleared.add(record);
+        }
+    }
+
+    /**
+     * Undo {@link #releaseClassroom}; the slot must still be free
+     */
+    public synchronized void restoreClassroom(ReleasedClassroom released) {
+        freeSlots.remove(released.slot);
+        writeSlotName(released.slot, released.name);
+        slotsByName.put(released.name, released.slot);
+        boundSlots.put(released.classroomId, released.slot);
+        if (released.stored) {
+            storedSlots.add(released.slot);
+        }
+        int word = REC_BITMAP + (released.slot >>> 6) * 8;
+        long bit = 1L << (released.slot & 63);
+        for (int record : released.records) {
+            int base = recordBase(record);
+            records.putLong(base + word, records.getLong(base + word) | bit);
+        }
+    }
+
+    /**
+     * Set or clear the enrollment bit of a student for a bound classroom
+     */
+    public synchronized void setEnrolled(String studentId, String classroomId, boolean enrolled) throws ValidationException {
+        int record = findRecord(StudentIdCodec.encode(studentId));
+        if (record < 0) throw new ValidationException("Student not found in store: " + studentId);
+        int slot = boundSlot(classroomId);
+        int word = recordBase(record) + REC_BITMAP + (slot >>> 6) * 8;
+        long bits = records.getLong(word);
+        long bit = 1L << (slot & 63);
+        records.putLong(word, enrolled ? bits | bit : bits & ~bit);
+        records.putLong(recordBase(record) + updatedAtOffset, System.currentTimeMillis());
+    }
+
+    public synchronized String getName(String studentId) {
+        int record = findRecord(StudentIdCodec.encode(studentId));
+        return record < 0 ? null : readName(recordBase(record));
+    }
+
+    public synchronized String getEmail(String studentId) {
+        int record = findRecord(StudentIdCodec.encode(studentId));
+        return record < 0 ? null : readEmail(recordBase(record));
+    }
+
+    /**
+     * Names of the classrooms the student is stored as enrolled in, including classrooms of
+     * earlier runs that have not been created again
+     */
+    public synchronized Set<String> getEnrolledClassrooms(String studentId) {
+        int record = findRecord(StudentIdCodec.encode(studentId));
+        if (record < 0) return new HashSet<>();
+        int base = recordBase(record);
+        Set<String> enrolled = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : slotsByName.entrySet()) {
+            int slot = entry.getValue();
+            if ((records.getLong(base + REC_BITMAP + (slot >>> 6) * 8) & (1L << (slot & 63))) != 0) {
+                enrolled.add(entry.getKey());
+            }
+        }
+        return enrolled;
+    }
+
+    /**
+     * Build a heap Student from the stored identity fields, or null if unknown
+     */
+    public Student materialize(String studentId) throws ValidationException {
+        String name;
+        String email;
+        synchronized (this) {
+            int record = findRecord(StudentIdCodec.encode(studentId));
+            if (record < 0) return null;
+            name = readName(recordBase(record));
+            email = readEmail(recordBase(record));
+        }
+        return new Student.Builder().setStudentId(studentId).setName(name).setEmail(email).build();
+    }
+
+    /**
+     * Render a profile straight from the mapped record without materializing the student
+     */
+    public String getStudentProfile(String studentId) {
+        String name = getName(studentId);
+        if (name == null) return null;
+        List<String> enrolled = getEnrolledClassrooms(studentId).stream().sorted().toList();
+        StringBuilder profile = new StringBuilder();
+        profile.append("=== Student Profile ===\n");
+        profile.append("ID: ").append(studentId).append("\n");
+        profile.append("Name: ").append(name).append("\n");
+        profile.append("Email: ").append(getEmail(studentId)).append("\n");
+        profile.append("Enrolled Classrooms: ").append(enrolled.size()).append("\n");
+        if (!enrolled.isEmpty()) {
+            profile.append("Classrooms: ").append(String.join(", ", enrolled)).append("\n");
+        }
+        return profile.toString();
+    }
+
+    /**
+     * Flush dirty pages of both mapped files to disk
+     */
+    public synchronized void sync() {
+        records.force();
+        arena.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        recordChannel.close();
+        arenaChannel.close();
+        logger.info("Student store closed: " + directory);
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    private int recordBase(int record) {
+        return headerSize + record * recordSize;
+    }
+
+    private static int headerSize(int slots) {
+        return (HDR_SLOT_TABLE + slots * 8 + PAGE_SIZE - 1) & ~(PAGE_SIZE - 1);
+    }
+
+    private static int recordSize(int slots) {
+        return REC_BITMAP + slots / 8 + 8;
+    }
+
+    private int probeStart(long encodedId) {
+        long h = encodedId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private int findRecord(long encodedId) {
+        if (encodedId == 0L) return -1;
+        for (int i = 0, record = probeStart(encodedId); i < capacity; i++, record = (record + 1) & mask) {
+            long stored = records.getLong(recordBase(record) + REC_ID);
+            if (stored == encodedId) return record;
+            if (stored == 0L) return -1;
+        }
+        return -1;
+    }
+
+    private void clearRecord(int record) {
+        for (int offset = 0; offset < recordSize; offset += 8) {
+            records.putLong(recordBase(record) + offset, 0L);
+        }
+    }
+
+    private int claimRecord(long encodedId) {
+        int record = probeStart(encodedId);
+        while (records.getLong(recordBase(record) + REC_ID) != 0L) {
+            record = (record + 1) & mask;
+        }
+        records.putLong(recordBase(record) + REC_ID, encodedId);
+        return record;
+    }
+
+    private int boundSlot(String classroomId) throws ValidationException {
+        Integer slot = boundSlots.get(classroomId);
+        if (slot == null) throw new ValidationException("Classroom is not bound in the student store: " + classroomId);
+        return slot;
+    }
+
+    private int claimSlot(String name) throws ValidationException {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.poll();
+        } else {
+            slot = records.getInt(HDR_CLASSROOM_SLOTS);
+            if (slot >= slotLimit) {
+                throw new ValidationException("Student store has no free classroom slot (" + slotLimit
+                        + " in use); create a new store with a larger vcm.student.store.classrooms");
+            }
+            records.putInt(HDR_CLASSROOM_SLOTS, slot + 1);
+        }
+        writeSlotName(slot, name);
+        slotsByName.put(name, slot);
+        return slot;
+    }
+
+    /**
+     * Free a slot; its bits must already be clear in every record (fresh claims never set any)
+     */
+    private void freeSlot(int slot) {
+        slotsByName.remove(slotName(slot));
+        writeSlotName(slot, "");
+        freeSlots.addFirst(slot);
+    }
+
+    private String slotName(int slot) {
+        int entry = HDR_SLOT_TABLE + slot * 8;
+        return readString(records.getInt(entry), records.getInt(entry + 4));
+    }
+
+    private void writeSlotName(int slot, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int entry = HDR_SLOT_TABLE + slot * 8;
+        records.putInt(entry, bytes.length == 0 ? 0 : appendString(bytes));
+        records.putInt(entry + 4, bytes.length);
+    }
+
+    /**
+     * A removed classroom's slot and the records that were enrolled in it
+     */
+    public static final class ReleasedClassroom {
+        private final String classroomId;
+        private final String name;
+        private final int slot;
+        private final boolean stored;
+        private final int[] records;
+
+        private ReleasedClassroom(String classroomId, String name, int slot, boolean stored, int[] records) {
+            this.classroomId = classroomId;
+            this.name = name;
+            this.slot = slot;
+            this.stored = stored;
+            this.records = records;
+        }
+
+        public int getEnrolledCount() { return records.length; }
+    }
+
+    private int appendString(byte[] bytes) {
+        long position = arena.getLong(0);
+        if (position + bytes.length > arena.capacity()) {
+            throw new IllegalStateException("Student store string arena is full: " + directory);
+        }
+        arena.put((int) position, bytes);
+        arena.putLong(0, position + bytes.length);
+        return (int) position;
+    }
+
+    private String readString(int offset, int length) {
+        if (length == 0) return "";
+        byte[] bytes = new byte[length];
+        arena.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String readName(int base) {
+        return readString(records.getInt(base + REC_NAME_OFF), records.getShort(base + REC_NAME_LEN));
+    }
+
+    private String readEmail(int base) {
+        return readString(records.getInt(base + REC_EMAIL_OFF), records.getShort(base + REC_EMAIL_LEN));
+    }
+}
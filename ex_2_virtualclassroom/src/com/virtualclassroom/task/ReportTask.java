@@ -0,0 +1,89 @@
+/**
+ * Report Task
+ *
+ * One running report command. The report polls {@link #checkpoint} between
+ * units of work (rows, classrooms); once another session cancels the task or
+ * its deadline passes, the next checkpoint throws and the report stops,
+ * keeping whatever it already wrote. Nothing is interrupted, so a report is
+ * never stopped while it holds a half-updated structure.
+ */
+package com.virtualclassroom.task;
+
+import com.virtualclassroom.exception.ReportCancelledException;
+
+import java.util.concurrent.TimeUnit;
+
+public final class ReportTask {
+
+    private final long id;
+    private final String sessionName;
+    private final String command;
+    private final long startNanos;
+    private final long timeoutMillis;
+    private volatile String cancelReason;
+    private volatile long done;
+    private volatile long total;
+
+    ReportTask(long id, String sessionName, String command, long timeoutMillis) {
+        this.id = id;
+        this.sessionName = sessionName;
+        this.command = command;
+        this.startNanos = System.nanoTime();
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getId() { return id; }
+    public String getSessionName() { return sessionName; }
+    public String getCommand() { return command; }
+    public long getElapsedMillis() { return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos); }
+
+    /**
+     * Deadline relative to the start of the command, 0 if the task may run indefinitely
+     */
+    public long getTimeoutMillis() { return timeoutMillis; }
+
+    public boolean isCancelled() { return cancelReason != null; }
+
+    /**
+     * Units of work finished and expected at the last checkpoint, e.g. "120/5000", or "-" before the first
+     */
+    public String getProgress() {
+        long expected = total;
+        return expected == 0 ? "-" : done + "/" + expected;
+    }
+
+    /**
+     * Request cooperative cancellation; the report stops at its next checkpoint
+     *
+     * @return false if the task was already cancelled
+     */
+    public synchronized boolean cancel(String reason) {
+        if (cancelReason != null) {
+            return false;
+        }
+        cancelReason = reason;
+        return true;
+    }
+
+    /**
+     * Stop here if the task was cancelled or is past its deadline
+     */
+    public void checkpoint() {
+        if (cancelReason == null && timeoutMillis > 0 && getElapsedMillis() > timeoutMillis) {
+            cancel("exceeded its " + timeoutMillis + " ms deadline");
+        }
+        String reason = cancelReason;
+        if (reason != null) {
+            throw new ReportCancelledException(id, reason);
+        }
+    }
+
+    /**
+     * Record progress, then stop here if the task was cancelled or is past its deadline
+     */
+    public void checkpoint(long done, long total) {
+        this.done = done;
+        this.total = total;
+        checkpoint();
+    }
+}
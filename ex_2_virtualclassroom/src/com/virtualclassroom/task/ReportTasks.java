@@ -0,0 +1,61 @@
+/**
+ * Report Tasks
+ *
+ * Registry of the report commands currently running across all sessions, so
+ * they can be listed and cancelled by id from any session.
+ */
+package com.virtualclassroom.task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReportTasks {
+
+    private final AtomicLong ids;
+    private final Map<Long, ReportTask> running;
+
+    public ReportTasks() {
+        this.ids = new AtomicLong();
+        this.running = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Register a report that is about to run
+     *
+     * @param timeoutMillis deadline from now, 0 for none
+     */
+    public ReportTask start(String sessionName, String command, long timeoutMillis) {
+        ReportTask task = new ReportTask(ids.incrementAndGet(), sessionName, command, timeoutMillis);
+        running.put(task.getId(), task);
+        return task;
+    }
+
+    public void finish(ReportTask task) {
+        running.remove(task.getId());
+    }
+
+    /**
+     * @return the task, or null if no report with that id is running
+     */
+    public ReportTask cancel(long id, String reason) {
+        ReportTask task = running.get(id);
+        if (task == null) {
+            return null;
+        }
+        task.cancel(reason);
+        return task;
+    }
+
+    /**
+     * Running tasks, oldest first
+     */
+    public List<ReportTask> getRunning() {
+        List<ReportTask> tasks = new ArrayList<>(running.values());
+        tasks.sort(Comparator.comparingLong(ReportTask::getId));
+        return tasks;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Console Renderer
+ *
+ * Builds console listings in a character buffer and writes them to the
+ * session's stream in large chunks instead of one printf (and one autoflush)
+ * per row. The buffer belongs to the renderer, so nothing outlives the
+ * listing on long-lived session threads. Separators are cached per character and width, and
+ * cells are padded and numbers formatted without String.format.
+ *
+ * In PLAIN mode icons are dropped and box-drawing separators become ASCII,
+ * which keeps very large listings compact and safe to pipe into files.
+ */
+package com.virtualclassroom.util;
+
+import com.virtualclassroom.enums.OutputMode;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class ConsoleRenderer {
+
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+    private static final String SPACES = " ".repeat(256);
+    private static final Map<Integer, String> SEPARATORS = new ConcurrentHashMap<>();
+
+    private final PrintStream out;
+    private final OutputMode mode;
+    private final StringBuilder buffer;
+
+    public ConsoleRenderer(PrintStream out, OutputMode mode) {
+        this.out = out;
+        this.mode = mode;
+        this.buffer = new StringBuilder(INITIAL_CAPACITY);
+    }
+
+    public boolean isPlain() {
+        return mode == OutputMode.PLAIN;
+    }
+
+    /**
+     * Emoji followed by a space in RICH mode; nothing in PLAIN mode
+     */
+    public ConsoleRenderer icon(String emoji) {
+        if (mode == OutputMode.RICH) {
+            buffer.append(emoji).append(' ');
+        }
+        return this;
+    }
+
+    public ConsoleRenderer text(String value) {
+        buffer.append(value);
+        return this;
+    }
+
+    public ConsoleRenderer text(char value) {
+        buffer.append(value);
+        return this;
+    }
+
+    /**
+     * Left-aligned cell padded to width; longer values are not truncated
+     */
+    public ConsoleRenderer left(String value, int width) {
+        buffer.append(value);
+        return pad(width - value.length());
+    }
+
+    /**
+     * Right-aligned cell padded to width; longer values are not truncated
+     */
+    public ConsoleRenderer right(String value, int width) {
+        pad(width - value.length());
+        buffer.append(value);
+        return this;
+    }
+
+    public ConsoleRenderer number(long value, int width) {
+        int start = buffer.length();
+        buffer.append(value);
+        return alignRight(start, width);
+    }
+
+    /**
+     * Right-aligned fixed-point number, e.g. fixed(87.46, 1, 5) renders " 87.5"
+     */
+    public ConsoleRenderer fixed(double value, int decimals, int width) {
+        int start = buffer.length();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            buffer.append(value);
+            return alignRight(start, width);
+        }
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) scale *= 10;
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) buffer.append('-');
+        buffer.append(scaled / scale);
+        if (decimals > 0) {
+            buffer.append('.');
+            String fraction = Long.toString(scaled % scale);
+            for (int i = fraction.length(); i < decimals; i++) buffer.append('0');
+            buffer.append(fraction);
+        }
+        return alignRight(start, width);
+    }
+
+    /**
+     * Full separator line; box-drawing characters become '=' and '-' in PLAIN mode
+     */
+    public ConsoleRenderer separator(char ch, int width) {
+        char rendered = mode == OutputMode.PLAIN ? (ch == '═' ? '=' : ch == '─' ? '-' : ch) : ch;
+        buffer.append(SEPARATORS.computeIfAbsent((rendered << 16) | width, key -> String.valueOf(rendered).repeat(width)));
+        return newline();
+    }
+
+    public ConsoleRenderer line(String value) {
+        buffer.append(value);
+        return newline();
+    }
+
+    public ConsoleRenderer newline() {
+        buffer.append('\n');
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            writeBuffer();
+        }
+        return this;
+    }
+
+    /**
+     * Write out whatever is still buffered and flush the stream
+     */
+    public void finish() {
+        writeBuffer();
+        out.flush();
+    }
+
+    private void writeBuffer() {
+        if (buffer.length() > 0) {
+            out.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+    private ConsoleRenderer pad(int count) {
+        while (count > 0) {
+            int chunk = Math.min(count, SPACES.length());
+            buffer.append(SPACES, 0, chunk);
+            count -= chunk;
+        }
+        return this;
+    }
+
+    private ConsoleRenderer alignRight(int start, int width) {
+        int missing = width - (buffer.length() - start);
+        if (missing > 0) {
+            buffer.insert(start, SPACES, 0, Math.min(missing, SPACES.length()));
+        }
+        return this;
+    }
+}
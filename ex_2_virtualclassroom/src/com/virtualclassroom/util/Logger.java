@@ -41,6 +41,10 @@ public class Logger {
         this.currentLogLevel = level;
     }
     
+    public LogLevel getLogLevel() {
+        return currentLogLevel;
+    }
+    
     public void debug(String message) {
         log(LogLevel.DEBUG, message);
     }
@@ -0,0 +1,45 @@
+package com.virtualclassroom.util;
+
+/**
+ * Packs student IDs (two letters followed by 4-6 digits, see ValidationHelper)
+ * into a single non-zero long so they can be stored in fixed-width binary records.
+ */
+public class StudentIdCodec {
+
+    private static final long PRESENT_BIT = 1L << 40;
+
+    private StudentIdCodec() {}
+
+    /**
+     * Encode a valid student ID, returns 0 when the ID does not match the expected format
+     */
+    public static long encode(String studentId) {
+        if (!ValidationHelper.isValidStudentId(studentId)) {
+            return 0L;
+        }
+        String id = studentId.trim();
+        int letters = (id.charAt(0) - 'A') * 26 + (id.charAt(1) - 'A');
+        int digitCount = id.length() - 2;
+        int number = Integer.parseInt(id.substring(2));
+        return PRESENT_BIT | ((long) letters << 23) | ((long) (digitCount - 4) << 20) | number;
+    }
+
+    /**
+     * Decode a value produced by {@link #encode(String)}
+     */
+    public static String decode(long encoded) {
+        if ((encoded & PRESENT_BIT) == 0) {
+            return null;
+        }
+        int letters = (int) ((encoded >>> 23) & 0x3FF);
+        int digitCount = (int) ((encoded >>> 20) & 0x3) + 4;
+        int number = (int) (encoded & 0xFFFFF);
+        StringBuilder id = new StringBuilder(8);
+        id.append((char) ('A' + letters / 26)).append((char) ('A' + letters % 26));
+        String digits = Integer.toString(number);
+        for (int i = digits.length(); i < digitCount; i++) {
+            id.append('0');
+        }
+        return id.append(digits).toString();
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Load Generator
+ *
+ * Replays a recorded or synthesized workload against a manager at a
+ * configurable speed and concurrency. A dispatcher paces commands to their
+ * recorded offsets (scaled by speed; speed 0 runs as fast as possible) and
+ * hands them to a fixed pool of worker sessions. Commands recorded with a
+ * session instead replay in order on one lane per recorded session, so a
+ * command group's begin, commands and commit stay in the session that opened
+ * it; the concurrency then follows the recording.
+ *
+ * Usage:
+ *   java com.virtualclassroom.workload.LoadGenerator <recording|scenario> [speed] [concurrency] [seed]
+ *
+ * where scenario is one of term_start, deadline_spike, grading_burst, mixed.
+ */
+package com.virtualclassroom.workload;
+
+import com.virtualclassroom.manager.CommandSession;
+import com.virtualclassroom.manager.VirtualClassroomManager;
+import com.virtualclassroom.util.Logger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadGenerator {
+
+    // Commands that only make sense on an interactive console
+    private static final Set<String> SKIPPED_COMMANDS = Set.of("exit", "clear", "help");
+    private static final int QUEUE_DEPTH_PER_WORKER = 64;
+
+    private final VirtualClassroomManager manager;
+    private final double speed;
+    private final int concurrency;
+
+    public LoadGenerator(VirtualClassroomManager manager, double speed, int concurrency) {
+        if (concurrency <= 0) throw new IllegalArgumentException("Concurrency must be greater than 0");
+        this.manager = manager;
+        this.speed = speed;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Run setup commands one by one without measuring them
+     */
+    public long prepare(List<WorkloadRecord> setup) {
+        CommandSession session = CommandSession.discarding("load-setup");
+        long failed = 0;
+        for (WorkloadRecord record : setup) {
+            if (!manager.executeCommand(session, record.getCommand())) failed++;
+        }
+        return failed;
+    }
+
+    public LoadReport run(String label, List<WorkloadRecord> workload) throws InterruptedException {
+        List<WorkloadRecord> commands = workload.stream()
+                .filter(r -> !SKIPPED_COMMANDS.contains(r.getCommandName()))
+                .toList();
+        int count = commands.size();
+        long[] latencies = new long[count];
+        String[] names = new String[count];
+        AtomicLong failed = new AtomicLong();
+        Semaphore inFlight = new Semaphore(concurrency * QUEUE_DEPTH_PER_WORKER);
+        ThreadLocal<CommandSession> sessions = ThreadLocal.withInitial(
+                () -> CommandSession.discarding(Thread.currentThread().getName()));
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, new ThreadFactory() {
+            private int next;
+
+            @Override
+            public synchronized Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "load-worker-" + next++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        Map<String, SessionLane> lanes = new HashMap<>();
+
+        long start = System.nanoTime();
+        long baseOffset = count == 0 ? 0 : commands.get(0).getOffsetMillis();
+        try {
+            for (int i = 0; i < count; i++) {
+                WorkloadRecord record = commands.get(i);
+                long intended = start;
+                if (speed > 0) {
+                    intended += (long) ((record.getOffsetMillis() - baseOffset) * 1_000_000L / speed);
+                    long wait;
+                    while ((wait = intended - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    intended = System.nanoTime();
+                }
+                int index = i;
+                long scheduledAt = intended;
+                names[i] = record.getCommandName();
+                if (record.hasSession()) {
+                    // not bounded by inFlight: a lane waiting for another session's group must not stall the dispatcher
+                    SessionLane lane = lanes.computeIfAbsent(record.getSession(), SessionLane::new);
+                    lane.executor.execute(() -> {
+                        try {
+                            if (!manager.executeCommand(lane.session, record.getCommand())) {
+                                failed.incrementAndGet();
+                            }
+                        } finally {
+                            latencies[index] = System.nanoTime() - scheduledAt;
+                        }
+                    });
+                    continue;
+                }
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        if (!manager.executeCommand(sessions.get(), record.getCommand())) {
+                            failed.incrementAndGet();
+                        }
+                    } finally {
+                        latencies[index] = System.nanoTime() - scheduledAt;
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            for (SessionLane lane : lanes.values()) {
+                lane.executor.shutdown();
+            }
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            for (SessionLane lane : lanes.values()) {
+                lane.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                manager.endSession(lane.session);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return new LoadReport(label, latencies, names, failed.get(), elapsed, concurrency, speed);
+    }
+
+    /**
+     * Replays the commands of one recorded session in order on its own thread
+     */
+    private static final class SessionLane {
+        private final CommandSession session;
+        private final ExecutorService executor;
+
+        SessionLane(String name) {
+            this.session = CommandSession.discarding(name);
+            this.executor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "load-session-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: LoadGenerator <recording|term_start|deadline_spike|grading_burst|mixed> [speed] [concurrency] [seed]");
+            return;
+        }
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        Logger.getInstance().setLogLevel(Logger.LogLevel.WARN);
+        VirtualClassroomManager manager = new VirtualClassroomManager();
+        LoadGenerator generator = new LoadGenerator(manager, speed, concurrency);
+
+        List<WorkloadRecord> commands;
+        Path path = Paths.get(args[0]);
+        if (Files.exists(path)) {
+            commands = WorkloadReader.read(path);
+        } else {
+            WorkloadSynthesizer.Scenario scenario = WorkloadSynthesizer.Scenario.valueOf(args[0].toUpperCase());
+            WorkloadSynthesizer.Workload workload = new WorkloadSynthesizer.Builder().setSeed(seed).build().synthesize(scenario);
+            long setupFailures = generator.prepare(workload.getSetup());
+            System.out.println("Setup: " + workload.getSetup().size() + " commands (" + setupFailures + " failed)");
+            commands = workload.getCommands();
+        }
+        System.out.println(generator.run(args[0], commands).getReport());
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Load Report
+ *
+ * Throughput and latency percentiles of one load-generator run. Latencies are
+ * measured from each command's intended start time, so time spent queued
+ * behind slow commands counts against the run.
+ */
+package com.virtualclassroom.workload;
+
+import java.util.*;
+
+public class LoadReport {
+
+    private final String label;
+    private final long[] sortedLatencyNanos;
+    private final long failedCount;
+    private final long elapsedNanos;
+    private final int concurrency;
+    private final double speed;
+    private final Map<String, long[]> latencyByCommand; // command -> sorted latencies
+
+    public LoadReport(String label, long[] latencyNanos, String[] commandNames, long failedCount,
+               long elapsedNanos, int concurrency, double speed) {
+        this.label = label;
+        this.failedCount = failedCount;
+        this.elapsedNanos = elapsedNanos;
+        this.concurrency = concurrency;
+        this.speed = speed;
+        this.sortedLatencyNanos = latencyNanos.clone();
+        Arrays.sort(sortedLatencyNanos);
+
+        Map<String, List<Long>> grouped = new TreeMap<>();
+        for (int i = 0; i < latencyNanos.length; i++) {
+            grouped.computeIfAbsent(commandNames[i], k -> new ArrayList<>()).add(latencyNanos[i]);
+        }
+        this.latencyByCommand = new LinkedHashMap<>();
+        grouped.forEach((name, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+            latencyByCommand.put(name, sorted);
+        });
+    }
+
+    public long getCommandCount() { return sortedLatencyNanos.length; }
+    public long getFailedCount() { return failedCount; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : sortedLatencyNanos.length * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Latency at the given percentile (0-100) in microseconds
+     */
+    public double getPercentileMicros(double percentile) {
+        return percentile(sortedLatencyNanos, percentile) / 1000.0;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Load Report: ").append(label).append(" ===\n");
+        report.append(String.format("Speed: %s | Concurrency: %d%n", speed <= 0 ? "max" : speed + "x", concurrency));
+        report.append(String.format("Commands: %d (%d failed) in %.2f s%n", sortedLatencyNanos.length, failedCount, elapsedNanos / 1e9));
+        report.append(String.format("Throughput: %.0f commands/s%n", getThroughput()));
+        report.append(String.format("Latency (us): p50 %.1f | p90 %.1f | p99 %.1f | p99.9 %.1f | max %.1f%n",
+                getPercentileMicros(50), getPercentileMicros(90), getPercentileMicros(99),
+                getPercentileMicros(99.9), getPercentileMicros(100)));
+        report.append("\nPer Command:\n");
+        latencyByCommand.forEach((name, sorted) -> report.append(String.format("  %-24s %8d | p50 %9.1f | p99 %9.1f us%n",
+                name, sorted.length, percentile(sorted, 50) / 1000.0, percentile(sorted, 99) / 1000.0)));
+        return report.toString();
+    }
+}
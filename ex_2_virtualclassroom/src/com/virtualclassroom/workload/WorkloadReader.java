@@ -0,0 +1,69 @@
+/**
+ * Workload Reader
+ *
+ * Reads a file written by {@link WorkloadRecorder} back into records with
+ * offsets relative to the start of the recording. Records of version 1 files
+ * carry no session.
+ */
+package com.virtualclassroom.workload;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class WorkloadReader {
+
+    private WorkloadReader() {}
+
+    public static List<WorkloadRecord> read(Path path) throws IOException {
+        List<WorkloadRecord> records = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            if (input.readInt() != WorkloadRecorder.MAGIC) {
+                throw new IOException("Not a workload recording: " + path);
+            }
+            int version = input.readUnsignedByte();
+            if (version < 1 || version > WorkloadRecorder.FORMAT_VERSION) {
+                throw new IOException("Unsupported workload format version " + version + " in " + path);
+            }
+            input.readLong(); // recording start time, informational only
+            List<String> sessions = new ArrayList<>();
+            long offset = 0;
+            while (true) {
+                int first = input.read();
+                if (first < 0) break;
+                try {
+                    offset += readVarLong(input, first);
+                    String session = "";
+                    if (version > 1) {
+                        int index = (int) readVarLong(input, input.readUnsignedByte());
+                        if (index == sessions.size()) {
+                            sessions.add(input.readUTF());
+                        }
+                        session = sessions.get(index);
+                    }
+                    records.add(new WorkloadRecord(offset, session, input.readUTF()));
+                } catch (EOFException e) {
+                    break; // truncated tail of a recording that was not closed cleanly
+                }
+            }
+        }
+        return records;
+    }
+
+    private static long readVarLong(DataInputStream input, int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+}
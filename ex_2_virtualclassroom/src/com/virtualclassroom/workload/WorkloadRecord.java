@@ -0,0 +1,42 @@
+/**
+ * Workload Record
+ *
+ * One command of a recorded or synthesized workload, stamped with its offset
+ * in milliseconds from the start of the workload and, for recordings, the name
+ * of the session that issued it (empty when unknown).
+ */
+package com.virtualclassroom.workload;
+
+public class WorkloadRecord {
+    private final long offsetMillis;
+    private final String session;
+    private final String command;
+
+    public WorkloadRecord(long offsetMillis, String command) {
+        this(offsetMillis, "", command);
+    }
+
+    public WorkloadRecord(long offsetMillis, String session, String command) {
+        this.offsetMillis = offsetMillis;
+        this.session = session;
+        this.command = command;
+    }
+
+    public long getOffsetMillis() { return offsetMillis; }
+    public String getSession() { return session; }
+    public boolean hasSession() { return !session.isEmpty(); }
+    public String getCommand() { return command; }
+
+    /**
+     * First word of the command, used to group latency statistics
+     */
+    public String getCommandName() {
+        int space = command.indexOf(' ');
+        return (space < 0 ? command : command.substring(0, space)).toLowerCase();
+    }
+
+    @Override
+    public String toString() {
+        return "+" + offsetMillis + "ms " + command;
+    }
+}
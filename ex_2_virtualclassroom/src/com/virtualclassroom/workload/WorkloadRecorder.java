@@ -0,0 +1,107 @@
+/**
+ * Workload Recorder
+ *
+ * Appends processed commands to a compact binary file: a small header with the
+ * recording start time, then per command a varint millisecond delta from the
+ * previous command, a varint index of the session that issued it (a new index
+ * is followed by the session name) and the command text in modified UTF-8.
+ * A typical command costs a few dozen bytes.
+ */
+package com.virtualclassroom.workload;
+
+import com.virtualclassroom.util.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+public class WorkloadRecorder implements AutoCloseable {
+
+    static final int MAGIC = 0x56434D57; // "VCMW"
+    static final int FORMAT_VERSION = 2;     // version 1 has no session index
+
+    private final Path path;
+    private final DataOutputStream output;
+    private final Logger logger;
+    private final Map<String, Integer> sessionIndexes;
+    private long lastMillis;
+    private long recordCount;
+    private boolean failed;
+
+    private WorkloadRecorder(Path path, DataOutputStream output, long startMillis) {
+        this.path = path;
+        this.output = output;
+        this.lastMillis = startMillis;
+        this.logger = Logger.getInstance();
+        this.sessionIndexes = new HashMap<>();
+    }
+
+    public static WorkloadRecorder create(Path path) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+        long startMillis = System.currentTimeMillis();
+        output.writeInt(MAGIC);
+        output.writeByte(FORMAT_VERSION);
+        output.writeLong(startMillis);
+        return new WorkloadRecorder(path, output, startMillis);
+    }
+
+    public Path getPath() { return path; }
+    public synchronized long getRecordCount() { return recordCount; }
+
+    /**
+     * Record a command of a session stamped with the current time. I/O failures
+     * are logged once and stop the recording; they never fail the command.
+     */
+    public synchronized void record(String session, String command) {
+        if (failed) return;
+        long now = System.currentTimeMillis();
+        try {
+            writeVarLong(output, Math.max(0, now - lastMillis));
+            Integer index = sessionIndexes.get(session);
+            if (index == null) {
+                index = sessionIndexes.size();
+                sessionIndexes.put(session, index);
+                writeVarLong(output, index);
+                output.writeUTF(session);
+            } else {
+                writeVarLong(output, index);
+            }
+            output.writeUTF(command);
+            lastMillis = Math.max(lastMillis, now);
+            recordCount++;
+        } catch (IOException e) {
+            failed = true;
+            logger.error("Workload recording stopped after " + recordCount + " commands", e);
+        }
+    }
+
+    public synchronized void flush() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            logger.error("Failed to flush workload recording", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            output.close();
+            logger.info("Workload recording closed: " + recordCount + " commands in " + path);
+        } catch (IOException e) {
+            logger.error("Failed to close workload recording", e);
+        }
+    }
+
+    static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * Workload Synthesizer
+ *
+ * Generates seeded, reproducible command streams that resemble the load
+ * patterns seen over a term: enrollment-heavy term starts, submission spikes
+ * just before a deadline and grading bursts once submissions are in.
+ * Every scenario comes with an unmeasured setup phase that creates the
+ * classrooms, students and assignments its commands refer to.
+ */
+package com.virtualclassroom.workload;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class WorkloadSynthesizer {
+
+    public enum Scenario {
+        TERM_START, DEADLINE_SPIKE, GRADING_BURST, MIXED
+    }
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Bruno", "Chen", "Divya", "Elena", "Farid", "Grace", "Hiro",
+            "Ines", "Jonas", "Kofi", "Lena", "Mateo", "Nora", "Omar", "Priya"
+    };
+
+    private final long seed;
+    private final int classroomCount;
+    private final int studentsPerClassroom;
+    private final int assignmentsPerClassroom;
+    private final long durationMillis;
+    private final double readRatio;
+
+    private WorkloadSynthesizer(Builder builder) {
+        this.seed = builder.seed;
+        this.classroomCount = builder.classroomCount;
+        this.studentsPerClassroom = builder.studentsPerClassroom;
+        this.assignmentsPerClassroom = builder.assignmentsPerClassroom;
+        this.durationMillis = builder.durationMillis;
+        this.readRatio = builder.readRatio;
+    }
+
+    /**
+     * Setup commands followed by the timed commands of the scenario
+     */
+    public static class Workload {
+        private final List<WorkloadRecord> setup;
+        private final List<WorkloadRecord> commands;
+
+        Workload(List<WorkloadRecord> setup, List<WorkloadRecord> commands) {
+            this.setup = setup;
+            this.commands = commands;
+        }
+
+        public List<WorkloadRecord> getSetup() { return setup; }
+        public List<WorkloadRecord> getCommands() { return commands; }
+    }
+
+    public Workload synthesize(Scenario scenario) {
+        Random random = new Random(seed ^ scenario.ordinal());
+        List<WorkloadRecord> setup = new ArrayList<>();
+        List<WorkloadRecord> commands = new ArrayList<>();
+        addClassrooms(setup);
+        switch (scenario) {
+            case TERM_START -> termStart(random, commands, 0, durationMillis);
+            case DEADLINE_SPIKE -> {
+                enrollAll(setup);
+                scheduleAssignments(setup);
+                deadlineSpike(random, commands, 0, durationMillis);
+            }
+            case GRADING_BURST -> {
+                enrollAll(setup);
+                scheduleAssignments(setup);
+                submitAll(setup);
+                gradingBurst(random, commands, 0, durationMillis);
+            }
+            case MIXED -> {
+                long phase = durationMillis / 3;
+                termStart(random, commands, 0, phase);
+                scheduleAssignments(commands, phase);
+                deadlineSpike(random, commands, phase, phase);
+                gradingBurst(random, commands, 2 * phase, durationMillis - 2 * phase);
+            }
+        }
+        commands.sort((a, b) -> Long.compare(a.getOffsetMillis(), b.getOffsetMillis()));
+        return new Workload(setup, commands);
+    }
+
+    // --- Phases ---
+
+    private void termStart(Random random, List<WorkloadRecord> out, long start, long length) {
+        int total = classroomCount * studentsPerClassroom;
+        for (int i = 0; i < total; i++) {
+            // enrollment arrivals ramp up as the term start approaches: density grows linearly
+            long offset = start + (long) (length * Math.sqrt(random.nextDouble()));
+            out.add(new WorkloadRecord(offset, enrollCommand(i % classroomCount, i / classroomCount)));
+            if (random.nextDouble() < readRatio) {
+                out.add(new WorkloadRecord(offset, random.nextBoolean()
+                        ? "list_classrooms"
+                        : "list_students " + classroomName(random.nextInt(classroomCount))));
+            }
+        }
+    }
+
+    private void deadlineSpike(Random random, List<WorkloadRecord> out, long start, long length) {
+        for (int c = 0; c < classroomCount; c++) {
+            for (int a = 0; a < assignmentsPerClassroom; a++) {
+                for (int s = 0; s < studentsPerClassroom; s++) {
+                    if (neverSubmits(c, a, s)) continue;
+                    // most submissions land in the last hours before the deadline
+                    long offset = start + (long) (length * Math.pow(random.nextDouble(), 0.2));
+                    out.add(new WorkloadRecord(offset, "submit_assignment " + studentId(c, s) + " "
+                            + classroomName(c) + " " + assignmentTitle(a) + " " + studentId(c, s) + "_hw" + (a + 1) + ".pdf"));
+                    if (random.nextDouble() < readRatio) {
+                        out.add(new WorkloadRecord(offset, "student_profile " + studentId(c, s)));
+                    }
+                }
+            }
+        }
+    }
+
+    private void gradingBurst(Random random, List<WorkloadRecord> out, long start, long length) {
+        for (int c = 0; c < classroomCount; c++) {
+            for (int a = 0; a < assignmentsPerClassroom; a++) {
+                // a teacher grades one assignment in a single sitting
+                long offset = start + (long) (length * random.nextDouble());
+                for (int s = 0; s < studentsPerClassroom; s++) {
+                    if (neverSubmits(c, a, s)) continue;
+                    int grade = (int) Math.max(0, Math.min(100, Math.round(75 + random.nextGaussian() * 15)));
+                    out.add(new WorkloadRecord(offset, "grade_assignment " + classroomName(c) + " "
+                            + assignmentTitle(a) + " " + studentId(c, s) + " " + grade));
+                    offset += 1 + random.nextInt(20);
+                }
+                if (random.nextDouble() < readRatio * 10) {
+                    out.add(new WorkloadRecord(offset, "classroom_analytics " + classroomName(c)));
+                }
+            }
+        }
+    }
+
+    // --- Setup helpers ---
+
+    private void addClassrooms(List<WorkloadRecord> out) {
+        for (int c = 0; c < classroomCount; c++) {
+            out.add(new WorkloadRecord(0, "add_classroom " + classroomName(c) + " Synthetic " + studentsPerClassroom));
+        }
+    }
+
+    private void enrollAll(List<WorkloadRecord> out) {
+        for (int s = 0; s < studentsPerClassroom; s++) {
+            for (int c = 0; c < classroomCount; c++) {
+                out.add(new WorkloadRecord(0, enrollCommand(c, s)));
+            }
+        }
+    }
+
+    private void scheduleAssignments(List<WorkloadRecord> out) {
+        scheduleAssignments(out, 0);
+    }
+
+    private void scheduleAssignments(List<WorkloadRecord> out, long offset) {
+        String dueDate = LocalDate.now().plusDays(30).toString();
+        for (int c = 0; c < classroomCount; c++) {
+            for (int a = 0; a < assignmentsPerClassroom; a++) {
+                out.add(new WorkloadRecord(offset, "schedule_assignment " + classroomName(c) + " "
+                        + assignmentTitle(a) + " Synthetic 100 " + dueDate));
+            }
+        }
+    }
+
+    private void submitAll(List<WorkloadRecord> out) {
+        for (int c = 0; c < classroomCount; c++) {
+            for (int a = 0; a < assignmentsPerClassroom; a++) {
+                for (int s = 0; s < studentsPerClassroom; s++) {
+                    if (neverSubmits(c, a, s)) continue;
+                    out.add(new WorkloadRecord(0, "submit_assignment " + studentId(c, s) + " "
+                            + classroomName(c) + " " + assignmentTitle(a)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Roughly 8% of (classroom, assignment, student) triples never submit; the
+     * choice is a pure function of the seed so grading phases skip the same ones
+     */
+    private boolean neverSubmits(int classroom, int assignment, int seat) {
+        long h = seed * 0x9E3779B97F4A7C15L + ((long) classroom << 40 | (long) assignment << 24 | seat);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return Math.floorMod(h, 100) < 8;
+    }
+
+    private String enrollCommand(int classroom, int seat) {
+        String id = studentId(classroom, seat);
+        String name = FIRST_NAMES[(classroom * 31 + seat) % FIRST_NAMES.length];
+        return "add_student " + id + " " + name + " " + name.toLowerCase() + "." + id.toLowerCase() + "@school.edu "
+                + classroomName(classroom);
+    }
+
+    static String classroomName(int classroom) {
+        return String.format("Class%04d", classroom);
+    }
+
+    static String assignmentTitle(int assignment) {
+        return "HW" + (assignment + 1);
+    }
+
+    private String studentId(int classroom, int seat) {
+        return String.format("ST%06d", classroom * studentsPerClassroom + seat);
+    }
+
+    public static class Builder {
+        private long seed = 42;
+        private int classroomCount = 20;
+        private int studentsPerClassroom = 40;
+        private int assignmentsPerClassroom = 3;
+        private long durationMillis = 60_000;
+        private double readRatio = 0.1;
+
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder setClassroomCount(int classroomCount) {
+            this.classroomCount = classroomCount;
+            return this;
+        }
+
+        public Builder setStudentsPerClassroom(int studentsPerClassroom) {
+            this.studentsPerClassroom = studentsPerClassroom;
+            return this;
+        }
+
+        public Builder setAssignmentsPerClassroom(int assignmentsPerClassroom) {
+            this.assignmentsPerClassroom = assignmentsPerClassroom;
+            return this;
+        }
+
+        public Builder setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+            return this;
+        }
+
+        public Builder setReadRatio(double readRatio) {
+            this.readRatio = readRatio;
+            return this;
+        }
+
+        public WorkloadSynthesizer build() {
+            if (classroomCount <= 0 || studentsPerClassroom <= 0 || assignmentsPerClassroom < 0) {
+                throw new IllegalArgumentException("Workload sizes must be positive");
+            }
+            if ((long) classroomCount * studentsPerClassroom > 1_000_000) {
+                throw new IllegalArgumentException("At most 1,000,000 synthetic students (ST000000-ST999999)");
+            }
+            return new WorkloadSynthesizer(this);
+        }
+    }
+}